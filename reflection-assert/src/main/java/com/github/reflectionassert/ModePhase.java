@@ -16,6 +16,7 @@
 package com.github.reflectionassert;
 
 import static java.util.Collections.emptySet;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.ALIGNED_ORDER;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.IGNORE_DEFAULTS;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_DATES;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
@@ -23,20 +24,34 @@ import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDE
 import java.util.EnumSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import org.unitils.reflectionassert.AggregateBoundary;
+import org.unitils.reflectionassert.CollectionSampling;
+import org.unitils.reflectionassert.ComparisonBudget;
+import org.unitils.reflectionassert.FieldFilter;
+import org.unitils.reflectionassert.FloatingPointTolerance;
+import org.unitils.reflectionassert.OpaqueTypes;
 import org.unitils.reflectionassert.ReflectionComparatorMode;
+import org.unitils.reflectionassert.ReflectionComparatorOptions;
 
 public final class ModePhase {
 
   private final Optional<String> message;
   private final Set<ReflectionComparatorMode> modes;
+  private final ReflectionComparatorOptions options;
 
   ModePhase() {
-    this(Optional.empty(), emptySet());
+    this(Optional.empty(), emptySet(), ReflectionComparatorOptions.defaultOptions());
   }
 
-  private ModePhase(Optional<String> message, Set<ReflectionComparatorMode> modes) {
+  private ModePhase(
+      Optional<String> message,
+      Set<ReflectionComparatorMode> modes,
+      ReflectionComparatorOptions options
+  ) {
     this.message = message;
     this.modes = modes;
+    this.options = options;
   }
 
   /**
@@ -52,10 +67,22 @@ public final class ModePhase {
     return with(LENIENT_ORDER);
   }
 
+  /**
+   * <p>Compare the order of collections and arrays, but report inserted and removed
+   * elements as such instead of as a difference for every element after them.
+   *
+   * <p>Example: <code>["a", "b", "c"]</code> and <code>["a", "x", "b", "c"]</code>
+   * differ only by the inserted <code>"x"</code>.
+   */
+  public ModePhase withAlignedOrder() {
+    return with(ALIGNED_ORDER);
+  }
+
   private ModePhase with(ReflectionComparatorMode mode) {
     return new ModePhase(
         message,
-        EnumSet.of(mode, modes.toArray(new ReflectionComparatorMode[]{}))
+        EnumSet.of(mode, modes.toArray(new ReflectionComparatorMode[]{})),
+        options
     );
   }
 
@@ -106,13 +133,205 @@ public final class ModePhase {
     return with(LENIENT_DATES);
   }
 
+  /**
+   * <p>Compare float and double values (boxed, fields and arrays) using the given tolerance
+   * instead of exact equality.
+   *
+   * <p>Example:
+   * <pre>assertReflective().withFloatingPointTolerance(FloatingPointTolerance.absolute(1e-9))
+   * .that(new double[]{0.1 + 0.2})
+   * .isEqualTo(new double[]{0.3})
+   * </pre>
+   * will yield no failure.
+   */
+  public ModePhase withFloatingPointTolerance(FloatingPointTolerance tolerance) {
+    return new ModePhase(
+        message,
+        modes,
+        options.withFloatingPointTolerance(tolerance)
+    );
+  }
+
+  /**
+   * <p>Allow elements of collections and arrays to be out of order by at most
+   * <code>window</code> positions, which is much cheaper than {@link #withLenientOrder()}
+   * for collections that are almost ordered.
+   *
+   * <p>Example:
+   * <pre>assertReflective().withReorderWindow(1)
+   * .that(asList("a", "c", "b"))
+   * .isEqualTo(asList("a", "b", "c"))
+   * </pre>
+   * will yield no failure.
+   */
+  public ModePhase withReorderWindow(int window) {
+    return new ModePhase(
+        message,
+        modes,
+        options.withReorderWindow(window)
+    );
+  }
+
+  /**
+   * <p>In lenient order mode, match elements of the given type by a key, e.g. their id,
+   * instead of trying every combination of elements. Elements are then only compared with
+   * the element with the same key, and elements without such a counterpart are reported as
+   * missing.
+   *
+   * <p>Example:
+   * <pre>assertReflective().withLenientOrder().withElementKey(User.class, User::getId)
+   * .that(actualUsers)
+   * .isEqualTo(expectedUsers)
+   * </pre>
+   */
+  public <T> ModePhase withElementKey(Class<T> type, Function<? super T, ?> keyExtractor) {
+    return new ModePhase(
+        message,
+        modes,
+        options.withElementKey(type, keyExtractor)
+    );
+  }
+
+  /**
+   * <p>Same as {@link #withElementKey(Class, Function)} using the value of a field path,
+   * e.g. <code>"id"</code> or <code>"customer.id"</code>, as key.
+   */
+  public ModePhase withElementKey(Class<?> type, String fieldPath) {
+    return new ModePhase(
+        message,
+        modes,
+        options.withElementKey(type, fieldPath)
+    );
+  }
+
+  /**
+   * <p>Compare only a deterministic random sample of the elements of large collections,
+   * arrays and maps, next to their sizes. As soon as a sampled element differs, all elements
+   * are compared, so a failure always reports all differences.
+   *
+   * <p>Example:
+   * <pre>assertReflective().withCollectionSampling(CollectionSampling.fixed(3000))
+   * .that(actualSnapshot)
+   * .isEqualTo(expectedSnapshot)
+   * </pre>
+   * detects with 95% confidence that more than 0.1% of the elements differ, see
+   * {@link CollectionSampling#getMaxDifferentFraction(int, double)}.
+   */
+  public ModePhase withCollectionSampling(CollectionSampling sampling) {
+    return new ModePhase(
+        message,
+        modes,
+        options.withCollectionSampling(sampling)
+    );
+  }
+
+  /**
+   * <p>Limit the work of the comparison, e.g. to keep a pathological LENIENT_ORDER comparison
+   * from running for hours. When a limit is exceeded, the assertion fails with the differences
+   * found so far, also {@link OperationPhase#isNotEqualTo(Object)}, since inequality could not
+   * be determined.
+   *
+   * <p>Example:
+   * <pre>assertReflective().withLenientOrder()
+   * .withBudget(ComparisonBudget.unlimited().withTimeout(Duration.ofSeconds(10)))
+   * .that(actualEvents)
+   * .isEqualTo(expectedEvents)
+   * </pre>
+   */
+  public ModePhase withBudget(ComparisonBudget budget) {
+    return new ModePhase(
+        message,
+        modes,
+        options.withComparisonBudget(budget)
+    );
+  }
+
+  /**
+   * <p>Compare only the fields that pass the given filter, e.g. to ignore audit metadata or
+   * parent back-references. Excluded fields are not even read.
+   *
+   * <p>Example:
+   * <pre>assertReflective()
+   * .withFieldFilter(FieldFilter.allFields().withExcludedPath("**.createdAt"))
+   * .that(actualOrder)
+   * .isEqualTo(expectedOrder)
+   * </pre>
+   * will yield no failure if the orders only differ in their createdAt fields.
+   */
+  public ModePhase withFieldFilter(FieldFilter fieldFilter) {
+    return new ModePhase(
+        message,
+        modes,
+        options.withFieldFilter(fieldFilter)
+    );
+  }
+
+  /**
+   * <p>Compare the values at the paths that match the given pattern with the given modes next
+   * to the modes of the assertion, e.g. ignore the order of one set-like field without
+   * comparing all other collections in the more expensive lenient order mode.
+   *
+   * <p>Example:
+   * <pre>assertReflective().withPathModes("customer.tags", ReflectionComparatorMode.LENIENT_ORDER)
+   * .that(actualOrder)
+   * .isEqualTo(expectedOrder)
+   * </pre>
+   */
+  public ModePhase withPathModes(String pattern, ReflectionComparatorMode... modes) {
+    return new ModePhase(
+        message,
+        this.modes,
+        options.withPathModes(pattern, modes)
+    );
+  }
+
+  /**
+   * <p>Compare the entities beyond the boundary of the compared aggregates only by their type and
+   * identifier, so that an assertion on bidirectionally linked entities does not traverse (or
+   * load) the whole graph.
+   *
+   * <p>Example:
+   * <pre>assertReflective().withAggregateBoundary(AggregateBoundary.jpaEntities())
+   * .that(actualOrder)
+   * .isEqualTo(expectedOrder)
+   * </pre>
+   * will compare the fields of the orders, but only the id of their customers.
+   */
+  public ModePhase withAggregateBoundary(AggregateBoundary aggregateBoundary) {
+    return new ModePhase(
+        message,
+        modes,
+        options.withAggregateBoundary(aggregateBoundary)
+    );
+  }
+
+  /**
+   * <p>Compare the values of the given types by identity, or ignore them, instead of traversing
+   * them, e.g. the {@link OpaqueTypes#defaults()}: loggers, class loaders, threads, executors,
+   * locks, framework contexts...
+   *
+   * <p>Example:
+   * <pre>assertReflective().withOpaqueTypes(OpaqueTypes.defaults().withIgnoredTypes(Clock.class))
+   * .that(actualService)
+   * .isEqualTo(expectedService)
+   * </pre>
+   */
+  public ModePhase withOpaqueTypes(OpaqueTypes opaqueTypes) {
+    return new ModePhase(
+        message,
+        modes,
+        options.withOpaqueTypes(opaqueTypes)
+    );
+  }
+
   /**
    * A non-null message that will be used if the assertion fails.
    */
   public ModePhase withMessage(String message) {
     return new ModePhase(
         Optional.of(message),
-        modes
+        modes,
+        options
     );
   }
 
@@ -120,6 +339,6 @@ public final class ModePhase {
    * Commits current configuration and binds actual parameter for assertion.
    */
   public OperationPhase that(Object actual) {
-    return new OperationPhase(actual, message, modes);
+    return new OperationPhase(actual, message, modes, options);
   }
 }
@@ -19,10 +19,14 @@ import static org.unitils.reflectionassert.ReflectionComparatorFactory.createRef
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import org.opentest4j.AssertionFailedError;
 import org.unitils.core.util.ObjectFormatter;
+import org.unitils.reflectionassert.ComparisonBudget;
 import org.unitils.reflectionassert.ReflectionComparator;
 import org.unitils.reflectionassert.ReflectionComparatorMode;
+import org.unitils.reflectionassert.ReflectionComparatorOptions;
 import org.unitils.reflectionassert.difference.Difference;
 import org.unitils.reflectionassert.report.DifferenceReport;
 import org.unitils.reflectionassert.report.impl.DefaultDifferenceReport;
@@ -32,15 +36,18 @@ public final class OperationPhase {
   private final Object actual;
   private final Optional<String> message;
   private final Set<ReflectionComparatorMode> modes;
+  private final ReflectionComparatorOptions options;
 
   OperationPhase(
       Object actual,
       Optional<String> message,
-      Set<ReflectionComparatorMode> modes
+      Set<ReflectionComparatorMode> modes,
+      ReflectionComparatorOptions options
   ) {
     this.actual = actual;
     this.message = message;
     this.modes = modes;
+    this.options = options;
   }
 
   /**
@@ -50,13 +57,36 @@ public final class OperationPhase {
    * @throws AssertionFailedError when given objects are not equal
    */
   public void isEqualTo(Object expected) {
-    ReflectionComparator reflectionComparator = createReflectionComparator(modes);
-    Difference difference = reflectionComparator.getDifference(expected, actual);
+    Difference difference = getDifference(expected);
     if (difference != null) {
       fail(buildFailureMessage(difference, new DefaultDifferenceReport()));
     }
   }
 
+  /**
+   * Same as {@link #isEqualTo(Object)} but performed by the given executor, so that several large
+   * comparisons can overlap with each other or with I/O. Cancelling the returned future or
+   * interrupting the thread that performs the comparison stops it at the next value that is
+   * compared.
+   *
+   * @param executor the executor that performs the comparison, not null
+   * @return a future that completes exceptionally with an {@link AssertionFailedError} (wrapped
+   * in a {@link java.util.concurrent.CompletionException}) when given objects are not equal
+   */
+  public CompletableFuture<Void> isEqualToAsync(Object expected, Executor executor) {
+    ReflectionComparator reflectionComparator = createReflectionComparator(modes, options);
+    CompletableFuture<Difference> comparison = reflectionComparator
+        .getDifferenceAsync(expected, actual, options.getComparisonBudget(), executor);
+    CompletableFuture<Void> result = comparison.thenAccept(difference -> {
+      if (difference != null) {
+        fail(buildFailureMessage(difference, new DefaultDifferenceReport()));
+      }
+    });
+    // cancelling a dependent future does not stop the comparison it depends on
+    result.whenComplete((ignore, throwable) -> comparison.cancel(false));
+    return result;
+  }
+
   private String buildFailureMessage(
       Difference difference,
       DifferenceReport report
@@ -77,8 +107,15 @@ public final class OperationPhase {
    * @throws AssertionFailedError when given objects are equal
    */
   public void isNotEqualTo(Object unexpected) {
-    ReflectionComparator reflectionComparator = createReflectionComparator(modes);
-    Difference difference = reflectionComparator.getDifference(unexpected, actual);
+    Difference difference = getDifference(unexpected);
+    if (difference != null && difference.isTruncated()) {
+      // the differences found so far may not be real, e.g. in lenient order
+      fail(buildFailureMessage(
+          null,
+          ignore -> "expected: not equal, but could not be determined: "
+              + difference.getTruncationReason()
+      ));
+    }
     if (difference == null) {
       fail(buildFailureMessage(
           null,
@@ -87,6 +124,15 @@ public final class OperationPhase {
     }
   }
 
+  private Difference getDifference(Object expected) {
+    ReflectionComparator reflectionComparator = createReflectionComparator(modes, options);
+    ComparisonBudget budget = options.getComparisonBudget();
+    if (budget == null) {
+      return reflectionComparator.getDifference(expected, actual);
+    }
+    return reflectionComparator.getDifference(expected, actual, budget);
+  }
+
   private static void fail(String message) {
     throw new AssertionFailedError(message);
   }
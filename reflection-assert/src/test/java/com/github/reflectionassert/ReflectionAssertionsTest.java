@@ -32,11 +32,14 @@ import java.time.LocalDateTime;
 import java.time.Month;
 import java.time.ZonedDateTime;
 import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.DynamicContainer;
@@ -47,6 +50,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 import org.junit.jupiter.api.function.ThrowingConsumer;
 import org.opentest4j.AssertionFailedError;
+import org.unitils.reflectionassert.AggregateBoundary;
+import org.unitils.reflectionassert.ComparisonBudget;
+import org.unitils.reflectionassert.FieldFilter;
+import org.unitils.reflectionassert.FloatingPointTolerance;
+import org.unitils.reflectionassert.OpaqueTypes;
+import org.unitils.reflectionassert.ReflectionComparatorMode;
 
 class ReflectionAssertionsTest {
 
@@ -1189,6 +1198,199 @@ class ReflectionAssertionsTest {
     }
   }
 
+  @Nested
+  class FloatingPointToleranceMode {
+
+    @Test
+    void valuesWithinToleranceAreEqual() {
+      assertReflective()
+          .withFloatingPointTolerance(FloatingPointTolerance.absolute(1e-9))
+          .withLenientOrder()
+          .that(new double[]{0.1 + 0.2, 1.0})
+          .isEqualTo(new double[]{0.3, 1.0});
+    }
+
+    @Test
+    void valuesOutOfToleranceAreNotEqual() {
+      assertReflective()
+          .withFloatingPointTolerance(FloatingPointTolerance.ulps(1))
+          .withMessage("tolerance is kept")
+          .that(1.0)
+          .isNotEqualTo(1.0 + 1e-9);
+      assertFailing(() -> assertReflective()
+          .withFloatingPointTolerance(FloatingPointTolerance.relative(1e-12))
+          .that(new double[]{1.0, 2.0})
+          .isEqualTo(new double[]{1.0, 2.1})
+      );
+    }
+  }
+
+  @Nested
+  class Budget {
+
+    @Test
+    void withinBudget() {
+      assertReflective()
+          .withBudget(ComparisonBudget.unlimited().withMaxNodes(10))
+          .that(asList(1, 2))
+          .isEqualTo(asList(1, 2));
+    }
+
+    @Test
+    void budgetExceeded() {
+      AssertionFailedError err = assertThrows(AssertionFailedError.class, () ->
+          assertReflective()
+              .withBudget(ComparisonBudget.unlimited().withMaxDepth(1))
+              .that(asList(asList(1)))
+              .isEqualTo(asList(asList(1)))
+      );
+
+      assertTrue(err.getMessage().contains("Comparison stopped early"), err.getMessage());
+    }
+
+    @Test
+    void inequalityCannotBeDetermined() {
+      AssertionFailedError err = assertThrows(AssertionFailedError.class, () ->
+          assertReflective()
+              .withBudget(ComparisonBudget.unlimited().withMaxDepth(1))
+              .that(asList(asList(1)))
+              .isNotEqualTo(asList(asList(2)))
+      );
+
+      assertTrue(err.getMessage().contains("could not be determined"), err.getMessage());
+    }
+  }
+
+  @Nested
+  class FieldFiltering {
+
+    @Test
+    void excludedPath() {
+      assertReflective()
+          .withFieldFilter(FieldFilter.allFields().withExcludedPath("b"))
+          .that(new Pair("a", "b"))
+          .isEqualTo(new Pair("a", "x"));
+    }
+
+    @Test
+    void includedPath() {
+      assertReflective()
+          .withFieldFilter(FieldFilter.allFields().withIncludedPath("a"))
+          .that(asList(new Pair("a", "b")))
+          .isEqualTo(asList(new Pair("a", "x")));
+    }
+
+    @Test
+    void differenceOutsideExcludedPath() {
+      assertThrows(AssertionFailedError.class, () ->
+          assertReflective()
+              .withFieldFilter(FieldFilter.allFields().withExcludedPath("b"))
+              .that(new Pair("a", "b"))
+              .isEqualTo(new Pair("x", "b"))
+      );
+    }
+  }
+
+  @Nested
+  class PathModes {
+
+    @Test
+    void lenientOrderAtPath() {
+      assertReflective()
+          .withPathModes("values", ReflectionComparatorMode.LENIENT_ORDER)
+          .that(new Collected<>('a', asList(1, 2)))
+          .isEqualTo(new Collected<>('a', asList(2, 1)));
+    }
+
+    @Test
+    void strictElsewhere() {
+      assertThrows(AssertionFailedError.class, () ->
+          assertReflective()
+              .withPathModes("foo", ReflectionComparatorMode.LENIENT_ORDER)
+              .that(new Collected<>('a', asList(1, 2)))
+              .isEqualTo(new Collected<>('a', asList(2, 1)))
+      );
+    }
+  }
+
+  @Nested
+  class AggregateBoundaries {
+
+    private final AggregateBoundary boundary = AggregateBoundary.entities()
+        .withEntityType(Collected.class, "foo")
+        .withEntityType(Pair.class, "a");
+
+    @Test
+    void referencedEntitiesComparedById() {
+      assertReflective()
+          .withAggregateBoundary(boundary)
+          .that(new Collected<>('a', asList(new Pair("x", "1"))))
+          .isEqualTo(new Collected<>('a', asList(new Pair("x", "2"))));
+    }
+
+    @Test
+    void differentIds() {
+      assertThrows(AssertionFailedError.class, () ->
+          assertReflective()
+              .withAggregateBoundary(boundary)
+              .that(new Collected<>('a', asList(new Pair("x", "1"))))
+              .isEqualTo(new Collected<>('a', asList(new Pair("y", "1"))))
+      );
+    }
+  }
+
+  @Nested
+  class OpaqueTypesMode {
+
+    @Test
+    void identity() {
+      assertThrows(AssertionFailedError.class, () ->
+          assertReflective()
+              .withOpaqueTypes(OpaqueTypes.none().withIdentityTypes(Pair.class))
+              .that(new Collected<>('a', asList(new Pair("x", "1"))))
+              .isEqualTo(new Collected<>('a', asList(new Pair("x", "1"))))
+      );
+    }
+
+    @Test
+    void ignored() {
+      assertReflective()
+          .withOpaqueTypes(OpaqueTypes.none().withIgnoredTypes(Pair.class))
+          .that(new Collected<>('a', asList(new Pair("x", "1"))))
+          .isEqualTo(new Collected<>('a', asList(new Pair("y", "2"))));
+    }
+  }
+
+  @Nested
+  class Async {
+
+    @Test
+    void equal() {
+      assertReflectiveThat(asList(1, 2)).isEqualToAsync(asList(1, 2), Runnable::run).join();
+    }
+
+    @Test
+    void notEqual() {
+      CompletionException err = assertThrows(CompletionException.class, () ->
+          assertReflectiveThat(asList(1, 2)).isEqualToAsync(asList(1, 3), Runnable::run).join()
+      );
+
+      assertTrue(err.getCause() instanceof AssertionFailedError);
+    }
+
+    @Test
+    void cancelStopsComparison() {
+      List<Runnable> tasks = new ArrayList<>();
+      CompletableFuture<Void> result = assertReflectiveThat(asList(1, 2))
+          .isEqualToAsync(asList(1, 3), tasks::add);
+
+      result.cancel(true);
+      tasks.get(0).run();
+
+      assertTrue(result.isCancelled());
+    }
+  }
+
   @Nested
   class ErrorReport {
 
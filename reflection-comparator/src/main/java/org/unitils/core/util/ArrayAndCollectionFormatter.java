@@ -17,6 +17,15 @@
  */
 package org.unitils.core.util;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Map;
 
@@ -140,6 +149,103 @@ public class ArrayAndCollectionFormatter {
     }
 
 
+    /**
+     * Formats the remaining elements of the given NIO buffer, without changing its position.
+     *
+     * @param buffer The buffer, not null
+     * @param result The builder to append the result to, not null
+     */
+    public void formatBuffer(Buffer buffer, StringBuilder result) {
+        result.append(getBufferTypeName(buffer));
+        result.append("[");
+        int position = buffer.position();
+        int remaining = buffer.remaining();
+        int i = 0;
+        for (; i < remaining && i < maxNrOfElements; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            objectFormatter.formatImpl(getBufferElement(buffer, position + i), 0, result);
+        }
+        if (i < remaining) {
+            result.append(", ...");
+        }
+        result.append("]");
+    }
+
+    /**
+     * Formats the indexes of the set bits of the given bit set.
+     *
+     * @param bitSet The bit set, not null
+     * @param result The builder to append the result to, not null
+     */
+    public void formatBitSet(BitSet bitSet, StringBuilder result) {
+        result.append("BitSet{");
+        int count = 0;
+        for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
+            if (count++ > 0) {
+                result.append(", ");
+            }
+            if (count > maxNrOfElements) {
+                result.append("...");
+                break;
+            }
+            result.append(i);
+        }
+        result.append("}");
+    }
+
+    protected String getBufferTypeName(Buffer buffer) {
+        if (buffer instanceof ByteBuffer) {
+            return "ByteBuffer";
+        }
+        if (buffer instanceof CharBuffer) {
+            return "CharBuffer";
+        }
+        if (buffer instanceof ShortBuffer) {
+            return "ShortBuffer";
+        }
+        if (buffer instanceof IntBuffer) {
+            return "IntBuffer";
+        }
+        if (buffer instanceof LongBuffer) {
+            return "LongBuffer";
+        }
+        if (buffer instanceof FloatBuffer) {
+            return "FloatBuffer";
+        }
+        if (buffer instanceof DoubleBuffer) {
+            return "DoubleBuffer";
+        }
+        return buffer.getClass().getSimpleName();
+    }
+
+    protected Object getBufferElement(Buffer buffer, int index) {
+        if (buffer instanceof ByteBuffer) {
+            return ((ByteBuffer) buffer).get(index);
+        }
+        if (buffer instanceof CharBuffer) {
+            return ((CharBuffer) buffer).get(index);
+        }
+        if (buffer instanceof ShortBuffer) {
+            return ((ShortBuffer) buffer).get(index);
+        }
+        if (buffer instanceof IntBuffer) {
+            return ((IntBuffer) buffer).get(index);
+        }
+        if (buffer instanceof LongBuffer) {
+            return ((LongBuffer) buffer).get(index);
+        }
+        if (buffer instanceof FloatBuffer) {
+            return ((FloatBuffer) buffer).get(index);
+        }
+        if (buffer instanceof DoubleBuffer) {
+            return ((DoubleBuffer) buffer).get(index);
+        }
+        return "?";
+    }
+
+
     protected void formatObjectArray(Object[] array, int currentDepth, StringBuilder result) {
         result.append("[");
         int i = 0;
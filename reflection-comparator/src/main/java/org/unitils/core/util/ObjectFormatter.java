@@ -25,9 +25,12 @@ import java.io.File;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.lang.reflect.Proxy;
+import java.nio.Buffer;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
+import org.unitils.reflectionassert.difference.DetachedValue;
 
 
 /**
@@ -48,6 +51,8 @@ public class ObjectFormatter {
   protected int maxDepth;
   /* The maximum nr of elements for arrays and collections to display */
   protected int maxNrArrayOrCollectionElements;
+  /* The maximum nr of characters of strings to display */
+  protected int maxStringLength = 1000;
 
   protected ArrayAndCollectionFormatter arrayAndCollectionFormatter;
 
@@ -103,7 +108,7 @@ public class ObjectFormatter {
     // get the actual value if the value is wrapped by a Hibernate proxy
     object = getUnproxiedValue(object);
 
-    if (object == null) {
+    if (object == null || object instanceof DetachedValue) {
       result.append(object);
       return;
     }
@@ -141,6 +146,14 @@ public class ObjectFormatter {
       arrayAndCollectionFormatter.formatMap((Map<?, ?>) object, currentDepth, result);
       return;
     }
+    if (object instanceof Buffer) {
+      arrayAndCollectionFormatter.formatBuffer((Buffer) object, result);
+      return;
+    }
+    if (object instanceof BitSet) {
+      arrayAndCollectionFormatter.formatBitSet((BitSet) object, result);
+      return;
+    }
     if (currentDepth >= maxDepth) {
       result.append(type.getSimpleName());
       result.append("<...>");
@@ -189,9 +202,15 @@ public class ObjectFormatter {
 
   protected boolean formatString(Object object, StringBuilder result) {
     if (object instanceof String) {
+      String string = (String) object;
       result.append('"');
-      result.append(object);
-      result.append('"');
+      if (string.length() > maxStringLength) {
+        result.append(string, 0, maxStringLength);
+        result.append("\"...");
+      } else {
+        result.append(string);
+        result.append('"');
+      }
       return true;
     }
     return false;
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.unitils.reflectionassert.util.FieldPathKeyExtractor;
+import org.unitils.reflectionassert.util.HibernateUtil;
+
+/**
+ * The boundary of the aggregates in an object graph of entities, e.g. a graph of bidirectionally
+ * linked JPA entities. The first entities that are compared are the roots of their aggregates and
+ * are compared field by field. Entities that they reference, directly or through other values, are
+ * beyond the boundary: they are only compared by their type and identifier and are not traversed.
+ * <p/>
+ * Entities are recognized by:
+ * <ul>
+ * <li>annotations: the class (or a superclass) has an entity annotation, the identifier is the
+ * value of the field with an id annotation, e.g. JPA's <code>@Entity</code> and
+ * <code>@Id</code>. The annotations are matched by name, so JPA does not need to be in the
+ * classpath.</li>
+ * <li>type: instances of a class, with a function that returns the identifier</li>
+ * </ul>
+ * Entities of aggregate member types, e.g. the lines of an order, are part of the aggregate of
+ * the entity that references them and are compared field by field too. Entities of which both
+ * identifiers are null, e.g. entities that were not saved yet, can't be identified and are also
+ * compared field by field.
+ * <p/>
+ * Hibernate proxies are identified by the identifier of their lazy initializer, so they are not
+ * loaded.
+ * <p/>
+ * Instances are immutable, every <code>with</code> method returns a new instance.
+ */
+public final class AggregateBoundary {
+
+  private static final AggregateBoundary ENTITIES = new AggregateBoundary();
+
+  private static final AggregateBoundary JPA_ENTITIES = ENTITIES
+      .withAnnotationNames("javax.persistence.Entity", "javax.persistence.Id")
+      .withAnnotationNames("javax.persistence.Entity", "javax.persistence.EmbeddedId")
+      .withAnnotationNames("jakarta.persistence.Entity", "jakarta.persistence.Id")
+      .withAnnotationNames("jakarta.persistence.Entity", "jakarta.persistence.EmbeddedId");
+
+  private Set<String> entityAnnotationNames = emptySet();
+  private Set<String> idAnnotationNames = emptySet();
+  private Map<Class<?>, Function<Object, ?>> identifiers = emptyMap();
+  private Set<Class<?>> memberTypes = emptySet();
+
+  /* The identifier function per class, null if instances of the class are not entities */
+  private final ClassValue<Function<Object, ?>> entityTypes =
+      new ClassValue<Function<Object, ?>>() {
+        @Override
+        protected Function<Object, ?> computeValue(Class<?> type) {
+          return getIdentifierFunction(type);
+        }
+      };
+
+  private AggregateBoundary() {
+  }
+
+  private AggregateBoundary copy() {
+    AggregateBoundary copy = new AggregateBoundary();
+    copy.entityAnnotationNames = entityAnnotationNames;
+    copy.idAnnotationNames = idAnnotationNames;
+    copy.identifiers = identifiers;
+    copy.memberTypes = memberTypes;
+    return copy;
+  }
+
+  /**
+   * @return A boundary without entities, add them using the <code>with</code> methods, not null
+   */
+  public static AggregateBoundary entities() {
+    return ENTITIES;
+  }
+
+  /**
+   * @return A boundary for the JPA entities, <code>javax.persistence</code> or
+   * <code>jakarta.persistence</code>, identified by their <code>@Id</code> or
+   * <code>@EmbeddedId</code> field, not null
+   */
+  public static AggregateBoundary jpaEntities() {
+    return JPA_ENTITIES;
+  }
+
+  /**
+   * Adds the classes annotated with the given annotation as entities.
+   *
+   * @param entityAnnotation The annotation of the entity classes, not null
+   * @param idAnnotation The annotation of the identifier fields, not null
+   * @return The new boundary, not null
+   */
+  public AggregateBoundary withEntityAnnotation(
+      Class<? extends Annotation> entityAnnotation,
+      Class<? extends Annotation> idAnnotation
+  ) {
+    return withAnnotationNames(entityAnnotation.getName(), idAnnotation.getName());
+  }
+
+  private AggregateBoundary withAnnotationNames(String entityAnnotation, String idAnnotation) {
+    AggregateBoundary copy = copy();
+    copy.entityAnnotationNames = add(entityAnnotationNames, entityAnnotation);
+    copy.idAnnotationNames = add(idAnnotationNames, idAnnotation);
+    return copy;
+  }
+
+  /**
+   * Adds the instances of the given type as entities.
+   *
+   * @param type The entity type, not null
+   * @param identifier The function that returns the identifier of an entity, not null
+   * @param <T> The entity type
+   * @return The new boundary, not null
+   */
+  @SuppressWarnings("unchecked")
+  public <T> AggregateBoundary withEntityType(Class<T> type, Function<? super T, ?> identifier) {
+    Map<Class<?>, Function<Object, ?>> result = new LinkedHashMap<>(identifiers);
+    result.put(type, (Function<Object, ?>) identifier);
+    AggregateBoundary copy = copy();
+    copy.identifiers = unmodifiableMap(result);
+    return copy;
+  }
+
+  /**
+   * Same as {@link #withEntityType(Class, Function)} using the value of a field path, e.g.
+   * <code>"id"</code>, as identifier.
+   *
+   * @param type The entity type, not null
+   * @param idFieldPath The field names separated by dots, not null
+   * @return The new boundary, not null
+   * @throws org.unitils.core.UnitilsException If a field of the path does not exist
+   */
+  public AggregateBoundary withEntityType(Class<?> type, String idFieldPath) {
+    return withEntityType(type, new FieldPathKeyExtractor(type, idFieldPath));
+  }
+
+  /**
+   * Makes the entities of the given types, and their subtypes, part of the aggregate of the
+   * entity that references them.
+   *
+   * @param types The member entity types, not null
+   * @return The new boundary, not null
+   */
+  public AggregateBoundary withAggregateMembers(Class<?>... types) {
+    Set<Class<?>> result = new LinkedHashSet<>(memberTypes);
+    result.addAll(asList(types));
+    AggregateBoundary copy = copy();
+    copy.memberTypes = unmodifiableSet(result);
+    return copy;
+  }
+
+  private static Set<String> add(Set<String> values, String value) {
+    Set<String> result = new LinkedHashSet<>(values);
+    result.add(value);
+    return unmodifiableSet(result);
+  }
+
+
+  /**
+   * Checks whether the given value is an entity.
+   *
+   * @param value The value, not null
+   * @return True for entities and Hibernate proxies of entities
+   */
+  public boolean isEntity(Object value) {
+    return entityTypes.get(value.getClass()) != null;
+  }
+
+  /**
+   * Checks whether the given entity is part of the aggregate of the entity that references it.
+   *
+   * @param entity The entity, not null
+   * @return True for instances of the aggregate member types
+   */
+  public boolean isAggregateMember(Object entity) {
+    for (Class<?> memberType : memberTypes) {
+      if (memberType.isInstance(entity)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the identifier of the given entity.
+   *
+   * @param entity The entity, not null
+   * @return The identifier, null if the entity has none yet
+   */
+  public Object getIdentifier(Object entity) {
+    if (HibernateUtil.isHibernateProxy(entity)) {
+      return HibernateUtil.getIdentifier(entity);
+    }
+    return entityTypes.get(entity.getClass()).apply(entity);
+  }
+
+  private Function<Object, ?> getIdentifierFunction(Class<?> type) {
+    for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+      Function<Object, ?> identifier = identifiers.get(clazz);
+      if (identifier != null) {
+        return identifier;
+      }
+    }
+    if (entityAnnotationNames.isEmpty() || !hasEntityAnnotation(type)) {
+      return null;
+    }
+    for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+      for (Field field : clazz.getDeclaredFields()) {
+        if (hasAnnotation(field.getDeclaredAnnotations(), idAnnotationNames)) {
+          return new FieldPathKeyExtractor(clazz, field.getName());
+        }
+      }
+    }
+    // can't be identified
+    return null;
+  }
+
+  private boolean hasEntityAnnotation(Class<?> type) {
+    for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+      if (hasAnnotation(clazz.getDeclaredAnnotations(), entityAnnotationNames)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasAnnotation(Annotation[] annotations, Set<String> names) {
+    for (Annotation annotation : annotations) {
+      if (names.contains(annotation.annotationType().getName())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
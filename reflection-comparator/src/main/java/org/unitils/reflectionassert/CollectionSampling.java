@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Describes how large collections, arrays and maps are compared by sampling: instead of comparing
+ * all elements, only a deterministic random sample of the indexes (or keys) is compared, next to
+ * the sizes. Collections that are not larger than the sample size are compared completely.
+ * <p/>
+ * The sample is determined by the seed, so the same collections are always compared using the same
+ * indexes. If a sampled comparison passes, {@link #getMaxDifferentFraction(int, double)} gives an
+ * upper bound on the fraction of elements that could still be different.
+ */
+public final class CollectionSampling {
+
+  /* The seed used if none is given */
+  private static final long DEFAULT_SEED = 0x5DEECE66DL;
+
+  private final int minSampleSize;
+  private final double fraction;
+  private final long seed;
+
+  private CollectionSampling(int minSampleSize, double fraction, long seed) {
+    this.minSampleSize = minSampleSize;
+    this.fraction = fraction;
+    this.seed = seed;
+  }
+
+  /**
+   * Creates a sampling that compares the same nr of elements for every large collection.
+   *
+   * @param sampleSize The nr of elements to compare, not negative
+   * @return The sampling, not null
+   */
+  public static CollectionSampling fixed(int sampleSize) {
+    if (sampleSize < 0) {
+      throw new IllegalArgumentException("Sample size must not be negative: " + sampleSize);
+    }
+    return new CollectionSampling(sampleSize, 0, DEFAULT_SEED);
+  }
+
+  /**
+   * Creates a sampling that compares a fraction of the elements of every large collection.
+   *
+   * @param fraction The fraction of the elements to compare, between 0 and 1
+   * @param minSampleSize The minimum nr of elements to compare, not negative
+   * @return The sampling, not null
+   */
+  public static CollectionSampling proportional(double fraction, int minSampleSize) {
+    if (!(fraction >= 0 && fraction <= 1)) {
+      throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+    }
+    if (minSampleSize < 0) {
+      throw new IllegalArgumentException("Sample size must not be negative: " + minSampleSize);
+    }
+    return new CollectionSampling(minSampleSize, fraction, DEFAULT_SEED);
+  }
+
+  /**
+   * @param seed The seed for choosing the sampled indexes
+   * @return A sampling that uses the given seed, not null
+   */
+  public CollectionSampling withSeed(long seed) {
+    return new CollectionSampling(minSampleSize, fraction, seed);
+  }
+
+
+  /**
+   * Gets the nr of elements that are compared for a collection of the given size.
+   *
+   * @param size The nr of elements in the collection
+   * @return The sample size, at most the given size
+   */
+  public int getSampleSize(int size) {
+    int sampleSize = Math.max(minSampleSize, (int) Math.ceil(fraction * size));
+    return Math.min(size, sampleSize);
+  }
+
+  /**
+   * Chooses the indexes to compare for a collection of the given size. The same size always gives
+   * the same indexes.
+   *
+   * @param size The nr of elements in the collection
+   * @return The distinct indexes in ascending order, null if all elements should be compared
+   */
+  public int[] getSampleIndexes(int size) {
+    int sampleSize = getSampleSize(size);
+    if (sampleSize == size) {
+      return null;
+    }
+    // Floyd's algorithm: sampleSize distinct values without shuffling all indexes
+    SplittableRandom random = new SplittableRandom(seed);
+    Set<Integer> indexes = new HashSet<>();
+    for (int i = size - sampleSize; i < size; i++) {
+      int index = random.nextInt(i + 1);
+      indexes.add(indexes.contains(index) ? i : index);
+    }
+    int[] result = new int[sampleSize];
+    int i = 0;
+    for (Integer index : indexes) {
+      result[i++] = index;
+    }
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * Gets the confidence figure of a passed comparison of collections of the given size: with the
+   * given confidence, less than the returned fraction of the elements is different. E.g. if 3000
+   * elements were sampled, less than 0.1% of the elements differ with 95% confidence.
+   *
+   * @param size The nr of elements in the collections
+   * @param confidence The confidence, e.g. 0.95
+   * @return The fraction, 0 if all elements are compared
+   */
+  public double getMaxDifferentFraction(int size, double confidence) {
+    int sampleSize = getSampleSize(size);
+    if (sampleSize == size) {
+      return 0;
+    }
+    if (sampleSize == 0) {
+      return 1;
+    }
+    return 1 - Math.pow(1 - confidence, 1.0 / sampleSize);
+  }
+
+  @Override
+  public String toString() {
+    return fraction == 0
+        ? "CollectionSampling<sampleSize=" + minSampleSize + ", seed=" + seed + ">"
+        : "CollectionSampling<fraction=" + fraction + ", minSampleSize=" + minSampleSize
+            + ", seed=" + seed + ">";
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert;
+
+import java.time.Duration;
+
+/**
+ * Limits the work of a single comparison, see
+ * {@link ReflectionComparator#getDifference(Object, Object, ComparisonBudget)}:
+ * <ul>
+ * <li>max nodes: the nr of values that are compared</li>
+ * <li>max differences: the nr of differences that are collected, not counting the differences of
+ * the objects that contain them</li>
+ * <li>max depth: the nesting level up to which values are compared, deeper values are
+ * skipped</li>
+ * <li>timeout: the time after which the comparison stops</li>
+ * </ul>
+ * If a limit is exceeded, the comparison returns the differences found so far, marked as
+ * truncated.
+ * <p/>
+ * Instances are immutable, every <code>with</code> method returns a new instance.
+ */
+public final class ComparisonBudget {
+
+  private static final ComparisonBudget UNLIMITED =
+      new ComparisonBudget(Long.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, null);
+
+  private final long maxNodes;
+  private final int maxDifferences;
+  private final int maxDepth;
+  private final Duration timeout;
+
+  private ComparisonBudget(long maxNodes, int maxDifferences, int maxDepth, Duration timeout) {
+    this.maxNodes = maxNodes;
+    this.maxDifferences = maxDifferences;
+    this.maxDepth = maxDepth;
+    this.timeout = timeout;
+  }
+
+  /**
+   * @return A budget without limits, not null
+   */
+  public static ComparisonBudget unlimited() {
+    return UNLIMITED;
+  }
+
+  /**
+   * @param maxNodes The maximum nr of values that are compared, at least 1
+   * @return The new budget, not null
+   */
+  public ComparisonBudget withMaxNodes(long maxNodes) {
+    checkLimit(maxNodes);
+    return new ComparisonBudget(maxNodes, maxDifferences, maxDepth, timeout);
+  }
+
+  /**
+   * @param maxDifferences The maximum nr of differences that are collected, at least 1
+   * @return The new budget, not null
+   */
+  public ComparisonBudget withMaxDifferences(int maxDifferences) {
+    checkLimit(maxDifferences);
+    return new ComparisonBudget(maxNodes, maxDifferences, maxDepth, timeout);
+  }
+
+  /**
+   * @param maxDepth The maximum nesting level of the compared values, at least 1 (only the root
+   * values)
+   * @return The new budget, not null
+   */
+  public ComparisonBudget withMaxDepth(int maxDepth) {
+    checkLimit(maxDepth);
+    return new ComparisonBudget(maxNodes, maxDifferences, maxDepth, timeout);
+  }
+
+  /**
+   * @param timeout The time after which the comparison stops, null for no timeout
+   * @return The new budget, not null
+   */
+  public ComparisonBudget withTimeout(Duration timeout) {
+    return new ComparisonBudget(maxNodes, maxDifferences, maxDepth, timeout);
+  }
+
+  private static void checkLimit(long limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("Limit must be at least 1: " + limit);
+    }
+  }
+
+
+  /**
+   * @return The maximum nr of values that are compared
+   */
+  public long getMaxNodes() {
+    return maxNodes;
+  }
+
+  /**
+   * @return The maximum nr of differences that are collected
+   */
+  public int getMaxDifferences() {
+    return maxDifferences;
+  }
+
+  /**
+   * @return The maximum nesting level of the compared values
+   */
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * @return The time after which the comparison stops, null for no timeout
+   */
+  public Duration getTimeout() {
+    return timeout;
+  }
+
+  @Override
+  public String toString() {
+    return "ComparisonBudget<maxNodes=" + maxNodes + ", maxDifferences=" + maxDifferences
+        + ", maxDepth=" + maxDepth + ", timeout=" + timeout + ">";
+  }
+}
@@ -0,0 +1,482 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Rules for the fields that are compared by the
+ * {@link org.unitils.reflectionassert.comparator.impl.ObjectComparator}. Excluded fields are not
+ * even read, so excluding whole subgraphs, e.g. audit metadata, caches or parent back-references,
+ * also saves the work of traversing them:
+ * <ul>
+ * <li>excluded paths: the fields at the paths that match a pattern</li>
+ * <li>included paths: if there are any, only the fields at the paths that match a pattern, with
+ * everything they contain, and the fields on the way to them</li>
+ * <li>excluded fields: the fields with a name, at any path</li>
+ * <li>excluded declaring types: the fields declared by a class</li>
+ * <li>excluded annotations: the fields annotated with an annotation</li>
+ * </ul>
+ * A path consists of the names of the fields from the compared root object separated by dots,
+ * e.g. <code>customer.address.street</code>. The elements of collections, arrays and maps are
+ * part of the path of the collection, so <code>orders.lines.amount</code> is the amount of every
+ * line of every order. In a pattern, <code>*</code> matches any part of a field name and
+ * <code>**</code> any nr of fields, e.g. <code>**.createdBy</code> is a createdBy field at any
+ * depth.
+ * <p/>
+ * Fields annotated with {@link IgnoreInComparison} are never compared.
+ * <p/>
+ * Instances are immutable, every <code>with</code> method returns a new instance. The patterns
+ * are compiled into a trie when the filter is first used.
+ */
+public final class FieldFilter {
+
+  private static final FieldFilter ALL_FIELDS = new FieldFilter();
+
+  private List<String> excludedPaths = emptyList();
+  private List<String> includedPaths = emptyList();
+  private Set<String> excludedFieldNames = emptySet();
+  private Set<Class<?>> excludedDeclaringTypes = emptySet();
+  private Set<Class<? extends Annotation>> excludedAnnotations = emptySet();
+
+  /* The additional modes per path pattern and per declaring type of the fields */
+  private Map<String, Set<ReflectionComparatorMode>> pathModes = emptyMap();
+  private Map<Class<?>, Set<ReflectionComparatorMode>> declaringTypeModes = emptyMap();
+
+  /* The scope of the root object, compiled from the rules on first use */
+  private volatile Scope rootScope;
+
+  /* Whether a field is excluded by its name, declaring type or annotations */
+  private final ConcurrentMap<Field, Boolean> excludedFields = new ConcurrentHashMap<>();
+
+  /* The scopes of the filter, so that equal scopes are the same instance */
+  private final ConcurrentMap<Scope, Scope> scopes = new ConcurrentHashMap<>();
+
+  private FieldFilter() {
+  }
+
+  private FieldFilter copy() {
+    FieldFilter copy = new FieldFilter();
+    copy.excludedPaths = excludedPaths;
+    copy.includedPaths = includedPaths;
+    copy.excludedFieldNames = excludedFieldNames;
+    copy.excludedDeclaringTypes = excludedDeclaringTypes;
+    copy.excludedAnnotations = excludedAnnotations;
+    copy.pathModes = pathModes;
+    copy.declaringTypeModes = declaringTypeModes;
+    return copy;
+  }
+
+  /**
+   * @return A filter that compares all fields, not null
+   */
+  public static FieldFilter allFields() {
+    return ALL_FIELDS;
+  }
+
+  /**
+   * @param pattern The pattern of the paths of the fields that are not compared, e.g.
+   * <code>audit</code> or <code>orders.*.createdBy</code>, not null
+   * @return The new filter, not null
+   */
+  public FieldFilter withExcludedPath(String pattern) {
+    checkPattern(pattern);
+    FieldFilter copy = copy();
+    copy.excludedPaths = add(excludedPaths, pattern);
+    return copy;
+  }
+
+  /**
+   * @param pattern The pattern of the paths of the fields that are compared, e.g.
+   * <code>customer.name</code>, not null
+   * @return The new filter, not null
+   */
+  public FieldFilter withIncludedPath(String pattern) {
+    checkPattern(pattern);
+    FieldFilter copy = copy();
+    copy.includedPaths = add(includedPaths, pattern);
+    return copy;
+  }
+
+  /**
+   * @param fieldName The name of the fields that are not compared, e.g. <code>version</code>, not
+   * null
+   * @return The new filter, not null
+   */
+  public FieldFilter withExcludedField(String fieldName) {
+    FieldFilter copy = copy();
+    copy.excludedFieldNames = add(excludedFieldNames, fieldName);
+    return copy;
+  }
+
+  /**
+   * @param declaringType The class of which the declared fields are not compared, not null
+   * @return The new filter, not null
+   */
+  public FieldFilter withExcludedDeclaringType(Class<?> declaringType) {
+    FieldFilter copy = copy();
+    copy.excludedDeclaringTypes = add(excludedDeclaringTypes, declaringType);
+    return copy;
+  }
+
+  /**
+   * @param annotation The annotation of the fields that are not compared, not null
+   * @return The new filter, not null
+   */
+  public FieldFilter withExcludedAnnotation(Class<? extends Annotation> annotation) {
+    FieldFilter copy = copy();
+    copy.excludedAnnotations = add(excludedAnnotations, annotation);
+    return copy;
+  }
+
+  /**
+   * Compares the values at the paths that match the given pattern, and everything they contain,
+   * with the given modes next to the modes of the comparator, see
+   * {@link ReflectionComparatorOptions#withPathModes(String, ReflectionComparatorMode...)}.
+   *
+   * @param pattern The pattern of the paths, not null
+   * @param modes The additional modes, not null
+   * @return The new filter, not null
+   */
+  FieldFilter withPathModes(String pattern, Set<ReflectionComparatorMode> modes) {
+    checkPattern(pattern);
+    FieldFilter copy = copy();
+    copy.pathModes = put(pathModes, pattern, modes);
+    return copy;
+  }
+
+  /**
+   * Compares the values of the fields declared by the given class, and everything they contain,
+   * with the given modes next to the modes of the comparator, see
+   * {@link ReflectionComparatorOptions#withDeclaringTypeModes(Class, ReflectionComparatorMode...)}.
+   *
+   * @param declaringType The class that declares the fields, not null
+   * @param modes The additional modes, not null
+   * @return The new filter, not null
+   */
+  FieldFilter withDeclaringTypeModes(Class<?> declaringType, Set<ReflectionComparatorMode> modes) {
+    FieldFilter copy = copy();
+    copy.declaringTypeModes = put(declaringTypeModes, declaringType, modes);
+    return copy;
+  }
+
+  static void checkPattern(String pattern) {
+    for (String step : pattern.split("\\.", -1)) {
+      if (step.trim().isEmpty()) {
+        throw new IllegalArgumentException("Invalid path pattern: " + pattern);
+      }
+    }
+  }
+
+  private static <T> List<T> add(List<T> values, T value) {
+    List<T> result = new ArrayList<>(values);
+    result.add(value);
+    return unmodifiableList(result);
+  }
+
+  private static <T> Set<T> add(Set<T> values, T value) {
+    Set<T> result = new LinkedHashSet<>(values);
+    result.add(value);
+    return unmodifiableSet(result);
+  }
+
+  private static <K> Map<K, Set<ReflectionComparatorMode>> put(
+      Map<K, Set<ReflectionComparatorMode>> values,
+      K key,
+      Set<ReflectionComparatorMode> modes
+  ) {
+    Map<K, Set<ReflectionComparatorMode>> result = new LinkedHashMap<>(values);
+    result.put(key, modes);
+    return unmodifiableMap(result);
+  }
+
+
+  /**
+   * Gets the scope of the compared root objects.
+   *
+   * @return The scope, not null
+   */
+  public Scope getRootScope() {
+    Scope scope = rootScope;
+    if (scope == null) {
+      TrieNode root = new TrieNode();
+      for (String pattern : excludedPaths) {
+        root.addPath(pattern.split("\\."), 0, node -> node.hasExcludedBelow = true)
+            .isExcluded = true;
+      }
+      for (String pattern : includedPaths) {
+        root.addPath(pattern.split("\\."), 0, node -> node.hasIncludedBelow = true)
+            .isIncluded = true;
+      }
+      for (Map.Entry<String, Set<ReflectionComparatorMode>> entry : pathModes.entrySet()) {
+        root.addPath(entry.getKey().split("\\."), 0, node -> node.hasModesBelow = true)
+            .modes.addAll(entry.getValue());
+      }
+      Set<TrieNode> nodes = new HashSet<>();
+      root.addTo(nodes);
+      scope = intern(new Scope(this, prune(nodes, includedPaths.isEmpty()),
+          includedPaths.isEmpty(), emptySet()));
+      rootScope = scope;
+    }
+    return scope;
+  }
+
+  private boolean isExcluded(Field field) {
+    Boolean excluded = excludedFields.get(field);
+    if (excluded == null) {
+      excluded = excludedFieldNames.contains(field.getName())
+          || excludedDeclaringTypes.contains(field.getDeclaringClass());
+      for (Class<? extends Annotation> annotation : excludedAnnotations) {
+        excluded = excluded || field.isAnnotationPresent(annotation);
+      }
+      excludedFields.put(field, excluded);
+    }
+    return excluded;
+  }
+
+  private Scope intern(Scope scope) {
+    Scope existing = scopes.putIfAbsent(scope, scope);
+    return existing == null ? scope : existing;
+  }
+
+  /**
+   * Removes the nodes that can't lead to a decision anymore.
+   */
+  private static Set<TrieNode> prune(Set<TrieNode> nodes, boolean included) {
+    Set<TrieNode> result = new HashSet<>();
+    for (TrieNode node : nodes) {
+      if (node.hasExcludedBelow || !included && node.hasIncludedBelow || node.hasModesBelow) {
+        result.add(node);
+      }
+    }
+    return result;
+  }
+
+
+  /**
+   * The position of a compared object in the object graph with respect to the path rules, i.e.
+   * the positions in the trie of the patterns that match the path of the object, together with the
+   * additional modes of the object. Comparators that compare the fields of an object ask the scope
+   * of the object for the scope of each field.
+   * <p/>
+   * Scopes are shared by all comparisons that use the filter. Equal scopes are the same
+   * instance, so that results can be cached per scope.
+   */
+  public static final class Scope {
+
+    /* The marker of an excluded field in the field scopes */
+    private static final Scope EXCLUDED = new Scope(null, emptySet(), false, emptySet());
+
+    private final FieldFilter filter;
+    private final Set<TrieNode> nodes;
+    private final boolean included;
+    private final Set<ReflectionComparatorMode> modes;
+
+    /* The scopes of the fields */
+    private final ConcurrentMap<Field, Scope> fieldScopes = new ConcurrentHashMap<>();
+
+    private Scope(
+        FieldFilter filter,
+        Set<TrieNode> nodes,
+        boolean included,
+        Set<ReflectionComparatorMode> modes
+    ) {
+      this.filter = filter;
+      this.nodes = nodes;
+      this.included = included;
+      this.modes = modes;
+    }
+
+    /**
+     * Gets the scope of the given field of an object in this scope.
+     *
+     * @param field The field, not null
+     * @return The scope of the value of the field, null if the field is excluded
+     */
+    public Scope getFieldScope(Field field) {
+      Scope fieldScope = fieldScopes.get(field);
+      if (fieldScope == null) {
+        fieldScope = filter.isExcluded(field) ? EXCLUDED : computeFieldScope(field);
+        fieldScopes.put(field, fieldScope);
+      }
+      return fieldScope == EXCLUDED ? null : fieldScope;
+    }
+
+    /**
+     * Gets the modes of the values in this scope next to the modes of the comparator.
+     *
+     * @return The modes, empty if there are none, not null
+     */
+    public Set<ReflectionComparatorMode> getModes() {
+      return modes;
+    }
+
+    private Scope computeFieldScope(Field field) {
+      Set<ReflectionComparatorMode> typeModes =
+          filter.declaringTypeModes.get(field.getDeclaringClass());
+      if (nodes.isEmpty() && (typeModes == null || modes.containsAll(typeModes))) {
+        // no more rules apply below this scope
+        return this;
+      }
+      Set<TrieNode> fieldNodes = new HashSet<>();
+      for (TrieNode node : nodes) {
+        node.addChildrenTo(field.getName(), fieldNodes);
+      }
+      boolean fieldIncluded = included;
+      boolean onIncludedPath = false;
+      Set<ReflectionComparatorMode> fieldModes = EnumSet.noneOf(ReflectionComparatorMode.class);
+      fieldModes.addAll(modes);
+      if (typeModes != null) {
+        fieldModes.addAll(typeModes);
+      }
+      for (TrieNode node : fieldNodes) {
+        if (node.isExcluded) {
+          return EXCLUDED;
+        }
+        fieldIncluded |= node.isIncluded;
+        onIncludedPath |= node.hasIncludedBelow;
+        fieldModes.addAll(node.modes);
+      }
+      if (!fieldIncluded && !onIncludedPath) {
+        return EXCLUDED;
+      }
+      return filter.intern(new Scope(filter, prune(fieldNodes, fieldIncluded), fieldIncluded,
+          unmodifiableSet(fieldModes)));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Scope)) {
+        return false;
+      }
+      Scope other = (Scope) o;
+      return filter == other.filter && included == other.included && nodes.equals(other.nodes)
+          && modes.equals(other.modes);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * nodes.hashCode() + modes.hashCode()) + (included ? 1 : 0);
+    }
+  }
+
+
+  /**
+   * A node of the trie of path patterns, i.e. a step of one or more patterns.
+   */
+  private static final class TrieNode {
+
+    private final Map<String, TrieNode> children = new HashMap<>();
+    private final Map<String, TrieNode> globChildren = new HashMap<>();
+    private final Map<String, Pattern> globs = new HashMap<>();
+
+    /* The node of a <code>**</code> step that follows this node, null if there is none */
+    private TrieNode anyDepthChild;
+    private boolean isAnyDepth;
+
+    private boolean isExcluded;
+    private boolean isIncluded;
+    private boolean hasExcludedBelow;
+    private boolean hasIncludedBelow;
+
+    /* The additional modes of the values at the paths that end in this node */
+    private final Set<ReflectionComparatorMode> modes =
+        EnumSet.noneOf(ReflectionComparatorMode.class);
+    private boolean hasModesBelow;
+
+    /**
+     * Adds the nodes of the given path pattern from the given step on.
+     *
+     * @return The node of the last step
+     */
+    private TrieNode addPath(String[] steps, int index, Consumer<TrieNode> onPath) {
+      onPath.accept(this);
+      if (index == steps.length) {
+        return this;
+      }
+      String step = steps[index].trim();
+      TrieNode child;
+      if (step.equals("**")) {
+        if (anyDepthChild == null) {
+          anyDepthChild = new TrieNode();
+          anyDepthChild.isAnyDepth = true;
+        }
+        child = anyDepthChild;
+      } else if (step.contains("*")) {
+        child = globChildren.computeIfAbsent(step, s -> new TrieNode());
+        globs.computeIfAbsent(step, FieldFilter::toRegex);
+      } else {
+        child = children.computeIfAbsent(step, s -> new TrieNode());
+      }
+      return child.addPath(steps, index + 1, onPath);
+    }
+
+    /**
+     * Adds this node and the <code>**</code> nodes that follow it, since they also match no
+     * field at all.
+     */
+    private void addTo(Set<TrieNode> nodes) {
+      if (nodes.add(this) && anyDepthChild != null) {
+        anyDepthChild.addTo(nodes);
+      }
+    }
+
+    private void addChildrenTo(String fieldName, Set<TrieNode> nodes) {
+      if (isAnyDepth) {
+        addTo(nodes);
+      }
+      TrieNode child = children.get(fieldName);
+      if (child != null) {
+        child.addTo(nodes);
+      }
+      for (Map.Entry<String, TrieNode> entry : globChildren.entrySet()) {
+        if (globs.get(entry.getKey()).matcher(fieldName).matches()) {
+          entry.getValue().addTo(nodes);
+        }
+      }
+    }
+  }
+
+  private static Pattern toRegex(String glob) {
+    String[] parts = glob.split("\\*", -1);
+    StringBuilder regex = new StringBuilder(Pattern.quote(parts[0]));
+    for (int index = 1; index < parts.length; index++) {
+      regex.append(".*").append(Pattern.quote(parts[index]));
+    }
+    return Pattern.compile(regex.toString());
+  }
+}
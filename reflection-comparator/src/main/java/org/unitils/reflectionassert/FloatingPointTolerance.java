@@ -0,0 +1,240 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert;
+
+/**
+ * A tolerance for comparing float and double values. Two values are considered equal if they are
+ * exactly equal (NaN is equal to NaN) or if their distance is within the tolerance:
+ * <ul>
+ * <li>absolute: <code>|left - right| &lt;= tolerance</code></li>
+ * <li>relative: <code>|left - right| &lt;= tolerance * max(|left|, |right|)</code></li>
+ * <li>ulps: there are at most <code>tolerance</code> representable values between left and
+ * right</li>
+ * </ul>
+ * Infinite values are only equal to the same infinite value.
+ */
+public final class FloatingPointTolerance {
+
+  private enum Kind {ABSOLUTE, RELATIVE, ULPS}
+
+  private final Kind kind;
+  private final double tolerance;
+  private final long ulps;
+
+  private FloatingPointTolerance(Kind kind, double tolerance, long ulps) {
+    this.kind = kind;
+    this.tolerance = tolerance;
+    this.ulps = ulps;
+  }
+
+  /**
+   * Creates a tolerance on the absolute difference of the values.
+   *
+   * @param tolerance The maximum difference, not negative
+   * @return The tolerance, not null
+   */
+  public static FloatingPointTolerance absolute(double tolerance) {
+    checkTolerance(tolerance);
+    return new FloatingPointTolerance(Kind.ABSOLUTE, tolerance, 0);
+  }
+
+  /**
+   * Creates a tolerance on the difference of the values relative to the largest magnitude.
+   *
+   * @param tolerance The maximum relative difference, e.g. 1e-9, not negative
+   * @return The tolerance, not null
+   */
+  public static FloatingPointTolerance relative(double tolerance) {
+    checkTolerance(tolerance);
+    return new FloatingPointTolerance(Kind.RELATIVE, tolerance, 0);
+  }
+
+  /**
+   * Creates a tolerance on the number of units in the last place between the values. Floats are
+   * compared in float ulps, all other values in double ulps.
+   *
+   * @param ulps The maximum nr of ulps, not negative
+   * @return The tolerance, not null
+   */
+  public static FloatingPointTolerance ulps(long ulps) {
+    if (ulps < 0) {
+      throw new IllegalArgumentException("Tolerance must not be negative: " + ulps);
+    }
+    return new FloatingPointTolerance(Kind.ULPS, 0, ulps);
+  }
+
+  private static void checkTolerance(double tolerance) {
+    if (!(tolerance >= 0) || Double.isInfinite(tolerance)) {
+      throw new IllegalArgumentException("Tolerance must be finite and not negative: " + tolerance);
+    }
+  }
+
+
+  /**
+   * Checks whether the given double values are equal within this tolerance.
+   *
+   * @param left The left value
+   * @param right The right value
+   * @return True if equal
+   */
+  public boolean isWithin(double left, double right) {
+    if (Double.doubleToLongBits(left) == Double.doubleToLongBits(right)) {
+      return true;
+    }
+    switch (kind) {
+      case ABSOLUTE:
+        return Math.abs(left - right) <= tolerance;
+      case RELATIVE:
+        return isWithinRelative(left, right);
+      default:
+        return isWithinUlps(
+            toOrderedBits(Double.doubleToLongBits(left)),
+            toOrderedBits(Double.doubleToLongBits(right)),
+            left,
+            right
+        );
+    }
+  }
+
+  /**
+   * Checks whether the given float values are equal within this tolerance.
+   *
+   * @param left The left value
+   * @param right The right value
+   * @return True if equal
+   */
+  public boolean isWithin(float left, float right) {
+    if (kind != Kind.ULPS) {
+      return isWithin((double) left, (double) right);
+    }
+    if (Float.floatToIntBits(left) == Float.floatToIntBits(right)) {
+      return true;
+    }
+    return isWithinUlps(
+        toOrderedBits(Float.floatToIntBits(left)),
+        toOrderedBits(Float.floatToIntBits(right)),
+        left,
+        right
+    );
+  }
+
+
+  /**
+   * Finds the first index, starting from the given index, at which the values of both arrays are
+   * not equal within this tolerance. The common case of the loops only uses intrinsics, so that
+   * they can be unrolled and vectorized by the JIT.
+   *
+   * @param left The left array, not null
+   * @param right The right array, not null
+   * @param from The index to start from
+   * @return The index, the length of the shortest array if there is no such index
+   */
+  public int mismatch(double[] left, double[] right, int from) {
+    int length = Math.min(left.length, right.length);
+    int i = from;
+    switch (kind) {
+      case ABSOLUTE:
+        for (; i < length; i++) {
+          if (!(Math.abs(left[i] - right[i]) <= tolerance) && !isWithin(left[i], right[i])) {
+            return i;
+          }
+        }
+        return length;
+      case RELATIVE:
+        for (; i < length; i++) {
+          if (!isWithinRelative(left[i], right[i]) && !isWithin(left[i], right[i])) {
+            return i;
+          }
+        }
+        return length;
+      default:
+        for (; i < length; i++) {
+          if (!isWithin(left[i], right[i])) {
+            return i;
+          }
+        }
+        return length;
+    }
+  }
+
+  /**
+   * Same as {@link #mismatch(double[], double[], int)} for float arrays.
+   *
+   * @param left The left array, not null
+   * @param right The right array, not null
+   * @param from The index to start from
+   * @return The index, the length of the shortest array if there is no such index
+   */
+  public int mismatch(float[] left, float[] right, int from) {
+    int length = Math.min(left.length, right.length);
+    int i = from;
+    if (kind == Kind.ABSOLUTE) {
+      for (; i < length; i++) {
+        if (!(Math.abs((double) left[i] - right[i]) <= tolerance)
+            && !isWithin(left[i], right[i])) {
+          return i;
+        }
+      }
+      return length;
+    }
+    for (; i < length; i++) {
+      if (!isWithin(left[i], right[i])) {
+        return i;
+      }
+    }
+    return length;
+  }
+
+
+  private boolean isWithinRelative(double left, double right) {
+    // an infinite distance means that one of the values is infinite
+    double distance = Math.abs(left - right);
+    return distance <= tolerance * Math.max(Math.abs(left), Math.abs(right))
+        && distance != Double.POSITIVE_INFINITY;
+  }
+
+  private boolean isWithinUlps(long left, long right, double leftValue, double rightValue) {
+    if (Double.isNaN(leftValue) || Double.isNaN(rightValue)
+        || Double.isInfinite(leftValue) || Double.isInfinite(rightValue)) {
+      return false;
+    }
+    long distance = left - right;
+    if (((left ^ right) & (left ^ distance)) < 0) {
+      // overflow
+      return false;
+    }
+    return Math.abs(distance) <= ulps;
+  }
+
+  /**
+   * Maps the bits of a floating point value to a long so that consecutive values have consecutive
+   * longs (and both zeros are the same).
+   */
+  private static long toOrderedBits(long bits) {
+    return bits < 0 ? Long.MIN_VALUE - bits : bits;
+  }
+
+  private static long toOrderedBits(int bits) {
+    return bits < 0 ? (long) Integer.MIN_VALUE - bits : bits;
+  }
+
+  @Override
+  public String toString() {
+    return kind == Kind.ULPS
+        ? "FloatingPointTolerance<ulps=" + ulps + ">"
+        : "FloatingPointTolerance<" + kind.name().toLowerCase() + "=" + tolerance + ">";
+  }
+}
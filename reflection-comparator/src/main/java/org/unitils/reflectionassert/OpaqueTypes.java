@@ -0,0 +1,232 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The types that are never traversed by the comparison, e.g. loggers, class loaders, threads,
+ * executors, locks and framework contexts. Their object graphs can be huge, can't always be read
+ * and reading them can have side effects. Values of these types are either:
+ * <ul>
+ * <li>compared by identity: equal only if both are the same instance</li>
+ * <li>ignored: not compared at all, also not with null</li>
+ * </ul>
+ * A type is matched by class name against the class of a value, its superclasses and its
+ * interfaces, so framework types, e.g. <code>org.slf4j.Logger</code>, do not need to be in the
+ * classpath. The most specific match wins: the class itself, then its interfaces, then its
+ * superclass and so on. {@link #withTraversedTypes(Class[])} can be used to traverse a subtype of
+ * an opaque type after all.
+ * <p/>
+ * The treatment of a class is looked up only once. Instances are immutable, every
+ * <code>with</code> method returns a new instance.
+ */
+public final class OpaqueTypes {
+
+  private enum Treatment {IDENTITY, IGNORED, TRAVERSED}
+
+  private static final OpaqueTypes NONE = new OpaqueTypes();
+
+  private static final OpaqueTypes DEFAULTS = NONE.withIdentityTypeNames(
+      // JVM internals
+      "java.lang.ClassLoader",
+      "java.lang.Thread",
+      "java.lang.ThreadGroup",
+      "java.util.concurrent.Executor",
+      "java.util.concurrent.locks.Lock",
+      "java.util.concurrent.locks.ReadWriteLock",
+      "java.util.concurrent.locks.Condition",
+      "java.util.logging.Logger",
+      "java.nio.channels.Channel",
+      "java.net.Socket",
+      "java.net.ServerSocket",
+      "java.sql.Connection",
+      "javax.sql.DataSource",
+      // logging frameworks
+      "org.slf4j.Logger",
+      "org.apache.logging.log4j.Logger",
+      "org.apache.log4j.Category",
+      "org.apache.commons.logging.Log",
+      // framework contexts
+      "org.springframework.beans.factory.BeanFactory",
+      "javax.persistence.EntityManager",
+      "javax.persistence.EntityManagerFactory",
+      "jakarta.persistence.EntityManager",
+      "jakarta.persistence.EntityManagerFactory",
+      "org.hibernate.Session",
+      "org.hibernate.SessionFactory"
+  );
+
+  private Map<String, Treatment> treatments = emptyMap();
+
+  /* The treatment per class, null if the class is traversed */
+  private final ClassValue<Treatment> classTreatments = new ClassValue<Treatment>() {
+    @Override
+    protected Treatment computeValue(Class<?> type) {
+      Treatment treatment = getTreatment(type);
+      return treatment == Treatment.TRAVERSED ? null : treatment;
+    }
+  };
+
+  private OpaqueTypes() {
+  }
+
+  /**
+   * The built-in opaque types are not used unless they are passed to
+   * {@link ReflectionComparatorOptions#withOpaqueTypes(OpaqueTypes)}. Streams, readers, writers and
+   * references are not part of them, since some of them hold values, e.g. a StringReader.
+   *
+   * @return The built-in opaque types: class loaders, threads, executors, locks, channels,
+   * sockets, connections, data sources, loggers (JUL, SLF4J, Log4j, Commons Logging) and framework
+   * contexts (Spring bean factories, JPA entity managers, Hibernate sessions), all compared by
+   * identity, not null
+   */
+  public static OpaqueTypes defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * @return No opaque types, add them using the <code>with</code> methods, not null
+   */
+  public static OpaqueTypes none() {
+    return NONE;
+  }
+
+  /**
+   * Compares the values of the given types, and their subtypes, by identity.
+   *
+   * @param types The types, not null
+   * @return The new opaque types, not null
+   */
+  public OpaqueTypes withIdentityTypes(Class<?>... types) {
+    return with(Treatment.IDENTITY, getNames(types));
+  }
+
+  /**
+   * Same as {@link #withIdentityTypes(Class[])} using class names, e.g. for types that are not in
+   * the classpath of the test.
+   *
+   * @param classNames The fully qualified class names, not null
+   * @return The new opaque types, not null
+   */
+  public OpaqueTypes withIdentityTypeNames(String... classNames) {
+    return with(Treatment.IDENTITY, classNames);
+  }
+
+  /**
+   * Does not compare the values of the given types, and their subtypes, at all.
+   *
+   * @param types The types, not null
+   * @return The new opaque types, not null
+   */
+  public OpaqueTypes withIgnoredTypes(Class<?>... types) {
+    return with(Treatment.IGNORED, getNames(types));
+  }
+
+  /**
+   * Same as {@link #withIgnoredTypes(Class[])} using class names, e.g. for types that are not in
+   * the classpath of the test.
+   *
+   * @param classNames The fully qualified class names, not null
+   * @return The new opaque types, not null
+   */
+  public OpaqueTypes withIgnoredTypeNames(String... classNames) {
+    return with(Treatment.IGNORED, classNames);
+  }
+
+  /**
+   * Compares the values of the given types, and their subtypes, as usual, even if they are
+   * subtypes of an opaque type.
+   *
+   * @param types The types, not null
+   * @return The new opaque types, not null
+   */
+  public OpaqueTypes withTraversedTypes(Class<?>... types) {
+    return with(Treatment.TRAVERSED, getNames(types));
+  }
+
+  private OpaqueTypes with(Treatment treatment, String... classNames) {
+    Map<String, Treatment> result = new LinkedHashMap<>(treatments);
+    for (String className : classNames) {
+      result.put(className, treatment);
+    }
+    OpaqueTypes copy = new OpaqueTypes();
+    copy.treatments = unmodifiableMap(result);
+    return copy;
+  }
+
+  private static String[] getNames(Class<?>... types) {
+    String[] names = new String[types.length];
+    for (int i = 0; i < types.length; i++) {
+      names[i] = types[i].getName();
+    }
+    return names;
+  }
+
+
+  /**
+   * Checks whether the given value is of an opaque type.
+   *
+   * @param value The value, not null
+   * @return True if the value is compared by identity or ignored
+   */
+  public boolean isOpaque(Object value) {
+    return classTreatments.get(value.getClass()) != null;
+  }
+
+  /**
+   * Checks whether the given value is of an ignored type.
+   *
+   * @param value The value, not null
+   * @return True if the value is not compared
+   */
+  public boolean isIgnored(Object value) {
+    return classTreatments.get(value.getClass()) == Treatment.IGNORED;
+  }
+
+  private Treatment getTreatment(Class<?> type) {
+    if (treatments.isEmpty()) {
+      return null;
+    }
+    for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+      Treatment treatment = treatments.get(clazz.getName());
+      if (treatment == null) {
+        treatment = getInterfaceTreatment(clazz);
+      }
+      if (treatment != null) {
+        return treatment;
+      }
+    }
+    return null;
+  }
+
+  private Treatment getInterfaceTreatment(Class<?> type) {
+    for (Class<?> interfaceType : type.getInterfaces()) {
+      Treatment treatment = treatments.get(interfaceType.getName());
+      if (treatment == null) {
+        treatment = getInterfaceTreatment(interfaceType);
+      }
+      if (treatment != null) {
+        return treatment;
+      }
+    }
+    return null;
+  }
+}
@@ -15,12 +15,21 @@
  */
 package org.unitils.reflectionassert;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import org.unitils.core.UnitilsException;
 import org.unitils.reflectionassert.comparator.Comparator;
 import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.util.LeafTypes;
 
 
 /**
@@ -57,6 +66,55 @@ public final class ReflectionComparator {
   private final Map<Object, Map<Object, Difference>> firstDifferenceCachedResults = new IdentityHashMap<Object, Map<Object, Difference>>();
   private final Map<Object, Map<Object, Difference>> allDifferencesCachedResults = new IdentityHashMap<Object, Map<Object, Difference>>();
 
+  /* The caches of results per field scope other than the root scope of the field filter */
+  private final Map<FieldFilter.Scope, Map<Object, Map<Object, Difference>>>
+      scopedFirstDifferenceCachedResults = new HashMap<>();
+  private final Map<FieldFilter.Scope, Map<Object, Map<Object, Difference>>>
+      scopedAllDifferencesCachedResults = new HashMap<>();
+
+  /*
+   * The caches of results per field scope of the values inside an aggregate, see
+   * isInsideAggregate, since entities are compared differently there
+   */
+  private final Map<FieldFilter.Scope, Map<Object, Map<Object, Difference>>>
+      aggregateFirstDifferenceCachedResults = new HashMap<>();
+  private final Map<FieldFilter.Scope, Map<Object, Map<Object, Difference>>>
+      aggregateAllDifferencesCachedResults = new HashMap<>();
+
+  /* The rules for the compared fields, null if all fields are compared */
+  private final FieldFilter fieldFilter;
+
+  /* The scope of the values that are being compared, null if there is no field filter */
+  private FieldFilter.Scope fieldScope;
+
+  /* Creates the chain for the additional modes of a field scope, null if there are none */
+  private final Function<Set<ReflectionComparatorMode>, List<Comparator>> scopedChainFactory;
+
+  /* The comparator chains per set of additional modes of a field scope */
+  private final Map<Set<ReflectionComparatorMode>, List<Comparator>> scopedComparators =
+      new HashMap<>();
+
+  /* The state of a comparison with a budget, budget is null if there is none */
+  private ComparisonBudget budget;
+  private long nodeCount;
+  private int depth;
+  private int differenceCount;
+  private long deadline;
+  private String truncationReason;
+  private String stopReason;
+
+  /* True if the last result of getDifferenceUnlimited came from the cache */
+  private boolean cachedResultReturned;
+
+  /* True while differences are determined lazily, see getLazyDifference */
+  private boolean lazy;
+
+  /* True while the values of an aggregate are compared, see isInsideAggregate */
+  private boolean insideAggregate;
+
+  /* The future of an asynchronous comparison, the comparison stops when it is done */
+  private final CompletableFuture<?> future;
+
 
   /**
    * Creates a comparator that will use the given chain.
@@ -64,7 +122,52 @@ public final class ReflectionComparator {
    * @param comparators The comparator chain, not null
    */
   public ReflectionComparator(List<Comparator> comparators) {
+    this(comparators, null, null, null);
+  }
+
+
+  /**
+   * Creates a comparator that will use the given chain and only compare the fields of objects that
+   * pass the given filter.
+   *
+   * @param comparators The comparator chain, not null
+   * @param fieldFilter The rules for the compared fields, null to compare all fields
+   */
+  public ReflectionComparator(List<Comparator> comparators, FieldFilter fieldFilter) {
+    this(comparators, fieldFilter, null, null);
+  }
+
+
+  /**
+   * Creates a comparator that will use the given chain, except for the values in a field scope
+   * with additional modes, see {@link FieldFilter.Scope#getModes()}. Those are compared by the
+   * chain that the given factory creates for the additional modes.
+   *
+   * @param comparators The comparator chain, not null
+   * @param fieldFilter The rules for the compared fields and their modes, null to compare all
+   * fields
+   * @param scopedChainFactory Creates the chain for a set of additional modes, null if there are
+   * no additional modes
+   */
+  public ReflectionComparator(
+      List<Comparator> comparators,
+      FieldFilter fieldFilter,
+      Function<Set<ReflectionComparatorMode>, List<Comparator>> scopedChainFactory
+  ) {
+    this(comparators, fieldFilter, scopedChainFactory, null);
+  }
+
+  private ReflectionComparator(
+      List<Comparator> comparators,
+      FieldFilter fieldFilter,
+      Function<Set<ReflectionComparatorMode>, List<Comparator>> scopedChainFactory,
+      CompletableFuture<?> future
+  ) {
     this.comparators = comparators;
+    this.fieldFilter = fieldFilter;
+    this.fieldScope = fieldFilter == null ? null : fieldFilter.getRootScope();
+    this.scopedChainFactory = scopedChainFactory;
+    this.future = future;
   }
 
 
@@ -104,11 +207,394 @@ public final class ReflectionComparator {
    * @return the root difference, null if there is no difference
    */
   public Difference getDifference(Object left, Object right, boolean onlyFirstDifference) {
+    if (future != null) {
+      checkCancelled();
+    }
+    if (budget != null) {
+      return getDifferenceWithinBudget(left, right, onlyFirstDifference);
+    }
+    return getDifferenceUnlimited(left, right, onlyFirstDifference);
+  }
+
+
+  /**
+   * Same as {@link #getDifference(Object, Object)} but the inner differences of objects, ordered
+   * collections and maps are only determined when they are first accessed, e.g. through
+   * {@link org.unitils.reflectionassert.difference.ObjectDifference#getFieldDifferences()} or a
+   * {@link org.unitils.reflectionassert.difference.DifferenceVisitor}. Until then, only the first
+   * difference of every differing inner value is determined to know that it differs.
+   * <p/>
+   * This way, callers that only look at the top levels or a single path of the differences don't
+   * pay for the complete difference tree. The inner differences are determined by this comparator,
+   * so it should not be used by another thread while they are accessed.
+   *
+   * @param left the left instance
+   * @param right the right instance
+   * @return the root difference, null if there is no difference
+   */
+  public Difference getLazyDifference(Object left, Object right) {
+    boolean wasLazy = lazy;
+    lazy = true;
+    try {
+      return getDifference(left, right, false);
+    } finally {
+      lazy = wasLazy;
+    }
+  }
+
+
+  /**
+   * Checks whether the differences are being determined by {@link #getLazyDifference}. Comparators
+   * then add a lazy inner difference for every inner value that is not equal, e.g.
+   * <pre>
+   * if (!reflectionComparator.isEqual(left, right)) {
+   *   difference.addLazyFieldDifference(name,
+   *       reflectionComparator.getLazyDifferenceSupplier(left, right));
+   * }
+   * </pre>
+   *
+   * @return True if the inner differences should be determined when first accessed
+   */
+  public boolean isLazy() {
+    return lazy;
+  }
+
+
+  /**
+   * Creates a supplier of the lazy difference of the given values, see
+   * {@link #getLazyDifference(Object, Object)}. The supplier determines the difference in the
+   * current field scope and aggregate, even though it is called after the comparison returned.
+   *
+   * @param left the left instance
+   * @param right the right instance
+   * @return the supplier of the root difference, not null
+   */
+  public Supplier<Difference> getLazyDifferenceSupplier(Object left, Object right) {
+    FieldFilter.Scope scope = fieldScope;
+    boolean isInsideAggregate = insideAggregate;
+    return () -> {
+      FieldFilter.Scope previousScope = fieldScope;
+      boolean wasInsideAggregate = insideAggregate;
+      fieldScope = scope;
+      insideAggregate = isInsideAggregate;
+      try {
+        return getLazyDifference(left, right);
+      } finally {
+        fieldScope = previousScope;
+        insideAggregate = wasInsideAggregate;
+      }
+    };
+  }
+
+
+  /**
+   * Checks whether the values that are being compared are part of an aggregate, i.e. whether an
+   * entity was already compared on the way to them, see {@link AggregateBoundary}.
+   *
+   * @return True if referenced entities should be compared by identifier
+   */
+  public boolean isInsideAggregate() {
+    return insideAggregate;
+  }
+
+
+  /**
+   * Sets whether the values that are compared next are part of an aggregate, see
+   * {@link #isInsideAggregate()}. Comparators that set it restore the previous value when they
+   * are done.
+   *
+   * @param insideAggregate True if referenced entities should be compared by identifier
+   */
+  public void setInsideAggregate(boolean insideAggregate) {
+    this.insideAggregate = insideAggregate;
+  }
+
+
+  /**
+   * Gets the scope of the values that are being compared with respect to the field filter.
+   * Comparators that compare the fields of an object skip the fields for which the scope returns
+   * no field scope, and compare the other fields in their field scope, e.g.
+   * <pre>
+   * FieldFilter.Scope scope = reflectionComparator.getFieldScope();
+   * FieldFilter.Scope innerScope = scope.getFieldScope(field);
+   * if (innerScope != null) {
+   *   reflectionComparator.setFieldScope(innerScope);
+   *   try {
+   *     ... compare the field values ...
+   *   } finally {
+   *     reflectionComparator.setFieldScope(scope);
+   *   }
+   * }
+   * </pre>
+   *
+   * @return The scope, null if all fields are compared
+   */
+  public FieldFilter.Scope getFieldScope() {
+    return fieldScope;
+  }
+
+
+  /**
+   * Sets the scope of the values that are compared next, see {@link #getFieldScope()}.
+   *
+   * @param fieldScope The scope, a scope of the field filter of this comparator
+   */
+  public void setFieldScope(FieldFilter.Scope fieldScope) {
+    this.fieldScope = fieldScope;
+  }
+
+
+  /**
+   * Same as {@link #getDifference(Object, Object)} but stops the comparison when the given budget
+   * is exceeded.
+   *
+   * @param left the left instance
+   * @param right the right instance
+   * @param budget the limits of the comparison, not null
+   * @return the root difference, null if there is no difference
+   * @see #getDifference(Object, Object, boolean, ComparisonBudget)
+   */
+  public Difference getDifference(Object left, Object right, ComparisonBudget budget) {
+    return getDifference(left, right, false, budget);
+  }
+
+
+  /**
+   * Same as {@link #getDifference(Object, Object, boolean)} but stops the comparison when the
+   * given budget is exceeded. In that case, the differences found so far are returned and the
+   * root difference is marked as {@link Difference#isTruncated() truncated}. If no difference was
+   * found before the comparison stopped, a root difference without details is returned, since the
+   * values can't be reported as equal.
+   * <p/>
+   * Exceeding the max depth only skips the values below that depth, the other limits stop the
+   * whole comparison.
+   *
+   * @param left the left instance
+   * @param right the right instance
+   * @param onlyFirstDifference True if the comparison should stop at the first difference
+   * @param budget the limits of the comparison, not null
+   * @return the root difference, null if there is no difference
+   */
+  public Difference getDifference(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ComparisonBudget budget
+  ) {
+    if (this.budget != null) {
+      throw new UnitilsException("A comparison with a budget is already in progress");
+    }
+    this.budget = budget;
+    Duration timeout = budget.getTimeout();
+    deadline = timeout == null ? 0 : System.nanoTime() + timeout.toNanos();
+    try {
+      Difference difference = getDifference(left, right, onlyFirstDifference);
+      if (truncationReason == null) {
+        return difference;
+      }
+      if (difference == null) {
+        difference = new Difference("Comparison stopped early: " + truncationReason, left, right);
+      }
+      difference.setTruncationReason(truncationReason);
+      return difference;
+    } finally {
+      if (truncationReason != null) {
+        // the cached results of an incomplete comparison can't be reused
+        firstDifferenceCachedResults.clear();
+        allDifferencesCachedResults.clear();
+        scopedFirstDifferenceCachedResults.clear();
+        scopedAllDifferencesCachedResults.clear();
+        aggregateFirstDifferenceCachedResults.clear();
+        aggregateAllDifferencesCachedResults.clear();
+      }
+      this.budget = null;
+      nodeCount = 0;
+      depth = 0;
+      differenceCount = 0;
+      truncationReason = null;
+      stopReason = null;
+    }
+  }
+
+  /**
+   * Same as {@link #getDifference(Object, Object)} but performed by the given executor, e.g. a
+   * thread pool or, on newer JDKs, a virtual thread per task executor.
+   *
+   * @param left the left instance
+   * @param right the right instance
+   * @param executor the executor that performs the comparison, not null
+   * @return the future root difference, not null
+   * @see #getDifferenceAsync(Object, Object, ComparisonBudget, Executor)
+   */
+  public CompletableFuture<Difference> getDifferenceAsync(
+      Object left,
+      Object right,
+      Executor executor
+  ) {
+    return getDifferenceAsync(left, right, null, executor);
+  }
+
+
+  /**
+   * Same as {@link #getDifference(Object, Object, ComparisonBudget)} but performed by the given
+   * executor.
+   * <p/>
+   * The comparison is performed by a copy of this comparator, so that several comparisons can run
+   * at the same time. It stops at the next value that is compared when the returned future is
+   * cancelled or completed otherwise, or when the thread that performs it is interrupted. In case
+   * of an interrupt, the future is cancelled too and the interrupt status is kept.
+   *
+   * @param left the left instance
+   * @param right the right instance
+   * @param budget the limits of the comparison, null for an unlimited comparison
+   * @param executor the executor that performs the comparison, not null
+   * @return the future root difference, not null
+   */
+  public CompletableFuture<Difference> getDifferenceAsync(
+      Object left,
+      Object right,
+      ComparisonBudget budget,
+      Executor executor
+  ) {
+    CompletableFuture<Difference> result = new CompletableFuture<>();
+    ReflectionComparator reflectionComparator = new ReflectionComparator(
+        comparators,
+        fieldFilter,
+        scopedChainFactory,
+        result
+    );
+    executor.execute(() -> {
+      try {
+        if (!result.isDone()) {
+          result.complete(budget == null
+              ? reflectionComparator.getDifference(left, right)
+              : reflectionComparator.getDifference(left, right, false, budget));
+        }
+      } catch (Throwable t) {
+        result.completeExceptionally(t);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Checks whether the current comparison has a budget or can be cancelled. Comparators that
+   * compare values in bulk should then do so in the calling thread and report the compared values
+   * using {@link #addComparedValues(long)}.
+   *
+   * @return True if the comparison is limited
+   */
+  public boolean isLimited() {
+    return budget != null || future != null;
+  }
+
+  /**
+   * Reports values that a comparator compared in bulk itself instead of through this comparator,
+   * e.g. equal leaf elements of a collection. The values are counted against the budget and the
+   * comparison is checked for cancellation. Call this once per batch of values, not per value.
+   *
+   * @param valueCount the nr of compared values
+   * @return False if the budget is exhausted and the comparison should stop
+   * @throws CancellationException if the asynchronous comparison was cancelled or interrupted
+   */
+  public boolean addComparedValues(long valueCount) {
+    if (future != null) {
+      checkCancelled();
+    }
+    if (budget == null) {
+      return true;
+    }
+    if (stopReason != null) {
+      truncationReason = stopReason;
+      return false;
+    }
+    nodeCount += valueCount;
+    if (nodeCount > budget.getMaxNodes()) {
+      stop("more than " + budget.getMaxNodes() + " values compared");
+      return false;
+    }
+    if (deadline != 0 && System.nanoTime() - deadline > 0) {
+      stop("timeout of " + budget.getTimeout() + " exceeded");
+      return false;
+    }
+    return true;
+  }
+
+  private void checkCancelled() {
+    if (future.isDone()) {
+      throw new CancellationException("Comparison cancelled");
+    }
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException("Comparison interrupted");
+    }
+  }
+
+  /**
+   * Compares the values, keeping track of the budget. Only newly found differences without newly
+   * found inner differences are counted, so that the differences of the containing values are not
+   * counted twice and differences that are returned from the cache are not counted at all.
+   */
+  private Difference getDifferenceWithinBudget(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference
+  ) {
+    if (stopReason != null) {
+      // only truncated if there was something left to compare
+      truncationReason = stopReason;
+      return null;
+    }
+    if (++nodeCount > budget.getMaxNodes()) {
+      return stop("more than " + budget.getMaxNodes() + " values compared");
+    }
+    // reading the clock is not free, only do it once in a while
+    if (deadline != 0 && (nodeCount & 1023) == 0 && System.nanoTime() - deadline > 0) {
+      return stop("timeout of " + budget.getTimeout() + " exceeded");
+    }
+    if (depth >= budget.getMaxDepth()) {
+      truncationReason = "values nested deeper than " + budget.getMaxDepth() + " levels skipped";
+      return null;
+    }
+
+    int innerDifferenceCount = differenceCount;
+    depth++;
+    Difference difference;
+    try {
+      difference = getDifferenceUnlimited(left, right, onlyFirstDifference);
+    } finally {
+      depth--;
+    }
+    if (difference != null && !cachedResultReturned && innerDifferenceCount == differenceCount
+        && ++differenceCount >= budget.getMaxDifferences()) {
+      stopReason = "maximum of " + budget.getMaxDifferences() + " differences reached";
+    }
+    return difference;
+  }
+
+  private Difference stop(String reason) {
+    stopReason = reason;
+    truncationReason = reason;
+    return null;
+  }
+
+  private Difference getDifferenceUnlimited(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference
+  ) {
+    // nulls and leaf values can't be part of a cycle and are cheap to compare again
+    if (isLeafOrNull(left) && isLeafOrNull(right)) {
+      Difference result = compare(left, right, onlyFirstDifference);
+      cachedResultReturned = false;
+      return result;
+    }
+
     // check whether difference is available in cache
     Map<Object, Difference> cachedResult = getCachedDifference(left, onlyFirstDifference);
     if (cachedResult != null) {
       if (cachedResult.containsKey(right)) {
         // found difference in cache, return cached value
+        cachedResultReturned = true;
         return cachedResult.get(right);
       }
     } else {
@@ -117,27 +603,58 @@ public final class ReflectionComparator {
     }
     cachedResult.put(right, null);
 
-    // perform actual comparison by iterating over the comparators
-    boolean compared = false;
-    Difference result = null;
-    for (Comparator comparator : comparators) {
+    Difference result = compare(left, right, onlyFirstDifference);
+
+    // register outcome in cache
+    cachedResult.put(right, result);
+    cachedResultReturned = false;
+    return result;
+  }
+
+  private static boolean isLeafOrNull(Object value) {
+    return value == null || LeafTypes.isLeafValue(value);
+  }
+
+  /**
+   * Performs the actual comparison by iterating over the comparators.
+   */
+  private Difference compare(Object left, Object right, boolean onlyFirstDifference) {
+    for (Comparator comparator : getComparators()) {
       if (comparator.canCompare(left, right)) {
-        result = comparator.compare(left, right, onlyFirstDifference, this);
-        compared = true;
-        break;
+        return comparator.compare(left, right, onlyFirstDifference, this);
       }
     }
+    throw new UnitilsException(
+        "Could not determine differences. No comparator found that is able to compare the values. Left: "
+            + left + ", right " + right);
+  }
 
-    // check whether a suitable comparator was found
-    if (!compared) {
-      throw new UnitilsException(
-          "Could not determine differences. No comparator found that is able to compare the values. Left: "
-              + left + ", right " + right);
+  /**
+   * Gets the comparator of the chain that compares the given values, i.e. the first comparator
+   * that can compare them.
+   *
+   * @param left the left instance
+   * @param right the right instance
+   * @return the comparator, null if there is none
+   */
+  public Comparator getComparator(Object left, Object right) {
+    for (Comparator comparator : getComparators()) {
+      if (comparator.canCompare(left, right)) {
+        return comparator;
+      }
     }
+    return null;
+  }
 
-    // register outcome in cache
-    cachedResult.put(right, result);
-    return result;
+  /**
+   * Gets the chain for the current field scope, so that the strict chain is used everywhere
+   * except in the scopes with additional modes.
+   */
+  private List<Comparator> getComparators() {
+    if (scopedChainFactory == null || fieldScope == null || fieldScope.getModes().isEmpty()) {
+      return comparators;
+    }
+    return scopedComparators.computeIfAbsent(fieldScope.getModes(), scopedChainFactory);
   }
 
   private void saveResultInCache(
@@ -145,18 +662,32 @@ public final class ReflectionComparator {
       Map<Object, Difference> cachedResult,
       boolean onlyFirstDifference
   ) {
-    if (onlyFirstDifference) {
-      firstDifferenceCachedResults.put(left, cachedResult);
-    } else {
-      allDifferencesCachedResults.put(left, cachedResult);
-    }
+    getCachedResults(onlyFirstDifference).put(left, cachedResult);
   }
 
   private Map<Object, Difference> getCachedDifference(Object left, boolean onlyFirstDifference) {
-    if (onlyFirstDifference) {
-      return firstDifferenceCachedResults.get(left);
-    } else {
-      return allDifferencesCachedResults.get(left);
+    return getCachedResults(onlyFirstDifference).get(left);
+  }
+
+  /**
+   * Gets the cache for the current field scope and aggregate state, since the same values can
+   * differ in another scope or inside an aggregate.
+   */
+  private Map<Object, Map<Object, Difference>> getCachedResults(boolean onlyFirstDifference) {
+    if (insideAggregate) {
+      Map<FieldFilter.Scope, Map<Object, Map<Object, Difference>>> aggregateCachedResults =
+          onlyFirstDifference
+              ? aggregateFirstDifferenceCachedResults
+              : aggregateAllDifferencesCachedResults;
+      return aggregateCachedResults.computeIfAbsent(fieldScope, scope -> new IdentityHashMap<>());
+    }
+    if (fieldFilter == null || fieldScope == fieldFilter.getRootScope()) {
+      return onlyFirstDifference ? firstDifferenceCachedResults : allDifferencesCachedResults;
     }
+    Map<FieldFilter.Scope, Map<Object, Map<Object, Difference>>> scopedCachedResults =
+        onlyFirstDifference
+            ? scopedFirstDifferenceCachedResults
+            : scopedAllDifferencesCachedResults;
+    return scopedCachedResults.computeIfAbsent(fieldScope, scope -> new IdentityHashMap<>());
   }
 }
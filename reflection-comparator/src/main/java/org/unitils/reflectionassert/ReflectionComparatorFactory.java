@@ -17,6 +17,7 @@ package org.unitils.reflectionassert;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptySet;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.ALIGNED_ORDER;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.IGNORE_DEFAULTS;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_DATES;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
@@ -24,9 +25,16 @@ import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDE
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.comparator.impl.AggregateBoundaryComparator;
+import org.unitils.reflectionassert.comparator.impl.AlignedCollectionComparator;
+import org.unitils.reflectionassert.comparator.impl.BitSetComparator;
+import org.unitils.reflectionassert.comparator.impl.BufferComparator;
 import org.unitils.reflectionassert.comparator.impl.CollectionComparator;
+import org.unitils.reflectionassert.comparator.impl.EnumMapComparator;
+import org.unitils.reflectionassert.comparator.impl.FloatingPointToleranceComparator;
 import org.unitils.reflectionassert.comparator.impl.HibernateProxyComparator;
 import org.unitils.reflectionassert.comparator.impl.IgnoreDefaultsComparator;
 import org.unitils.reflectionassert.comparator.impl.LenientDatesComparator;
@@ -34,7 +42,12 @@ import org.unitils.reflectionassert.comparator.impl.LenientNumberComparator;
 import org.unitils.reflectionassert.comparator.impl.LenientOrderCollectionComparator;
 import org.unitils.reflectionassert.comparator.impl.MapComparator;
 import org.unitils.reflectionassert.comparator.impl.ObjectComparator;
+import org.unitils.reflectionassert.comparator.impl.OpaqueTypeComparator;
+import org.unitils.reflectionassert.comparator.impl.PrimitiveArrayComparator;
+import org.unitils.reflectionassert.comparator.impl.ReorderWindowCollectionComparator;
+import org.unitils.reflectionassert.comparator.impl.SamplingComparator;
 import org.unitils.reflectionassert.comparator.impl.SimpleCasesComparator;
+import org.unitils.reflectionassert.comparator.impl.ValueTypeComparator;
 
 /**
  * A factory for creating a reflection comparator. This will assemble the appropriate comparator
@@ -52,7 +65,11 @@ import org.unitils.reflectionassert.comparator.impl.SimpleCasesComparator;
  * <li>lenient order: only check whether both collections or arrays contain the same value, the
  * actual order of the
  * values is not compared. Eg. if the left object is int[]{ 1, 2} and the right value is int[]{2, 1}
- * they would still be considered equal.
+ * they would still be considered equal.</li>
+ * <li>aligned order: the order of collections and arrays is compared, but the elements are aligned
+ * first. Eg. if the left value is {1, 2, 3} and the right value is {1, 9, 2, 3}, only the inserted
+ * 9 is reported.</li>
+ * </ul>
  *
  * @author Tim Ducheyne
  * @author Filip Neven
@@ -74,26 +91,56 @@ public final class ReflectionComparatorFactory {
    */
   private static final Comparator LENIENT_NUMBER_COMPARATOR = new LenientNumberComparator();
 
+  /**
+   * The ValueTypeComparator singleton instance
+   */
+  private static final Comparator VALUE_TYPE_COMPARATOR = new ValueTypeComparator();
+
   /**
    * The SimpleCasesComparator singleton instance
    */
   private static final Comparator SIMPLE_CASES_COMPARATOR = new SimpleCasesComparator();
 
+  /**
+   * The BitSetComparator singleton instance
+   */
+  private static final Comparator BIT_SET_COMPARATOR = new BitSetComparator();
+
   /**
    * The LenientOrderCollectionComparator singleton instance
    */
   private static final Comparator LENIENT_ORDER_COMPARATOR = new LenientOrderCollectionComparator();
 
+  /**
+   * The AlignedCollectionComparator singleton instance
+   */
+  private static final Comparator ALIGNED_COLLECTION_COMPARATOR = new AlignedCollectionComparator();
+
+  /**
+   * The PrimitiveArrayComparator singleton instance
+   */
+  private static final Comparator PRIMITIVE_ARRAY_COMPARATOR = new PrimitiveArrayComparator();
+
   /**
    * The CollectionComparator singleton instance
    */
   private static final Comparator COLLECTION_COMPARATOR = new CollectionComparator();
 
+  /**
+   * The EnumMapComparator singleton instance
+   */
+  private static final Comparator ENUM_MAP_COMPARATOR = new EnumMapComparator();
+
   /**
    * The MapComparator singleton instance
    */
   private static final Comparator MAP_COMPARATOR = new MapComparator();
 
+  /**
+   * The BufferComparator singleton instance
+   */
+  private static final Comparator BUFFER_COMPARATOR = new BufferComparator();
+
   /**
    * The HibernateProxyComparator singleton instance
    */
@@ -132,18 +179,74 @@ public final class ReflectionComparatorFactory {
    * @return The reflection comparator, not null
    */
   public static ReflectionComparator createReflectionComparator(Set<ReflectionComparatorMode> modes) {
-    List<Comparator> comparators = getComparatorChain(modes);
-    return new ReflectionComparator(comparators);
+    return createReflectionComparator(modes, ReflectionComparatorOptions.defaultOptions());
+  }
+
+  /**
+   * Creates a reflection comparator for the given modes and options.
+   *
+   * @param modes The modes, empty set for strict comparison
+   * @param options The options, not null
+   * @return The reflection comparator, not null
+   */
+  public static ReflectionComparator createReflectionComparator(
+      Set<ReflectionComparatorMode> modes,
+      ReflectionComparatorOptions options
+  ) {
+    List<Comparator> comparators = getComparatorChain(modes, options);
+    if (options.getPathModes().isEmpty() && options.getDeclaringTypeModes().isEmpty()) {
+      return new ReflectionComparator(comparators, options.getFieldFilter());
+    }
+    return new ReflectionComparator(
+        comparators,
+        getFieldFilterWithModes(options),
+        scopedModes -> getComparatorChain(union(modes, scopedModes), options)
+    );
+  }
+
+  /**
+   * Adds the path and declaring type modes of the options to the rules of the field filter, so
+   * that the scopes of the values know their additional modes.
+   */
+  private static FieldFilter getFieldFilterWithModes(ReflectionComparatorOptions options) {
+    FieldFilter fieldFilter = options.getFieldFilter() == null
+        ? FieldFilter.allFields()
+        : options.getFieldFilter();
+    for (Map.Entry<String, Set<ReflectionComparatorMode>> entry
+        : options.getPathModes().entrySet()) {
+      fieldFilter = fieldFilter.withPathModes(entry.getKey(), entry.getValue());
+    }
+    for (Map.Entry<Class<?>, Set<ReflectionComparatorMode>> entry
+        : options.getDeclaringTypeModes().entrySet()) {
+      fieldFilter = fieldFilter.withDeclaringTypeModes(entry.getKey(), entry.getValue());
+    }
+    return fieldFilter;
+  }
+
+  private static Set<ReflectionComparatorMode> union(
+      Set<ReflectionComparatorMode> modes,
+      Set<ReflectionComparatorMode> scopedModes
+  ) {
+    Set<ReflectionComparatorMode> result = EnumSet.noneOf(ReflectionComparatorMode.class);
+    result.addAll(modes);
+    result.addAll(scopedModes);
+    return result;
   }
 
   /**
-   * Creates a comparator chain for the given modes. If no mode is given, a strict comparator will
-   * be created.
+   * Creates a comparator chain for the given modes and options. If no mode is given, a strict
+   * comparator will be created.
    *
    * @param modes The modes, null for strict comparison
+   * @param options The options, not null
    * @return The comparator chain, not null
    */
-  private static List<Comparator> getComparatorChain(Set<ReflectionComparatorMode> modes) {
+  private static List<Comparator> getComparatorChain(
+      Set<ReflectionComparatorMode> modes,
+      ReflectionComparatorOptions options
+  ) {
+    FloatingPointTolerance tolerance = options.getFloatingPointTolerance();
+    CollectionSampling sampling = options.getCollectionSampling();
     List<Comparator> comparatorChain = new ArrayList<>();
     if (modes.contains(IGNORE_DEFAULTS)) {
       comparatorChain.add(IGNORE_DEFAULTS_COMPARATOR);
@@ -151,16 +254,45 @@ public final class ReflectionComparatorFactory {
     if (modes.contains(LENIENT_DATES)) {
       comparatorChain.add(LENIENT_DATES_COMPARATOR);
     }
+    if (options.getOpaqueTypes() != null) {
+      comparatorChain.add(new OpaqueTypeComparator(options.getOpaqueTypes()));
+    }
+    if (tolerance != null) {
+      comparatorChain.add(new FloatingPointToleranceComparator(tolerance));
+    }
     comparatorChain.add(LENIENT_NUMBER_COMPARATOR);
+    comparatorChain.add(VALUE_TYPE_COMPARATOR);
     comparatorChain.add(SIMPLE_CASES_COMPARATOR);
-    if (modes.contains(LENIENT_ORDER)) {
+    comparatorChain.add(BIT_SET_COMPARATOR);
+    if (modes.contains(LENIENT_ORDER) && !options.getElementKeyExtractors().isEmpty()) {
+      comparatorChain.add(
+          new LenientOrderCollectionComparator(options.getElementKeyExtractors())
+      );
+    } else if (modes.contains(LENIENT_ORDER)) {
       comparatorChain.add(LENIENT_ORDER_COMPARATOR);
+    } else if (options.getReorderWindow() > 0) {
+      comparatorChain.add(new ReorderWindowCollectionComparator(options.getReorderWindow()));
+    } else if (modes.contains(ALIGNED_ORDER)) {
+      comparatorChain.add(ALIGNED_COLLECTION_COMPARATOR);
+    } else if (tolerance != null) {
+      comparatorChain.add(new PrimitiveArrayComparator(tolerance));
+      comparatorChain.add(withSampling(COLLECTION_COMPARATOR, sampling));
     } else {
-      comparatorChain.add(COLLECTION_COMPARATOR);
+      comparatorChain.add(PRIMITIVE_ARRAY_COMPARATOR);
+      comparatorChain.add(withSampling(COLLECTION_COMPARATOR, sampling));
+    }
+    comparatorChain.add(ENUM_MAP_COMPARATOR);
+    comparatorChain.add(withSampling(MAP_COMPARATOR, sampling));
+    comparatorChain.add(BUFFER_COMPARATOR);
+    if (options.getAggregateBoundary() != null) {
+      comparatorChain.add(new AggregateBoundaryComparator(options.getAggregateBoundary()));
     }
-    comparatorChain.add(MAP_COMPARATOR);
     comparatorChain.add(HIBERNATE_PROXY_COMPARATOR);
     comparatorChain.add(OBJECT_COMPARATOR);
     return comparatorChain;
   }
+
+  private static Comparator withSampling(Comparator comparator, CollectionSampling sampling) {
+    return sampling == null ? comparator : new SamplingComparator(sampling, comparator);
+  }
 }
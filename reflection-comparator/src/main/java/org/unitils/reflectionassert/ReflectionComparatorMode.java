@@ -23,6 +23,8 @@ package org.unitils.reflectionassert;
  * <li>lenient dates: do not compare actual date values, just that they both have a value or
  * not</li>
  * <li>lenient order: order is not important when comparing collections or arrays</li>
+ * <li>aligned order: order is important, but collections and arrays are aligned first so that
+ * inserted and removed elements are reported as such</li>
  * </ul>
  * The modes can be combined if needed.
  *
@@ -47,6 +49,14 @@ public enum ReflectionComparatorMode {
    * (expected) side collection or array are also contained in the right-hand (actual) side and vice
    * versa.
    */
-  LENIENT_ORDER
+  LENIENT_ORDER,
+
+  /**
+   * Compare collections and arrays in order, but align the elements of both sides before
+   * reporting the differences. An element inserted in or removed from the right-hand (actual) side
+   * is reported as a single difference, instead of a difference for all elements that follow it.
+   * Has no effect if combined with LENIENT_ORDER.
+   */
+  ALIGNED_ORDER
 
 }
@@ -0,0 +1,341 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.unitils.reflectionassert.util.FieldPathKeyExtractor;
+
+/**
+ * Options for the comparison that, unlike the {@link ReflectionComparatorMode}s, need a value.
+ * <p/>
+ * Instances are immutable, every <code>with</code> method returns a new instance. Start from
+ * {@link #defaultOptions()} and pass the result to
+ * {@link ReflectionComparatorFactory#createReflectionComparator(java.util.Set,
+ * ReflectionComparatorOptions)}.
+ */
+public final class ReflectionComparatorOptions {
+
+  private static final ReflectionComparatorOptions DEFAULT_OPTIONS =
+      new ReflectionComparatorOptions();
+
+  private FloatingPointTolerance floatingPointTolerance;
+  private int reorderWindow;
+  private Map<Class<?>, Function<Object, ?>> elementKeyExtractors = emptyMap();
+  private CollectionSampling collectionSampling;
+  private ComparisonBudget comparisonBudget;
+  private FieldFilter fieldFilter;
+  private AggregateBoundary aggregateBoundary;
+  private OpaqueTypes opaqueTypes;
+  private Map<String, Set<ReflectionComparatorMode>> pathModes = emptyMap();
+  private Map<Class<?>, Set<ReflectionComparatorMode>> declaringTypeModes = emptyMap();
+
+  private ReflectionComparatorOptions() {
+  }
+
+  private ReflectionComparatorOptions copy() {
+    ReflectionComparatorOptions copy = new ReflectionComparatorOptions();
+    copy.floatingPointTolerance = floatingPointTolerance;
+    copy.reorderWindow = reorderWindow;
+    copy.elementKeyExtractors = elementKeyExtractors;
+    copy.collectionSampling = collectionSampling;
+    copy.comparisonBudget = comparisonBudget;
+    copy.fieldFilter = fieldFilter;
+    copy.aggregateBoundary = aggregateBoundary;
+    copy.opaqueTypes = opaqueTypes;
+    copy.pathModes = pathModes;
+    copy.declaringTypeModes = declaringTypeModes;
+    return copy;
+  }
+
+  /**
+   * @return The options for a comparison without any of the options, not null
+   */
+  public static ReflectionComparatorOptions defaultOptions() {
+    return DEFAULT_OPTIONS;
+  }
+
+  /**
+   * Compares float and double values (boxed, fields and arrays) using the given tolerance instead
+   * of exact equality.
+   *
+   * @param floatingPointTolerance The tolerance, null for exact comparison
+   * @return The new options, not null
+   */
+  public ReflectionComparatorOptions withFloatingPointTolerance(
+      FloatingPointTolerance floatingPointTolerance
+  ) {
+    ReflectionComparatorOptions copy = copy();
+    copy.floatingPointTolerance = floatingPointTolerance;
+    return copy;
+  }
+
+  /**
+   * @return The tolerance for float and double values, null for exact comparison
+   */
+  public FloatingPointTolerance getFloatingPointTolerance() {
+    return floatingPointTolerance;
+  }
+
+  /**
+   * Allows the elements of collections and arrays to be out of order by at most the given nr of
+   * positions: the element at index i may match any element at an index from i - window up to
+   * i + window. This is ignored in LENIENT_ORDER mode, which allows any order, and replaces the
+   * alignment of the ALIGNED_ORDER mode.
+   *
+   * @param reorderWindow The maximum nr of positions, 0 to compare the order strictly
+   * @return The new options, not null
+   */
+  public ReflectionComparatorOptions withReorderWindow(int reorderWindow) {
+    if (reorderWindow < 0) {
+      throw new IllegalArgumentException("Reorder window must not be negative: " + reorderWindow);
+    }
+    ReflectionComparatorOptions copy = copy();
+    copy.reorderWindow = reorderWindow;
+    return copy;
+  }
+
+  /**
+   * @return The maximum nr of positions an element may be moved, 0 for strict order
+   */
+  public int getReorderWindow() {
+    return reorderWindow;
+  }
+
+  /**
+   * Matches the elements of the given type in LENIENT_ORDER mode by the key returned by the given
+   * function instead of by trying every combination of elements. Elements with the same key are
+   * compared with each other, elements without a counterpart with the same key are reported as
+   * missing.
+   * <p/>
+   * Keys are only used if all elements of both collections are instances of the type.
+   *
+   * @param type The type of the elements, not null
+   * @param keyExtractor The function that returns the key of an element, e.g. its id, not null
+   * @param <T> The type of the elements
+   * @return The new options, not null
+   */
+  @SuppressWarnings("unchecked")
+  public <T> ReflectionComparatorOptions withElementKey(
+      Class<T> type,
+      Function<? super T, ?> keyExtractor
+  ) {
+    Map<Class<?>, Function<Object, ?>> extractors = new LinkedHashMap<>(elementKeyExtractors);
+    extractors.put(type, (Function<Object, ?>) keyExtractor);
+    ReflectionComparatorOptions copy = copy();
+    copy.elementKeyExtractors = unmodifiableMap(extractors);
+    return copy;
+  }
+
+  /**
+   * Same as {@link #withElementKey(Class, Function)} using the value of a field path, e.g.
+   * <code>"id"</code> or <code>"customer.id"</code>, as key.
+   *
+   * @param type The type of the elements, not null
+   * @param fieldPath The field names separated by dots, not null
+   * @return The new options, not null
+   * @throws org.unitils.core.UnitilsException If a field of the path does not exist
+   */
+  public ReflectionComparatorOptions withElementKey(Class<?> type, String fieldPath) {
+    return withElementKey(type, new FieldPathKeyExtractor(type, fieldPath));
+  }
+
+  /**
+   * @return The key extractors per element type, not null
+   */
+  public Map<Class<?>, Function<Object, ?>> getElementKeyExtractors() {
+    return elementKeyExtractors;
+  }
+
+  /**
+   * Compares only a sample of the elements of large collections, arrays and maps, next to their
+   * sizes. If a sampled element differs, all elements are compared. Primitive arrays and
+   * collections in LENIENT_ORDER, ALIGNED_ORDER or reorder window mode are always compared
+   * completely.
+   *
+   * @param collectionSampling The sampling, null to compare all elements
+   * @return The new options, not null
+   */
+  public ReflectionComparatorOptions withCollectionSampling(CollectionSampling collectionSampling) {
+    ReflectionComparatorOptions copy = copy();
+    copy.collectionSampling = collectionSampling;
+    return copy;
+  }
+
+  /**
+   * @return The sampling for large collections, null to compare all elements
+   */
+  public CollectionSampling getCollectionSampling() {
+    return collectionSampling;
+  }
+
+  /**
+   * Limits the work of the comparison. This is not used by the comparator itself, pass it to
+   * {@link ReflectionComparator#getDifference(Object, Object, ComparisonBudget)}.
+   *
+   * @param comparisonBudget The budget, null for an unlimited comparison
+   * @return The new options, not null
+   */
+  public ReflectionComparatorOptions withComparisonBudget(ComparisonBudget comparisonBudget) {
+    ReflectionComparatorOptions copy = copy();
+    copy.comparisonBudget = comparisonBudget;
+    return copy;
+  }
+
+  /**
+   * @return The limits of the comparison, null for an unlimited comparison
+   */
+  public ComparisonBudget getComparisonBudget() {
+    return comparisonBudget;
+  }
+
+  /**
+   * Only compares the fields of objects that pass the given filter. Excluded fields are not read,
+   * so their values are never traversed.
+   *
+   * @param fieldFilter The filter, null to compare all fields
+   * @return The new options, not null
+   */
+  public ReflectionComparatorOptions withFieldFilter(FieldFilter fieldFilter) {
+    ReflectionComparatorOptions copy = copy();
+    copy.fieldFilter = fieldFilter;
+    return copy;
+  }
+
+  /**
+   * @return The rules for the compared fields, null to compare all fields
+   */
+  public FieldFilter getFieldFilter() {
+    return fieldFilter;
+  }
+
+  /**
+   * Compares the entities beyond the boundary of the compared aggregates only by their type and
+   * identifier, e.g. the customer of an order, so that a comparison of bidirectionally linked
+   * entities does not traverse the whole graph.
+   *
+   * @param aggregateBoundary The boundary, null to traverse all entities
+   * @return The new options, not null
+   */
+  public ReflectionComparatorOptions withAggregateBoundary(AggregateBoundary aggregateBoundary) {
+    ReflectionComparatorOptions copy = copy();
+    copy.aggregateBoundary = aggregateBoundary;
+    return copy;
+  }
+
+  /**
+   * @return The boundary of the compared aggregates, null to traverse all entities
+   */
+  public AggregateBoundary getAggregateBoundary() {
+    return aggregateBoundary;
+  }
+
+  /**
+   * Compares the values of the given types by identity, or ignores them, instead of traversing
+   * them, e.g. {@link OpaqueTypes#defaults()}.
+   *
+   * @param opaqueTypes The types, null to traverse all types
+   * @return The new options, not null
+   */
+  public ReflectionComparatorOptions withOpaqueTypes(OpaqueTypes opaqueTypes) {
+    ReflectionComparatorOptions copy = copy();
+    copy.opaqueTypes = opaqueTypes;
+    return copy;
+  }
+
+  /**
+   * @return The types that are not traversed, null to traverse all types
+   */
+  public OpaqueTypes getOpaqueTypes() {
+    return opaqueTypes;
+  }
+
+  /**
+   * Compares the values at the paths that match the given pattern, and everything they contain,
+   * with the given modes next to the modes of the comparator, e.g. LENIENT_ORDER for
+   * <code>customer.tags</code> only. The paths and patterns are the ones of a
+   * {@link FieldFilter}. All other values keep the modes of the comparator, so an expensive mode
+   * is only used where it is needed.
+   *
+   * @param pattern The pattern of the paths, e.g. <code>customer.tags</code> or
+   * <code>audit.*</code>, not null
+   * @param modes The additional modes, not null
+   * @return The new options, not null
+   */
+  public ReflectionComparatorOptions withPathModes(
+      String pattern,
+      ReflectionComparatorMode... modes
+  ) {
+    FieldFilter.checkPattern(pattern);
+    ReflectionComparatorOptions copy = copy();
+    copy.pathModes = put(pathModes, pattern, modes);
+    return copy;
+  }
+
+  /**
+   * @return The additional modes per path pattern, not null
+   */
+  public Map<String, Set<ReflectionComparatorMode>> getPathModes() {
+    return pathModes;
+  }
+
+  /**
+   * Compares the values of the fields declared by the given class, and everything they contain,
+   * with the given modes next to the modes of the comparator.
+   *
+   * @param declaringType The class that declares the fields, not null
+   * @param modes The additional modes, not null
+   * @return The new options, not null
+   */
+  public ReflectionComparatorOptions withDeclaringTypeModes(
+      Class<?> declaringType,
+      ReflectionComparatorMode... modes
+  ) {
+    ReflectionComparatorOptions copy = copy();
+    copy.declaringTypeModes = put(declaringTypeModes, declaringType, modes);
+    return copy;
+  }
+
+  /**
+   * @return The additional modes per declaring type of the fields, not null
+   */
+  public Map<Class<?>, Set<ReflectionComparatorMode>> getDeclaringTypeModes() {
+    return declaringTypeModes;
+  }
+
+  private static <K> Map<K, Set<ReflectionComparatorMode>> put(
+      Map<K, Set<ReflectionComparatorMode>> values,
+      K key,
+      ReflectionComparatorMode... modes
+  ) {
+    Set<ReflectionComparatorMode> keyModes = EnumSet.noneOf(ReflectionComparatorMode.class);
+    keyModes.addAll(asList(modes));
+    Map<K, Set<ReflectionComparatorMode>> result = new LinkedHashMap<>(values);
+    if (result.containsKey(key)) {
+      keyModes.addAll(result.get(key));
+    }
+    result.put(key, unmodifiableSet(keyModes));
+    return unmodifiableMap(result);
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_DATES;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+import static org.unitils.reflectionassert.util.ComparedFields.getComparedFields;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.nio.Buffer;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.unitils.core.UnitilsException;
+
+/**
+ * Computes a deep hash of an object graph that is consistent with the equality of a
+ * {@link ReflectionComparator} created for the same modes: if the comparator finds two values
+ * equal in both directions, their hashes are equal.
+ * <p/>
+ * The modes are taken into account as follows:
+ * <ul>
+ * <li>ignore defaults: all default values (null, false, 0 of any number type) have the same
+ * hash</li>
+ * <li>lenient dates: dates and times only hash their type, i.e. whether they are present</li>
+ * <li>lenient order: the hashes of the elements of collections and arrays are combined
+ * independently of their order</li>
+ * </ul>
+ * Numbers hash by value, so <code>1</code>, <code>1L</code> and <code>1.0</code> hash the same.
+ * Hibernate proxies and the values of {@link ReflectionComparatorOptions} are not supported.
+ * <p/>
+ * The graph is hashed up to a depth of {@link #MAX_DEPTH}, so hashing is safe for cycles. The
+ * hash of every object is computed only once per depth during a call to {@link #hash(Object)}.
+ * Instances are thread-safe.
+ */
+public final class StructuralHasher {
+
+  /**
+   * The nr of levels of the object graph that are hashed
+   */
+  public static final int MAX_DEPTH = 16;
+
+  private final boolean lenientDates;
+  private final boolean lenientOrder;
+
+  /* The hasher for map keys, which are compared strictly, null if this hasher hashes strictly */
+  private final StructuralHasher keyHasher;
+
+
+  /**
+   * Creates a hasher for a comparator with the given modes.
+   *
+   * @param modes The modes, empty for strict comparison
+   */
+  public StructuralHasher(ReflectionComparatorMode... modes) {
+    this(modes.length == 0 ? emptySet() : EnumSet.copyOf(asList(modes)));
+  }
+
+  /**
+   * Creates a hasher for a comparator with the given modes.
+   *
+   * @param modes The modes, empty for strict comparison
+   */
+  public StructuralHasher(Set<ReflectionComparatorMode> modes) {
+    this.lenientDates = modes.contains(LENIENT_DATES);
+    this.lenientOrder = modes.contains(LENIENT_ORDER);
+    this.keyHasher = lenientDates || lenientOrder ? new StructuralHasher(emptySet()) : null;
+  }
+
+
+  /**
+   * Computes the hash of the given value.
+   *
+   * @param value The value, can be null
+   * @return The hash
+   */
+  public int hash(Object value) {
+    return hash(value, MAX_DEPTH, new Memo());
+  }
+
+  private int hash(Object value, int depth, Memo memo) {
+    if (value == null || depth == 0) {
+      return 0;
+    }
+    if (lenientDates && isDate(value)) {
+      return value.getClass().getName().hashCode();
+    }
+    if (value instanceof Number || value instanceof Character) {
+      return hashNumber(value);
+    }
+    if (value instanceof Boolean) {
+      return (Boolean) value ? 1 : 0;
+    }
+    if (value instanceof Enum) {
+      Enum<?> enumValue = (Enum<?>) value;
+      return 31 * enumValue.getDeclaringClass().getName().hashCode() + enumValue.name().hashCode();
+    }
+    if (value instanceof CharSequence) {
+      // StringBuilders and StringBuffers are compared by their characters, like strings
+      return value.toString().hashCode();
+    }
+    if (value instanceof AtomicBoolean) {
+      return ((AtomicBoolean) value).get() ? 1 : 0;
+    }
+    if (isEqualsType(value)) {
+      return value.hashCode();
+    }
+    Integer memoizedHash = memo.get(value, depth);
+    if (memoizedHash != null) {
+      return memoizedHash;
+    }
+    int hash = hashStructure(value, depth, memo);
+    memo.put(value, depth, hash);
+    return hash;
+  }
+
+  private int hashStructure(Object value, int depth, Memo memo) {
+    if (value instanceof Optional) {
+      return 31 + hash(((Optional<?>) value).orElse(null), depth - 1, memo);
+    }
+    if (value instanceof AtomicReference) {
+      return 31 + hash(((AtomicReference<?>) value).get(), depth - 1, memo);
+    }
+    if (value instanceof Buffer) {
+      return ((Buffer) value).remaining();
+    }
+    if (value.getClass().isArray()) {
+      int length = Array.getLength(value);
+      List<Object> elements = new ArrayList<>(length);
+      for (int i = 0; i < length; i++) {
+        elements.add(Array.get(value, i));
+      }
+      return hashElements(elements, depth, memo);
+    }
+    if (value instanceof Collection) {
+      return hashElements((Collection<?>) value, depth, memo);
+    }
+    if (value instanceof Map) {
+      return hashEntries((Map<?, ?>) value, depth, memo);
+    }
+    String className = value.getClass().getName();
+    if (className.startsWith("java.") || className.startsWith("javax.")) {
+      // other JDK classes are only equal to instances of the same class
+      return className.hashCode();
+    }
+    return hashFields(value, depth, memo);
+  }
+
+  private int hashElements(Collection<?> elements, int depth, Memo memo) {
+    int hash = elements.size();
+    for (Object element : elements) {
+      int elementHash = hash(element, depth - 1, memo);
+      hash = lenientOrder ? hash + elementHash : 31 * hash + elementHash;
+    }
+    return hash;
+  }
+
+  private int hashEntries(Map<?, ?> map, int depth, Memo memo) {
+    int hash = map.size();
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      int keyHash = keyHasher == null
+          ? hash(entry.getKey(), depth - 1, memo)
+          : keyHasher.hash(entry.getKey());
+      hash += 31 * keyHash + hash(entry.getValue(), depth - 1, memo);
+    }
+    return hash;
+  }
+
+  private int hashFields(Object value, int depth, Memo memo) {
+    int hash = value.getClass().getName().hashCode();
+    try {
+      for (Field field : getComparedFields(value.getClass())) {
+        hash = 31 * hash + hash(field.get(value), depth - 1, memo);
+      }
+    } catch (IllegalAccessException e) {
+      throw new UnitilsException("Unable to hash field values of " + value.getClass(), e);
+    }
+    return hash;
+  }
+
+
+  private static boolean isDate(Object value) {
+    return value instanceof Date || value instanceof Calendar || value instanceof TemporalAccessor;
+  }
+
+  /**
+   * Values that are compared using equals. Other classes in java.lang are compared using equals
+   * as well.
+   */
+  private static boolean isEqualsType(Object value) {
+    return value instanceof String
+        || value instanceof Date
+        || value instanceof Calendar
+        || value instanceof TemporalAccessor && value.getClass().getName().startsWith("java.time")
+        || value instanceof UUID
+        || value instanceof URI
+        || value instanceof Locale
+        || value instanceof Currency
+        || value instanceof OptionalInt
+        || value instanceof OptionalLong
+        || value instanceof OptionalDouble
+        || value instanceof BitSet
+        || value.getClass().getName().startsWith("java.lang");
+  }
+
+  /**
+   * Hashes numbers by their value as double, so that numbers that are equal whatever their type
+   * have the same hash. Zeros hash to 0, like the other default values.
+   */
+  private static int hashNumber(Object value) {
+    // equal BigDecimals with a different scale are rounded to the same double
+    double doubleValue = value instanceof Character
+        ? (Character) value
+        : ((Number) value).doubleValue();
+    return doubleValue == 0 ? 0 : Double.hashCode(doubleValue);
+  }
+
+  /**
+   * The hashes of the objects that were already hashed, per depth.
+   */
+  private static final class Memo {
+
+    private final List<Map<Object, Integer>> hashes = new ArrayList<>(MAX_DEPTH + 1);
+
+    Memo() {
+      for (int depth = 0; depth <= MAX_DEPTH; depth++) {
+        hashes.add(null);
+      }
+    }
+
+    Integer get(Object value, int depth) {
+      Map<Object, Integer> depthHashes = hashes.get(depth);
+      return depthHashes == null ? null : depthHashes.get(value);
+    }
+
+    void put(Object value, int depth, int hash) {
+      Map<Object, Integer> depthHashes = hashes.get(depth);
+      if (depthHashes == null) {
+        depthHashes = new IdentityHashMap<>();
+        hashes.set(depth, depthHashes);
+      }
+      depthHashes.put(value, hash);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import static org.unitils.reflectionassert.util.HibernateUtil.getEntitiyName;
+import static org.unitils.reflectionassert.util.HibernateUtil.getUnproxiedValue;
+
+import org.unitils.reflectionassert.AggregateBoundary;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+
+/**
+ * Comparator for entities that stops the traversal at the boundary of the compared aggregates,
+ * see {@link AggregateBoundary}. The root entities of the aggregates (and the aggregate members)
+ * are compared by the {@link ObjectComparator}, the entities they reference only by their type
+ * and identifier.
+ * <p/>
+ * This comparator is meant to be placed before the {@link HibernateProxyComparator} in the chain,
+ * so that proxies beyond the boundary are not loaded.
+ */
+public class AggregateBoundaryComparator implements Comparator {
+
+  /* The comparator for the entities of the aggregates */
+  private static final Comparator OBJECT_COMPARATOR = new ObjectComparator();
+
+  private final AggregateBoundary aggregateBoundary;
+
+
+  /**
+   * Creates a comparator for the given boundary.
+   *
+   * @param aggregateBoundary The boundary, not null
+   */
+  public AggregateBoundaryComparator(AggregateBoundary aggregateBoundary) {
+    this.aggregateBoundary = aggregateBoundary;
+  }
+
+
+  /**
+   * Returns true if both objects are entities.
+   *
+   * @param left The left object
+   * @param right The right object
+   * @return True for entities
+   */
+  @Override
+  public boolean canCompare(Object left, Object right) {
+    return left != null && right != null
+        && aggregateBoundary.isEntity(left) && aggregateBoundary.isEntity(right);
+  }
+
+
+  /**
+   * Compares the given entities, field by field if they are part of the compared aggregate and
+   * by type and identifier otherwise.
+   *
+   * @param left The left entity, not null
+   * @param right The right entity, not null
+   * @param onlyFirstDifference True if only the first difference should be returned
+   * @param reflectionComparator The root comparator for inner comparisons, not null
+   * @return A difference or null if both entities are equal
+   */
+  @Override
+  public Difference compare(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    if (!reflectionComparator.isInsideAggregate() || aggregateBoundary.isAggregateMember(left)) {
+      return compareAggregate(left, right, onlyFirstDifference, reflectionComparator);
+    }
+    Object leftIdentifier = aggregateBoundary.getIdentifier(left);
+    Object rightIdentifier = aggregateBoundary.getIdentifier(right);
+    if (leftIdentifier == null && rightIdentifier == null) {
+      // not saved yet, so the fields are all there is to compare
+      return compareAggregate(left, right, onlyFirstDifference, reflectionComparator);
+    }
+
+    String leftType = getEntitiyName(left);
+    String rightType = getEntitiyName(right);
+    if (!leftType.equals(rightType)) {
+      return new ObjectDifference(
+          "Different entity types. Left: " + leftType + ", right: " + rightType,
+          left,
+          right
+      );
+    }
+    Difference identifierDifference = reflectionComparator
+        .getDifference(leftIdentifier, rightIdentifier, onlyFirstDifference);
+    if (identifierDifference == null) {
+      return null;
+    }
+    ObjectDifference difference = new ObjectDifference("Different entity identifiers", left, right);
+    difference.addFieldDifference("<entity id>", identifierDifference);
+    return difference;
+  }
+
+  private Difference compareAggregate(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    boolean wasInsideAggregate = reflectionComparator.isInsideAggregate();
+    reflectionComparator.setInsideAggregate(true);
+    try {
+      return OBJECT_COMPARATOR.compare(
+          getUnproxiedValue(left),
+          getUnproxiedValue(right),
+          onlyFirstDifference,
+          reflectionComparator
+      );
+    } finally {
+      reflectionComparator.setInsideAggregate(wasInsideAggregate);
+    }
+  }
+}
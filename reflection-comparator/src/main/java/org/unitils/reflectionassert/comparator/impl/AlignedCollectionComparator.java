@@ -0,0 +1,294 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import static org.unitils.reflectionassert.comparator.impl.CollectionConverter.convertToList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.difference.AlignedCollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+
+/**
+ * Comparator for collections and arrays that takes the order into account, but first aligns both
+ * sequences, so that an inserted or removed element is reported as such instead of as a
+ * difference for every element that follows it. This implements the ALIGNED_ORDER comparison
+ * mode.
+ * <p/>
+ * After skipping the common prefix and suffix, the shortest edit script is searched with the
+ * O(ND) algorithm of Myers, where D is the nr of inserted and deleted elements, using the
+ * first-difference comparison of the root comparator for the equality of elements. Deleted and
+ * inserted elements between the same equal elements are paired and compared as changed elements.
+ * <p/>
+ * If the edit distance exceeds {@link #MAX_EDIT_DISTANCE}, the elements are compared by index like
+ * the {@link CollectionComparator} does.
+ */
+public class AlignedCollectionComparator implements Comparator {
+
+  /**
+   * The maximum nr of inserted and deleted elements that are searched for
+   */
+  public static final int MAX_EDIT_DISTANCE = 1000;
+
+  /* The operations of an edit script */
+  private static final byte KEEP = 0;
+  private static final byte DELETE = 1;
+  private static final byte INSERT = 2;
+
+  /* Used when the edit distance is too large */
+  private final CollectionComparator collectionComparator = new CollectionComparator();
+
+
+  /**
+   * Returns true when both objects are arrays or collections.
+   *
+   * @param left The left object
+   * @param right The right object
+   * @return True in case of arrays/collections
+   */
+  @Override
+  public boolean canCompare(Object left, Object right) {
+    return collectionComparator.canCompare(left, right);
+  }
+
+
+  /**
+   * Compares the given collections/arrays after aligning them.
+   *
+   * @param left The left collection/array, not null
+   * @param right The right collection/array, not null
+   * @param onlyFirstDifference True if only the first difference should be returned
+   * @param reflectionComparator The root comparator for inner comparisons, not null
+   * @return An AlignedCollectionDifference or null if both collections are equal
+   */
+  @Override
+  public Difference compare(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    if (onlyFirstDifference) {
+      // both are only equal if all elements are equal by index, no need to align
+      return collectionComparator.compare(left, right, true, reflectionComparator);
+    }
+
+    List<?> leftList = convertToList(left);
+    List<?> rightList = convertToList(right);
+    int leftSize = leftList.size();
+    int rightSize = rightList.size();
+
+    int prefixLength = getCommonPrefixLength(
+        left,
+        right,
+        leftList,
+        rightList,
+        reflectionComparator
+    );
+    if (prefixLength == leftSize && prefixLength == rightSize) {
+      return null;
+    }
+    int suffixLength = getCommonSuffixLength(
+        leftList,
+        rightList,
+        prefixLength,
+        reflectionComparator
+    );
+
+    List<?> leftMiddle = leftList.subList(prefixLength, leftSize - suffixLength);
+    List<?> rightMiddle = rightList.subList(prefixLength, rightSize - suffixLength);
+    byte[] editScript = getEditScript(leftMiddle, rightMiddle, reflectionComparator);
+    if (editScript == null) {
+      return collectionComparator.compare(left, right, false, reflectionComparator);
+    }
+
+    AlignedCollectionDifference difference = new AlignedCollectionDifference(
+        "Different elements",
+        left,
+        right,
+        leftList,
+        rightList
+    );
+    fillDifference(editScript, prefixLength, leftList, rightList, reflectionComparator, difference);
+    return difference;
+  }
+
+  private int getCommonPrefixLength(
+      Object left,
+      Object right,
+      List<?> leftList,
+      List<?> rightList,
+      ReflectionComparator reflectionComparator
+  ) {
+    int length = Math.min(leftList.size(), rightList.size());
+    if (left.getClass() == right.getClass() && left.getClass().isArray()
+        && left.getClass().getComponentType().isPrimitive()) {
+      int mismatchIndex = PrimitiveArrayComparator.mismatch(left, right);
+      return mismatchIndex < 0 ? length : mismatchIndex;
+    }
+    int i = 0;
+    while (i < length && reflectionComparator.isEqual(leftList.get(i), rightList.get(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private int getCommonSuffixLength(
+      List<?> leftList,
+      List<?> rightList,
+      int prefixLength,
+      ReflectionComparator reflectionComparator
+  ) {
+    int leftSize = leftList.size();
+    int rightSize = rightList.size();
+    int maxLength = Math.min(leftSize, rightSize) - prefixLength;
+    int i = 0;
+    while (i < maxLength && reflectionComparator
+        .isEqual(leftList.get(leftSize - i - 1), rightList.get(rightSize - i - 1))) {
+      i++;
+    }
+    return i;
+  }
+
+
+  /**
+   * Finds the shortest edit script using the greedy algorithm of Myers. For every edit distance d,
+   * the furthest reaching x on every diagonal k = x - y is kept, a copy of these is saved to be
+   * able to walk back the path.
+   *
+   * @return The operations in order, null if the edit distance exceeds the maximum
+   */
+  private byte[] getEditScript(
+      List<?> leftList,
+      List<?> rightList,
+      ReflectionComparator reflectionComparator
+  ) {
+    int n = leftList.size();
+    int m = rightList.size();
+    int maxDistance = Math.min(n + m, MAX_EDIT_DISTANCE);
+    int offset = maxDistance + 1;
+    int[] v = new int[2 * maxDistance + 3];
+    List<int[]> trace = new ArrayList<>();
+
+    for (int d = 0; d <= maxDistance; d++) {
+      // only the diagonals -d - 1 .. d + 1 are read for this d
+      trace.add(Arrays.copyOfRange(v, offset - d - 1, offset + d + 2));
+      for (int k = -d; k <= d; k += 2) {
+        int x;
+        if (k == -d || k != d && v[offset + k - 1] < v[offset + k + 1]) {
+          x = v[offset + k + 1];
+        } else {
+          x = v[offset + k - 1] + 1;
+        }
+        int y = x - k;
+        while (x < n && y < m && reflectionComparator.isEqual(leftList.get(x), rightList.get(y))) {
+          x++;
+          y++;
+        }
+        v[offset + k] = x;
+        if (x >= n && y >= m) {
+          return backtrack(trace, n, m);
+        }
+      }
+    }
+    return null;
+  }
+
+  private byte[] backtrack(List<int[]> trace, int n, int m) {
+    int d = trace.size() - 1;
+    // every kept element is on both sides, the others on one side
+    byte[] editScript = new byte[(n + m + d) / 2];
+    int position = editScript.length;
+    int x = n;
+    int y = m;
+    for (; d > 0; d--) {
+      int[] v = trace.get(d);
+      int traceOffset = d + 1;
+      int k = x - y;
+      int previousK = k == -d || k != d && v[traceOffset + k - 1] < v[traceOffset + k + 1]
+          ? k + 1
+          : k - 1;
+      int previousX = v[traceOffset + previousK];
+      int previousY = previousX - previousK;
+      while (x > previousX && y > previousY) {
+        editScript[--position] = KEEP;
+        x--;
+        y--;
+      }
+      editScript[--position] = previousK == k + 1 ? INSERT : DELETE;
+      x = previousX;
+      y = previousY;
+    }
+    while (position > 0) {
+      editScript[--position] = KEEP;
+    }
+    return editScript;
+  }
+
+  /**
+   * Walks the edit script. Between two kept elements, the deleted and inserted elements are paired
+   * and compared, the remaining ones are reported as missing.
+   */
+  private void fillDifference(
+      byte[] editScript,
+      int prefixLength,
+      List<?> leftList,
+      List<?> rightList,
+      ReflectionComparator reflectionComparator,
+      AlignedCollectionDifference difference
+  ) {
+    int leftIndex = prefixLength;
+    int rightIndex = prefixLength;
+    int i = 0;
+    while (i < editScript.length) {
+      if (editScript[i] == KEEP) {
+        leftIndex++;
+        rightIndex++;
+        i++;
+        continue;
+      }
+      int deleted = 0;
+      int inserted = 0;
+      for (; i < editScript.length && editScript[i] != KEEP; i++) {
+        if (editScript[i] == DELETE) {
+          deleted++;
+        } else {
+          inserted++;
+        }
+      }
+      int changed = Math.min(deleted, inserted);
+      for (int j = 0; j < changed; j++) {
+        Difference elementDifference = reflectionComparator
+            .getDifference(leftList.get(leftIndex + j), rightList.get(rightIndex + j), false);
+        if (elementDifference != null) {
+          difference.addElementDifference(leftIndex + j, rightIndex + j, elementDifference);
+        }
+      }
+      for (int j = changed; j < deleted; j++) {
+        difference.addLeftMissingIndex(leftIndex + j);
+      }
+      for (int j = changed; j < inserted; j++) {
+        difference.addRightMissingIndex(rightIndex + j);
+      }
+      leftIndex += deleted;
+      rightIndex += inserted;
+    }
+  }
+}
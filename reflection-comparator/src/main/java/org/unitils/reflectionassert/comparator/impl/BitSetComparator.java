@@ -0,0 +1,153 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Iterator;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.SetDifference;
+
+/**
+ * Comparator for BitSets and for EnumSets of the same enum type.
+ * <p/>
+ * Equal sets are detected by their own equals, which compares the underlying words of both sets
+ * at once. Only when the sets differ, the differing bit indexes or enum constants are collected in
+ * a {@link SetDifference}, without looking at the other elements.
+ * <p/>
+ * The elements of an EnumSet are enum constants, that are compared by identity in any mode, so
+ * the result is the same as for the (lenient order) collection comparator.
+ */
+public class BitSetComparator implements Comparator {
+
+  /**
+   * Returns true when both objects are BitSets or both are EnumSets of the same enum type.
+   *
+   * @param left The left object
+   * @param right The right object
+   * @return True for BitSets and EnumSets
+   */
+  @Override
+  public boolean canCompare(Object left, Object right) {
+    if (left instanceof BitSet && right instanceof BitSet) {
+      return true;
+    }
+    if (left instanceof EnumSet && right instanceof EnumSet) {
+      return isSameEnumType((EnumSet<?>) left, (EnumSet<?>) right);
+    }
+    return false;
+  }
+
+  /**
+   * The enum type of an EnumSet is not accessible, so it is taken from the first elements. An
+   * empty set can be compared with any other set.
+   */
+  private static boolean isSameEnumType(EnumSet<?> left, EnumSet<?> right) {
+    if (left.isEmpty() || right.isEmpty()) {
+      return true;
+    }
+    return left.iterator().next().getDeclaringClass()
+        == right.iterator().next().getDeclaringClass();
+  }
+
+
+  /**
+   * Compares the given sets.
+   *
+   * @param left The left set, not null
+   * @param right The right set, not null
+   * @param onlyFirstDifference True if only the first difference should be returned
+   * @param reflectionComparator The root comparator for inner comparisons, not null
+   * @return A SetDifference or null if both sets are equal
+   */
+  @Override
+  public Difference compare(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    if (left.equals(right)) {
+      return null;
+    }
+    SetDifference difference = new SetDifference("Different elements", left, right);
+    if (left instanceof BitSet) {
+      fillDifference((BitSet) left, (BitSet) right, onlyFirstDifference, difference);
+    } else {
+      fillDifference((EnumSet<?>) left, (EnumSet<?>) right, onlyFirstDifference, difference);
+    }
+    return difference;
+  }
+
+  private void fillDifference(
+      BitSet left,
+      BitSet right,
+      boolean onlyFirstDifference,
+      SetDifference difference
+  ) {
+    BitSet differentBits = (BitSet) left.clone();
+    differentBits.xor(right);
+    for (int i = differentBits.nextSetBit(0); i >= 0; i = differentBits.nextSetBit(i + 1)) {
+      if (left.get(i)) {
+        difference.addLeftMissingElement(i);
+      } else {
+        difference.addRightMissingElement(i);
+      }
+      if (onlyFirstDifference) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Walks both sets in ordinal order at the same time.
+   */
+  private void fillDifference(
+      EnumSet<?> left,
+      EnumSet<?> right,
+      boolean onlyFirstDifference,
+      SetDifference difference
+  ) {
+    Iterator<? extends Enum<?>> leftIterator = left.iterator();
+    Iterator<? extends Enum<?>> rightIterator = right.iterator();
+    Enum<?> leftElement = next(leftIterator);
+    Enum<?> rightElement = next(rightIterator);
+    while (leftElement != null || rightElement != null) {
+      if (leftElement == rightElement) {
+        leftElement = next(leftIterator);
+        rightElement = next(rightIterator);
+        continue;
+      }
+      if (rightElement == null
+          || leftElement != null && leftElement.ordinal() < rightElement.ordinal()) {
+        difference.addLeftMissingElement(leftElement);
+        leftElement = next(leftIterator);
+      } else {
+        difference.addRightMissingElement(rightElement);
+        rightElement = next(rightIterator);
+      }
+      if (onlyFirstDifference) {
+        return;
+      }
+    }
+  }
+
+  private static <T> T next(Iterator<T> iterator) {
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+}
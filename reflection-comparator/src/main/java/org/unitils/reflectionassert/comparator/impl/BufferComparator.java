@@ -0,0 +1,295 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.difference.BufferDifference;
+import org.unitils.reflectionassert.difference.Difference;
+
+/**
+ * Comparator for NIO buffers. The remaining elements (between position and limit) of both buffers
+ * are compared, the internal state of the buffers (capacity, mark, backing array offsets, native
+ * addresses...) is ignored. This way heap, direct and memory-mapped buffers with the same content
+ * are equal.
+ * <p/>
+ * The buffers are read with absolute gets, so their positions are not changed and their content
+ * is never copied. Byte buffers with the same byte order are compared 8 bytes at a time.
+ * <p/>
+ * Floating point values are compared by their bits, like {@link Double#equals(Object)} does.
+ */
+public class BufferComparator implements Comparator {
+
+  /**
+   * The nr of elements of the windows that are kept around the first mismatch
+   */
+  private static final int WINDOW_SIZE = 16;
+
+
+  /**
+   * Returns true when both objects are buffers with the same element type.
+   *
+   * @param left The left object
+   * @param right The right object
+   * @return True for buffers
+   */
+  @Override
+  public boolean canCompare(Object left, Object right) {
+    if (!(left instanceof Buffer) || !(right instanceof Buffer)) {
+      return false;
+    }
+    Class<?> bufferType = getBufferType(left);
+    return bufferType != null && bufferType.isInstance(right);
+  }
+
+  private static Class<?> getBufferType(Object buffer) {
+    if (buffer instanceof ByteBuffer) {
+      return ByteBuffer.class;
+    }
+    if (buffer instanceof CharBuffer) {
+      return CharBuffer.class;
+    }
+    if (buffer instanceof ShortBuffer) {
+      return ShortBuffer.class;
+    }
+    if (buffer instanceof IntBuffer) {
+      return IntBuffer.class;
+    }
+    if (buffer instanceof LongBuffer) {
+      return LongBuffer.class;
+    }
+    if (buffer instanceof FloatBuffer) {
+      return FloatBuffer.class;
+    }
+    if (buffer instanceof DoubleBuffer) {
+      return DoubleBuffer.class;
+    }
+    return null;
+  }
+
+
+  /**
+   * Compares the remaining elements of the given buffers.
+   *
+   * @param left The left buffer, not null
+   * @param right The right buffer, not null
+   * @param onlyFirstDifference True if only the first difference should be returned
+   * @param reflectionComparator The root comparator for inner comparisons, not null
+   * @return A BufferDifference or null if both buffers have the same content
+   */
+  @Override
+  public Difference compare(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    Buffer leftBuffer = (Buffer) left;
+    Buffer rightBuffer = (Buffer) right;
+    int leftRemaining = leftBuffer.remaining();
+    int rightRemaining = rightBuffer.remaining();
+    int length = Math.min(leftRemaining, rightRemaining);
+
+    int mismatchIndex = mismatch(leftBuffer, rightBuffer, length);
+    if (mismatchIndex < 0) {
+      if (leftRemaining == rightRemaining) {
+        return null;
+      }
+      mismatchIndex = length;
+    }
+
+    int windowStart = Math.max(0, mismatchIndex - WINDOW_SIZE / 2);
+    String message = leftRemaining == rightRemaining
+        ? "Different buffer contents at index " + mismatchIndex
+        : "Different buffer sizes. Left: " + leftRemaining + ", right: " + rightRemaining;
+    return new BufferDifference(
+        message,
+        left,
+        right,
+        mismatchIndex,
+        windowStart,
+        getWindow(leftBuffer, windowStart, Math.min(leftRemaining, windowStart + WINDOW_SIZE)),
+        getWindow(rightBuffer, windowStart, Math.min(rightRemaining, windowStart + WINDOW_SIZE))
+    );
+  }
+
+
+  /**
+   * Finds the index of the first differing element of both buffers.
+   *
+   * @param left The left buffer, not null
+   * @param right The right buffer of the same type, not null
+   * @param length The nr of elements to compare
+   * @return The index relative to the buffer positions, -1 if the first length elements are equal
+   */
+  private static int mismatch(Buffer left, Buffer right, int length) {
+    int l = left.position();
+    int r = right.position();
+    if (left instanceof ByteBuffer) {
+      return mismatch((ByteBuffer) left, (ByteBuffer) right, length);
+    }
+    if (left instanceof CharBuffer) {
+      CharBuffer lb = (CharBuffer) left;
+      CharBuffer rb = (CharBuffer) right;
+      for (int i = 0; i < length; i++) {
+        if (lb.get(l + i) != rb.get(r + i)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    if (left instanceof ShortBuffer) {
+      ShortBuffer lb = (ShortBuffer) left;
+      ShortBuffer rb = (ShortBuffer) right;
+      for (int i = 0; i < length; i++) {
+        if (lb.get(l + i) != rb.get(r + i)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    if (left instanceof IntBuffer) {
+      IntBuffer lb = (IntBuffer) left;
+      IntBuffer rb = (IntBuffer) right;
+      for (int i = 0; i < length; i++) {
+        if (lb.get(l + i) != rb.get(r + i)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    if (left instanceof LongBuffer) {
+      LongBuffer lb = (LongBuffer) left;
+      LongBuffer rb = (LongBuffer) right;
+      for (int i = 0; i < length; i++) {
+        if (lb.get(l + i) != rb.get(r + i)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    if (left instanceof FloatBuffer) {
+      FloatBuffer lb = (FloatBuffer) left;
+      FloatBuffer rb = (FloatBuffer) right;
+      for (int i = 0; i < length; i++) {
+        if (Float.floatToIntBits(lb.get(l + i)) != Float.floatToIntBits(rb.get(r + i))) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    DoubleBuffer lb = (DoubleBuffer) left;
+    DoubleBuffer rb = (DoubleBuffer) right;
+    for (int i = 0; i < length; i++) {
+      if (Double.doubleToLongBits(lb.get(l + i)) != Double.doubleToLongBits(rb.get(r + i))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the index of the first differing byte. If both buffers have the same byte order, the
+   * bytes are compared per long first.
+   */
+  private static int mismatch(ByteBuffer left, ByteBuffer right, int length) {
+    int l = left.position();
+    int r = right.position();
+    int i = 0;
+    if (left.order() == right.order()) {
+      for (; i + Long.BYTES <= length; i += Long.BYTES) {
+        if (left.getLong(l + i) != right.getLong(r + i)) {
+          break;
+        }
+      }
+    }
+    for (; i < length; i++) {
+      if (left.get(l + i) != right.get(r + i)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+
+  /**
+   * Copies the remaining elements with the given indexes into a new array.
+   *
+   * @param buffer The buffer, not null
+   * @param from The first index, relative to the buffer position
+   * @param to The last index (exclusive), relative to the buffer position
+   * @return The elements as an array of the buffer element type, not null
+   */
+  private static Object getWindow(Buffer buffer, int from, int to) {
+    int offset = buffer.position() + from;
+    int size = Math.max(0, to - from);
+    if (buffer instanceof ByteBuffer) {
+      byte[] window = new byte[size];
+      for (int i = 0; i < size; i++) {
+        window[i] = ((ByteBuffer) buffer).get(offset + i);
+      }
+      return window;
+    }
+    if (buffer instanceof CharBuffer) {
+      char[] window = new char[size];
+      for (int i = 0; i < size; i++) {
+        window[i] = ((CharBuffer) buffer).get(offset + i);
+      }
+      return window;
+    }
+    if (buffer instanceof ShortBuffer) {
+      short[] window = new short[size];
+      for (int i = 0; i < size; i++) {
+        window[i] = ((ShortBuffer) buffer).get(offset + i);
+      }
+      return window;
+    }
+    if (buffer instanceof IntBuffer) {
+      int[] window = new int[size];
+      for (int i = 0; i < size; i++) {
+        window[i] = ((IntBuffer) buffer).get(offset + i);
+      }
+      return window;
+    }
+    if (buffer instanceof LongBuffer) {
+      long[] window = new long[size];
+      for (int i = 0; i < size; i++) {
+        window[i] = ((LongBuffer) buffer).get(offset + i);
+      }
+      return window;
+    }
+    if (buffer instanceof FloatBuffer) {
+      float[] window = new float[size];
+      for (int i = 0; i < size; i++) {
+        window[i] = ((FloatBuffer) buffer).get(offset + i);
+      }
+      return window;
+    }
+    double[] window = new double[size];
+    for (int i = 0; i < size; i++) {
+      window[i] = ((DoubleBuffer) buffer).get(offset + i);
+    }
+    return window;
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.StringDifference;
+
+/**
+ * Comparison of the characters of Strings and other character sequences.
+ * <p/>
+ * Differences between long values are reported as a {@link StringDifference}, so that reports
+ * only need to show the characters around the change.
+ */
+final class CharSequenceComparison {
+
+  /* Values up to this length are reported as a plain Difference */
+  private static final int MAX_PLAIN_LENGTH = 100;
+
+  /* The nr of equal characters to show before and after the change */
+  private static final int CONTEXT_LENGTH = 20;
+
+  /* The maximum nr of characters of a window */
+  private static final int MAX_WINDOW_LENGTH = 80;
+
+  private CharSequenceComparison() {
+  }
+
+  /**
+   * Checks whether both values contain the same characters.
+   *
+   * @param left The left value, not null
+   * @param right The right value, not null
+   * @return True if equal
+   */
+  static boolean isEqual(CharSequence left, CharSequence right) {
+    if (left instanceof String && right instanceof String) {
+      return left.equals(right);
+    }
+    int length = left.length();
+    return length == right.length() && mismatch(left, right, length) == length;
+  }
+
+  /**
+   * Creates the difference for two values that are known to have different characters.
+   *
+   * @param message a message describing the difference
+   * @param left The left value, not null
+   * @param right The right value, not null
+   * @return A StringDifference for long values, a plain Difference otherwise
+   */
+  static Difference createDifference(String message, CharSequence left, CharSequence right) {
+    int leftLength = left.length();
+    int rightLength = right.length();
+    if (leftLength <= MAX_PLAIN_LENGTH && rightLength <= MAX_PLAIN_LENGTH) {
+      return new Difference(message, left, right);
+    }
+
+    int mismatchIndex = mismatch(left, right, Math.min(leftLength, rightLength));
+    int maxSuffixLength = Math.min(leftLength, rightLength) - mismatchIndex;
+    int commonSuffixLength = 0;
+    while (commonSuffixLength < maxSuffixLength
+        && left.charAt(leftLength - commonSuffixLength - 1)
+        == right.charAt(rightLength - commonSuffixLength - 1)) {
+      commonSuffixLength++;
+    }
+
+    int windowStart = Math.max(0, mismatchIndex - CONTEXT_LENGTH);
+    return new StringDifference(
+        message,
+        left,
+        right,
+        mismatchIndex,
+        commonSuffixLength,
+        windowStart,
+        getWindow(left, windowStart, commonSuffixLength),
+        getWindow(right, windowStart, commonSuffixLength)
+    );
+  }
+
+  /**
+   * Finds the index of the first differing character in the first characters of both values.
+   *
+   * @return The index, the given length if the characters are equal
+   */
+  private static int mismatch(CharSequence left, CharSequence right, int length) {
+    int i = 0;
+    while (i < length && left.charAt(i) == right.charAt(i)) {
+      i++;
+    }
+    return i;
+  }
+
+  private static String getWindow(CharSequence value, int windowStart, int commonSuffixLength) {
+    int length = value.length();
+    int windowEnd = Math.min(length - commonSuffixLength + CONTEXT_LENGTH, length);
+    windowEnd = Math.min(windowEnd, windowStart + MAX_WINDOW_LENGTH);
+    return value.subSequence(windowStart, windowEnd).toString();
+  }
+}
@@ -19,22 +19,45 @@ import static org.unitils.reflectionassert.comparator.impl.CollectionConverter.c
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
+import java.util.stream.IntStream;
 import org.unitils.reflectionassert.ReflectionComparator;
 import org.unitils.reflectionassert.comparator.Comparator;
 import org.unitils.reflectionassert.difference.CollectionDifference;
 import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.util.LeafTypes;
 
 /**
  * Comparator for collections and arrays. All elements are compared in the same order, i.e. element
  * 1 of the left collection with element 1 of the right collection and so on.
+ * <p/>
+ * If the collections start with leaf values of the same type, e.g. two lists of longs, elements of
+ * that type are first compared using equals, and only the ones that differ are passed to the root
+ * comparator.
+ * <p/>
+ * For large collections of leaf values, this equals scan is first done in parallel in chunks of
+ * {@link #CHUNK_SIZE} elements. The root comparator is not thread-safe, so only the chunks that
+ * contain a difference are then compared one by one. If the comparison has a budget or can be
+ * cancelled, the chunks are scanned in the calling thread instead, and the elements that are
+ * compared using equals are counted against the budget once per chunk.
+ * <p/>
+ * Large collections of objects of a single class that are compared field by field are first
+ * compared column by column, see {@link ColumnarComparison}.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
  */
 public class CollectionComparator implements Comparator {
 
+  /**
+   * Collections of leaf values with at least this nr of elements are scanned in parallel
+   */
+  public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  /**
+   * The nr of elements per chunk of a parallel scan
+   */
+  public static final int CHUNK_SIZE = 1 << 12;
 
   /**
    * Returns true when both objects are arrays or collections.
@@ -76,7 +99,6 @@ public class CollectionComparator implements Comparator {
     List<Object> leftList = new ArrayList<>(convertToCollection(left));
     List<Object> rightList = new ArrayList<>(convertToCollection(right));
 
-    int elementIndex = -1;
     CollectionDifference difference = new CollectionDifference(
         "Different elements",
         left,
@@ -85,13 +107,45 @@ public class CollectionComparator implements Comparator {
         rightList
     );
 
-    Iterator<?> leftIterator = leftList.iterator();
-    Iterator<?> rightIterator = rightList.iterator();
-    while (leftIterator.hasNext() && rightIterator.hasNext()) {
-      elementIndex++;
-
+    Class<?> leafType = getLeafType(leftList, rightList);
+    int length = Math.min(leftList.size(), rightList.size());
+    boolean[] equalChunks = leafType == null ? null
+        : getEqualChunks(leftList, rightList, leafType, reflectionComparator);
+    boolean[] equalRows = leafType != null ? null
+        : ColumnarComparison.getEqualRows(leftList, rightList, length, reflectionComparator);
+    // the equal leaf elements that were not reported to the root comparator yet
+    int uncountedLeafCount = 0;
+    for (int elementIndex = 0; elementIndex < length; elementIndex++) {
+      if (equalChunks != null && equalChunks[elementIndex / CHUNK_SIZE]) {
+        // skip to the last element of the chunk
+        elementIndex |= CHUNK_SIZE - 1;
+        continue;
+      }
+      if (equalRows != null && equalRows[elementIndex]) {
+        continue;
+      }
+      Object leftElement = leftList.get(elementIndex);
+      Object rightElement = rightList.get(elementIndex);
+      if (leafType != null && isEqualLeaf(leftElement, rightElement, leafType)) {
+        if (++uncountedLeafCount == CHUNK_SIZE) {
+          uncountedLeafCount = 0;
+          if (!reflectionComparator.addComparedValues(CHUNK_SIZE)) {
+            break;
+          }
+        }
+        continue;
+      }
+      if (!onlyFirstDifference && reflectionComparator.isLazy()) {
+        if (!reflectionComparator.isEqual(leftElement, rightElement)) {
+          difference.addLazyElementDifference(
+              elementIndex,
+              reflectionComparator.getLazyDifferenceSupplier(leftElement, rightElement)
+          );
+        }
+        continue;
+      }
       Difference elementDifference = reflectionComparator
-          .getDifference(leftIterator.next(), rightIterator.next(), onlyFirstDifference);
+          .getDifference(leftElement, rightElement, onlyFirstDifference);
       if (elementDifference != null) {
         difference.addElementDifference(elementIndex, elementDifference);
         if (onlyFirstDifference) {
@@ -100,20 +154,20 @@ public class CollectionComparator implements Comparator {
       }
     }
 
+    if (uncountedLeafCount > 0) {
+      reflectionComparator.addComparedValues(uncountedLeafCount);
+    }
+
     // check for missing elements
-    int leftElementIndex = elementIndex;
-    while (leftIterator.hasNext()) {
-      leftIterator.next();
-      difference.addLeftMissingIndex(++leftElementIndex);
+    for (int index = length; index < leftList.size(); index++) {
+      difference.addLeftMissingIndex(index);
     }
-    int rightElementIndex = elementIndex;
-    while (rightIterator.hasNext()) {
-      rightIterator.next();
-      difference.addRightMissingIndex(++rightElementIndex);
+    for (int index = length; index < rightList.size(); index++) {
+      difference.addRightMissingIndex(index);
     }
 
     if (
-        difference.getElementDifferences().isEmpty()
+        !difference.hasElementDifferences()
             && difference.getLeftMissingIndexes().isEmpty()
             && difference.getRightMissingIndexes().isEmpty()
     ) {
@@ -123,4 +177,83 @@ public class CollectionComparator implements Comparator {
     return difference;
   }
 
+  /**
+   * Determines the type of the elements if both collections start with leaf values of the same
+   * type. The other elements are checked one by one while comparing.
+   *
+   * @return The leaf type, null if the collections don't seem to hold leaf values
+   */
+  private Class<?> getLeafType(List<Object> leftList, List<Object> rightList) {
+    if (leftList.isEmpty() || rightList.isEmpty()) {
+      return null;
+    }
+    Object leftElement = leftList.get(0);
+    Object rightElement = rightList.get(0);
+    if (!LeafTypes.isLeafValue(leftElement) || rightElement == null
+        || leftElement.getClass() != rightElement.getClass()) {
+      return null;
+    }
+    return leftElement.getClass();
+  }
+
+  /**
+   * Scans large collections of leaf values chunk by chunk, in parallel unless the comparison is
+   * limited, see {@link ReflectionComparator#isLimited()}. A limited scan reports every scanned
+   * chunk to the root comparator and stops when the budget is exhausted, the remaining chunks are
+   * then left to the element by element comparison.
+   *
+   * @return For every chunk, whether all its elements are equal leaf values, null if the
+   * collections are too small to scan in chunks
+   */
+  private boolean[] getEqualChunks(
+      List<Object> leftList,
+      List<Object> rightList,
+      Class<?> leafType,
+      ReflectionComparator reflectionComparator
+  ) {
+    int length = Math.min(leftList.size(), rightList.size());
+    if (length < PARALLEL_THRESHOLD) {
+      return null;
+    }
+    boolean[] equalChunks = new boolean[(length + CHUNK_SIZE - 1) / CHUNK_SIZE];
+    if (!reflectionComparator.isLimited()) {
+      IntStream.range(0, equalChunks.length).parallel().forEach(chunk ->
+          equalChunks[chunk] = isEqualChunk(leftList, rightList, leafType, chunk, length)
+      );
+      return equalChunks;
+    }
+    for (int chunk = 0; chunk < equalChunks.length; chunk++) {
+      equalChunks[chunk] = isEqualChunk(leftList, rightList, leafType, chunk, length);
+      if (equalChunks[chunk] && !reflectionComparator.addComparedValues(CHUNK_SIZE)) {
+        break;
+      }
+    }
+    return equalChunks;
+  }
+
+  private boolean isEqualChunk(
+      List<Object> leftList,
+      List<Object> rightList,
+      Class<?> leafType,
+      int chunk,
+      int length
+  ) {
+    int end = Math.min(length, (chunk + 1) * CHUNK_SIZE);
+    for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+      if (!isEqualLeaf(leftList.get(i), rightList.get(i), leafType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Leaf values of the same type that are equal are equal in every comparison mode, so they
+   * don't need to go through the comparator chain.
+   */
+  private boolean isEqualLeaf(Object left, Object right, Class<?> leafType) {
+    return left != null && right != null
+        && left.getClass() == leafType && right.getClass() == leafType
+        && left.equals(right);
+  }
 }
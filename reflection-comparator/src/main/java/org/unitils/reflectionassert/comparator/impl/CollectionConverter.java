@@ -17,7 +17,12 @@ package org.unitils.reflectionassert.comparator.impl;
 
 import static java.util.Arrays.asList;
 
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
 
 @SuppressWarnings("MethodCanBeVariableArityMethod")
 final class CollectionConverter {
@@ -52,6 +57,39 @@ final class CollectionConverter {
     return asList(objectArray);
   }
 
+  /**
+   * Converts the given array or collection object (possibly primitive array) to a random access
+   * list. Random access lists are returned as is and arrays as a list view, other collections are
+   * copied.
+   *
+   * @param object The array or collection, not null
+   * @return The list, not null
+   */
+  static List<?> convertToList(Object object) {
+    if (object instanceof List && object instanceof RandomAccess) {
+      return (List<?>) object;
+    }
+    if (object.getClass().isArray()) {
+      return convertToListView(object);
+    }
+    return new ArrayList<>(convertToCollection(object));
+  }
+
+  /**
+   * Creates a read-only list view of the given array (possibly primitive array). Unlike
+   * {@link #convertToCollection(Object)}, the elements of a primitive array are not copied, they
+   * are only boxed when they are accessed.
+   *
+   * @param array The array, not null
+   * @return The list view, not null
+   */
+  static List<?> convertToListView(Object array) {
+    if (array instanceof Object[]) {
+      return asList((Object[]) array);
+    }
+    return new PrimitiveArrayListView(array);
+  }
+
   /**
    * Converts the given array object (possibly primitive array) to type Object[]
    *
@@ -205,4 +243,24 @@ final class CollectionConverter {
     }
     return result;
   }
+
+  private static final class PrimitiveArrayListView extends AbstractList<Object>
+      implements RandomAccess {
+
+    private final Object array;
+
+    PrimitiveArrayListView(Object array) {
+      this.array = array;
+    }
+
+    @Override
+    public Object get(int index) {
+      return Array.get(array, index);
+    }
+
+    @Override
+    public int size() {
+      return Array.getLength(array);
+    }
+  }
 }
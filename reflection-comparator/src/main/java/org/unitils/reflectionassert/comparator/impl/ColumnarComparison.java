@@ -0,0 +1,227 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import static org.unitils.reflectionassert.util.ComparedFields.getComparedFields;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import org.unitils.core.UnitilsException;
+import org.unitils.reflectionassert.FieldFilter;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.util.LeafTypes;
+
+/**
+ * Column by column comparison of large lists of objects of the same class that are compared by the
+ * {@link ObjectComparator}.
+ * <p/>
+ * The fields of the class are split in three kinds of columns: primitive fields are projected in a
+ * <code>long[]</code> per side (floating point values by their bits) and compared in a tight loop,
+ * fields of a leaf type are compared using equals, and the other fields are compared by the root
+ * comparator, only for the rows of which all other columns are equal.
+ * <p/>
+ * Fields that are excluded by the field filter are skipped, like the ObjectComparator does.
+ * Values that are equal this way are equal in every comparison mode. Rows that are not found
+ * equal are left to the normal comparison, which will report their differences.
+ * <p/>
+ * Whether the rows are compared by the ObjectComparator is resolved once per list, for the class
+ * of the rows: all elements of a list share the field scope of the list, so the path and
+ * declaring type modes are the same for every row, and the comparators of the chain select
+ * non-null objects by their class. Rows of another class are left to the normal comparison.
+ * <p/>
+ * The values of the primitive and leaf columns are counted against the budget of the comparison
+ * once per column, see {@link ReflectionComparator#addComparedValues(long)}, which also stops a
+ * cancelled comparison. If the budget is exhausted, no row is considered equal.
+ */
+final class ColumnarComparison {
+
+  /**
+   * Lists with at least this nr of elements are compared column by column
+   */
+  static final int COLUMNAR_THRESHOLD = 1024;
+
+  /* The columns per class, in the same order as the ObjectComparator compares them */
+  private static final ClassValue<Columns> COLUMNS = new ClassValue<Columns>() {
+    @Override
+    protected Columns computeValue(Class<?> type) {
+      return new Columns(type);
+    }
+  };
+
+  private ColumnarComparison() {
+  }
+
+  /**
+   * Finds the rows of both lists that contain equal objects, if the lists contain objects that are
+   * compared field by field.
+   *
+   * @param leftList The left list, not null
+   * @param rightList The right list, not null
+   * @param length The nr of rows to compare, at most the size of both lists
+   * @param reflectionComparator The root comparator, not null
+   * @return For every row, whether it is equal, null if the lists can't be compared by column
+   */
+  static boolean[] getEqualRows(
+      List<?> leftList,
+      List<?> rightList,
+      int length,
+      ReflectionComparator reflectionComparator
+  ) {
+    if (length < COLUMNAR_THRESHOLD) {
+      return null;
+    }
+    Object left = leftList.get(0);
+    Object right = rightList.get(0);
+    if (left == null || right == null || left.getClass() != right.getClass()
+        || LeafTypes.isLeafValue(left)
+        || !(reflectionComparator.getComparator(left, right) instanceof ObjectComparator)) {
+      return null;
+    }
+    // the comparator is selected by the class of the rows, see the class comment
+    Class<?> type = left.getClass();
+    Columns columns = COLUMNS.get(type);
+
+    boolean[] equalRows = new boolean[length];
+    for (int row = 0; row < length; row++) {
+      Object leftRow = leftList.get(row);
+      Object rightRow = rightList.get(row);
+      equalRows[row] = leftRow != null && rightRow != null
+          && leftRow.getClass() == type && rightRow.getClass() == type;
+    }
+    FieldFilter.Scope scope = reflectionComparator.getFieldScope();
+    for (Field field : columns.primitiveFields) {
+      if (isExcluded(field, scope)) {
+        continue;
+      }
+      if (!reflectionComparator.addComparedValues(length)) {
+        return null;
+      }
+      long[] leftColumn = getPrimitiveColumn(field, leftList, equalRows);
+      long[] rightColumn = getPrimitiveColumn(field, rightList, equalRows);
+      for (int row = 0; row < length; row++) {
+        equalRows[row] &= leftColumn[row] == rightColumn[row];
+      }
+    }
+    for (Field field : columns.leafFields) {
+      if (isExcluded(field, scope)) {
+        continue;
+      }
+      if (!reflectionComparator.addComparedValues(length)) {
+        return null;
+      }
+      Object[] leftColumn = getColumn(field, leftList, equalRows);
+      Object[] rightColumn = getColumn(field, rightList, equalRows);
+      for (int row = 0; row < length; row++) {
+        equalRows[row] &= isEqualLeaf(leftColumn[row], rightColumn[row]);
+      }
+    }
+    for (Field field : columns.referenceFields) {
+      if (isExcluded(field, scope)) {
+        continue;
+      }
+      reflectionComparator.setFieldScope(scope == null ? null : scope.getFieldScope(field));
+      try {
+        for (int row = 0; row < length; row++) {
+          equalRows[row] = equalRows[row] && reflectionComparator.isEqual(
+              getValue(field, leftList.get(row)),
+              getValue(field, rightList.get(row))
+          );
+        }
+      } finally {
+        reflectionComparator.setFieldScope(scope);
+      }
+    }
+    return equalRows;
+  }
+
+  private static boolean isExcluded(Field field, FieldFilter.Scope scope) {
+    return scope != null && scope.getFieldScope(field) == null;
+  }
+
+  private static long[] getPrimitiveColumn(Field field, List<?> list, boolean[] rows) {
+    Class<?> fieldType = field.getType();
+    long[] column = new long[rows.length];
+    try {
+      for (int row = 0; row < rows.length; row++) {
+        if (!rows[row]) {
+          continue;
+        }
+        Object object = list.get(row);
+        if (fieldType == double.class) {
+          column[row] = Double.doubleToLongBits(field.getDouble(object));
+        } else if (fieldType == float.class) {
+          column[row] = Float.floatToIntBits(field.getFloat(object));
+        } else if (fieldType == boolean.class) {
+          column[row] = field.getBoolean(object) ? 1 : 0;
+        } else {
+          column[row] = field.getLong(object);
+        }
+      }
+    } catch (IllegalAccessException e) {
+      throw new UnitilsException("Unable to get value of field " + field, e);
+    }
+    return column;
+  }
+
+  private static Object[] getColumn(Field field, List<?> list, boolean[] rows) {
+    Object[] column = new Object[rows.length];
+    for (int row = 0; row < rows.length; row++) {
+      if (rows[row]) {
+        column[row] = getValue(field, list.get(row));
+      }
+    }
+    return column;
+  }
+
+  private static Object getValue(Field field, Object object) {
+    try {
+      return field.get(object);
+    } catch (IllegalAccessException e) {
+      throw new UnitilsException("Unable to get value of field " + field, e);
+    }
+  }
+
+  private static boolean isEqualLeaf(Object left, Object right) {
+    if (left == null || right == null) {
+      return left == right;
+    }
+    return left.getClass() == right.getClass() && left.equals(right);
+  }
+
+
+  /**
+   * The fields of a class that are compared by the ObjectComparator, per kind of column.
+   */
+  private static final class Columns {
+
+    private final List<Field> primitiveFields = new ArrayList<>();
+    private final List<Field> leafFields = new ArrayList<>();
+    private final List<Field> referenceFields = new ArrayList<>();
+
+    private Columns(Class<?> type) {
+      for (Field field : getComparedFields(type)) {
+        if (field.getType().isPrimitive()) {
+          primitiveFields.add(field);
+        } else if (LeafTypes.isLeafType(field.getType())) {
+          leafFields.add(field);
+        } else {
+          referenceFields.add(field);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.MapDifference;
+
+/**
+ * Comparator for EnumMaps with the same enum key type.
+ * <p/>
+ * The keys of an EnumMap are always iterated in ordinal order, so both maps are walked at the same
+ * time and every key is looked at once, instead of searching the matching key in the other map
+ * like the {@link MapComparator} does. The values are compared by the root comparator and the
+ * result is the same MapDifference as the one of the {@link MapComparator}.
+ */
+public class EnumMapComparator implements Comparator {
+
+  /**
+   * Returns true when both objects are EnumMaps with the same enum key type.
+   *
+   * @param left The left object
+   * @param right The right object
+   * @return True for EnumMaps
+   */
+  @Override
+  public boolean canCompare(Object left, Object right) {
+    if (!(left instanceof EnumMap) || !(right instanceof EnumMap)) {
+      return false;
+    }
+    return isSameEnumType((EnumMap<?, ?>) left, (EnumMap<?, ?>) right);
+  }
+
+  /**
+   * The key type of an EnumMap is not accessible, so it is taken from the first keys. An empty map
+   * can be compared with any other map.
+   */
+  private static boolean isSameEnumType(EnumMap<?, ?> left, EnumMap<?, ?> right) {
+    if (left.isEmpty() || right.isEmpty()) {
+      return true;
+    }
+    return left.keySet().iterator().next().getDeclaringClass()
+        == right.keySet().iterator().next().getDeclaringClass();
+  }
+
+
+  /**
+   * Compares the given maps by walking their keys in ordinal order.
+   *
+   * @param left The left map, not null
+   * @param right The right map, not null
+   * @param onlyFirstDifference True if only the first difference should be returned
+   * @param reflectionComparator The root comparator for inner comparisons, not null
+   * @return A MapDifference or null if both maps are equal
+   */
+  @Override
+  public Difference compare(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    EnumMap<?, ?> leftMap = (EnumMap<?, ?>) left;
+    EnumMap<?, ?> rightMap = (EnumMap<?, ?>) right;
+    MapDifference difference = new MapDifference(
+        "Different elements",
+        left,
+        right,
+        leftMap,
+        rightMap
+    );
+
+    Iterator<? extends Map.Entry<?, ?>> leftIterator = leftMap.entrySet().iterator();
+    Iterator<? extends Map.Entry<?, ?>> rightIterator = rightMap.entrySet().iterator();
+    Map.Entry<?, ?> leftEntry = next(leftIterator);
+    Map.Entry<?, ?> rightEntry = next(rightIterator);
+    while (leftEntry != null || rightEntry != null) {
+      int order = compareKeys(leftEntry, rightEntry);
+      if (order < 0) {
+        difference.addLeftMissingKey(leftEntry.getKey());
+        leftEntry = next(leftIterator);
+      } else if (order > 0) {
+        difference.addRightMissingKey(rightEntry.getKey());
+        rightEntry = next(rightIterator);
+      } else {
+        Object key = leftEntry.getKey();
+        Difference elementDifference = reflectionComparator
+            .getDifference(leftEntry.getValue(), rightEntry.getValue(), onlyFirstDifference);
+        leftEntry = next(leftIterator);
+        rightEntry = next(rightIterator);
+        if (elementDifference == null) {
+          continue;
+        }
+        difference.addValueDifference(key, elementDifference);
+      }
+      if (onlyFirstDifference) {
+        return difference;
+      }
+    }
+
+    if (difference.getValueDifferences().isEmpty() && difference.getLeftMissingKeys().isEmpty()
+        && difference.getRightMissingKeys().isEmpty()) {
+      return null;
+    }
+    return difference;
+  }
+
+  /**
+   * Orders the entries by the ordinal of their key, a missing entry comes last.
+   */
+  private static int compareKeys(Map.Entry<?, ?> left, Map.Entry<?, ?> right) {
+    if (right == null) {
+      return -1;
+    }
+    if (left == null) {
+      return 1;
+    }
+    return Integer.compare(
+        ((Enum<?>) left.getKey()).ordinal(),
+        ((Enum<?>) right.getKey()).ordinal()
+    );
+  }
+
+  private static <T> T next(Iterator<T> iterator) {
+    return iterator.hasNext() ? iterator.next() : null;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import org.unitils.reflectionassert.FloatingPointTolerance;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.difference.Difference;
+
+/**
+ * A comparator that compares numbers using a {@link FloatingPointTolerance} if at least one of
+ * them is a Float or a Double. Primitive float and double fields are boxed by the reflection, so
+ * they are compared by this comparator too.
+ * <p/>
+ * Float and double arrays are compared by the {@link PrimitiveArrayComparator} using the same
+ * tolerance.
+ */
+public class FloatingPointToleranceComparator implements Comparator {
+
+  private final FloatingPointTolerance tolerance;
+
+  /**
+   * Creates a comparator for the given tolerance.
+   *
+   * @param tolerance The tolerance, not null
+   */
+  public FloatingPointToleranceComparator(FloatingPointTolerance tolerance) {
+    this.tolerance = tolerance;
+  }
+
+
+  /**
+   * Returns true if both objects are numbers and at least one of them is a Float or a Double.
+   *
+   * @param left The left object
+   * @param right The right object
+   * @return True for floating point numbers
+   */
+  @Override
+  public boolean canCompare(Object left, Object right) {
+    if (!(left instanceof Number) || !(right instanceof Number)) {
+      return false;
+    }
+    return isFloatingPoint(left) || isFloatingPoint(right);
+  }
+
+  private boolean isFloatingPoint(Object o) {
+    return o instanceof Double || o instanceof Float;
+  }
+
+
+  /**
+   * Compares the given numbers using the tolerance.
+   *
+   * @param left The left number, not null
+   * @param right The right number, not null
+   * @param onlyFirstDifference True if only the first difference should be returned
+   * @param reflectionComparator The root comparator for inner comparisons, not null
+   * @return A difference if the values are not equal within the tolerance, null otherwise
+   */
+  @Override
+  public Difference compare(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    boolean isEqual = left instanceof Float && right instanceof Float
+        ? tolerance.isWithin((Float) left, (Float) right)
+        : tolerance.isWithin(((Number) left).doubleValue(), ((Number) right).doubleValue());
+    if (isEqual) {
+      return null;
+    }
+    return new Difference(
+        "Different primitive values, tolerance: %s",
+        new Object[]{tolerance},
+        left,
+        right
+    );
+  }
+}
@@ -51,7 +51,7 @@ public class IgnoreDefaultsComparator implements Comparator {
       return true;
     }
     // primitive int/long/double/float types
-    if (left instanceof Number && ((Number) left).doubleValue() == 0) {
+    if (left instanceof Number && NumberComparison.isZero(left)) {
       return true;
     }
     return false;
@@ -46,11 +46,11 @@ public class LenientNumberComparator implements Comparator {
   }
 
   private boolean isSupported(Object o) {
-    return o instanceof Character || o instanceof Number;
+    return NumberComparison.isSupported(o);
   }
 
   /**
-   * Compares the two values by converting them to a double and comparing these double values.
+   * Compares the two values by their exact numeric value, see {@link NumberComparison}.
    *
    * @param left The left Number or Character, not null
    * @param right The right Number or Character, not null
@@ -66,31 +66,9 @@ public class LenientNumberComparator implements Comparator {
       ReflectionComparator reflectionComparator
   ) {
     // check if right and left have same number value (including NaN and Infinity)
-    final String differenceMessage = "Different primitive values";
-    if (left instanceof Long && right instanceof Long) {
-      if (!left.equals(right)) {
-        return new Difference(differenceMessage, left, right);
-      }
-    }
-    Double leftDouble = getDoubleValue(left);
-    Double rightDouble = getDoubleValue(right);
-    if (!leftDouble.equals(rightDouble)) {
-      return new Difference(differenceMessage, left, right);
+    if (!NumberComparison.isEqual(left, right)) {
+      return new Difference("Different primitive values", left, right);
     }
     return null;
   }
-
-
-  /**
-   * Gets the double value for the given left Character or Number instance.
-   *
-   * @param object the Character or Number, not null
-   * @return the value as a Double (this way NaN and infinity can be compared)
-   */
-  private Double getDoubleValue(Object object) {
-    if (object instanceof Number) {
-      return ((Number) object).doubleValue();
-    }
-    return (double) (Character) object;
-  }
 }
@@ -15,12 +15,17 @@
  */
 package org.unitils.reflectionassert.comparator.impl;
 
+import static java.util.Collections.emptyMap;
 import static org.unitils.reflectionassert.comparator.impl.CollectionConverter.convertToCollection;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import org.unitils.reflectionassert.ReflectionComparator;
 import org.unitils.reflectionassert.comparator.Comparator;
 import org.unitils.reflectionassert.difference.Difference;
@@ -32,12 +37,37 @@ import org.unitils.reflectionassert.util.MatchingScoreCalculator;
  * A comparator for collections and arrays that ignores the order of both collections. Both
  * collections are found equal if they both contain the same elements (in any order). This
  * implements the LENIENT_ORDER comparison mode.
+ * <p/>
+ * If a key extractor is given for the type of all elements, the elements are matched by their
+ * key in a single pass instead, so each element is compared with its counterpart only.
  *
  * @author Tim Ducheyne
  * @author Filip Neven
  */
 public class LenientOrderCollectionComparator implements Comparator {
 
+  /* The key extractors per element type */
+  private final Map<Class<?>, Function<Object, ?>> keyExtractors;
+
+
+  /**
+   * Creates a comparator that matches elements by trying every combination.
+   */
+  public LenientOrderCollectionComparator() {
+    this(emptyMap());
+  }
+
+
+  /**
+   * Creates a comparator that matches elements by key if there is a key extractor for their type.
+   *
+   * @param keyExtractors The key extractors per element type, not null
+   */
+  public LenientOrderCollectionComparator(Map<Class<?>, Function<Object, ?>> keyExtractors) {
+    this.keyExtractors = keyExtractors;
+  }
+
+
   /**
    * Returns true if both objects are not null and are both Arrays or Collections.
    *
@@ -80,6 +110,19 @@ public class LenientOrderCollectionComparator implements Comparator {
     ArrayList<Object> leftList = new ArrayList<>(convertToCollection(left));
     ArrayList<Object> rightList = new ArrayList<>(convertToCollection(right));
 
+    Function<Object, ?> keyExtractor = getKeyExtractor(leftList, rightList);
+    if (keyExtractor != null) {
+      return compareByKey(
+          left,
+          right,
+          leftList,
+          rightList,
+          keyExtractor,
+          onlyFirstDifference,
+          reflectionComparator
+      );
+    }
+
     // check whether a combination exists
     boolean isEqual = isEqual(leftList, rightList, 0, reflectionComparator);
     if (isEqual) {
@@ -104,6 +147,111 @@ public class LenientOrderCollectionComparator implements Comparator {
   }
 
 
+  /**
+   * Gets the key extractor for the elements of both lists.
+   *
+   * @param leftList The left list, not null
+   * @param rightList The right list, not null
+   * @return The extractor of the first type of which all elements are instances, null if there is
+   * no such type or if a list contains null
+   */
+  private Function<Object, ?> getKeyExtractor(List<Object> leftList, List<Object> rightList) {
+    if (keyExtractors.isEmpty() || leftList.isEmpty() && rightList.isEmpty()) {
+      return null;
+    }
+    for (Map.Entry<Class<?>, Function<Object, ?>> entry : keyExtractors.entrySet()) {
+      if (isInstances(entry.getKey(), leftList) && isInstances(entry.getKey(), rightList)) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+  private boolean isInstances(Class<?> type, List<Object> list) {
+    for (Object element : list) {
+      if (!type.isInstance(element)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * Compares the elements with the same key. Elements with the same key are paired in the order
+   * in which they appear. Left elements without a counterpart are set as best matching with right
+   * index -1, right elements without a counterpart are added as right missing indexes.
+   *
+   * @param left The left array/collection, not null
+   * @param right The right array/collection, not null
+   * @param leftList The left list, not null
+   * @param rightList The right list, not null
+   * @param keyExtractor The key extractor for all elements, not null
+   * @param onlyFirstDifference True if only the first difference should be returned
+   * @param reflectionComparator The root comparator for inner comparisons, not null
+   * @return An UnorderedCollectionDifference or null if both collections are equal
+   */
+  private Difference compareByKey(
+      Object left,
+      Object right,
+      ArrayList<Object> leftList,
+      ArrayList<Object> rightList,
+      Function<Object, ?> keyExtractor,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    Map<Object, ArrayDeque<Integer>> rightIndexesPerKey = new HashMap<>();
+    for (int rightIndex = 0; rightIndex < rightList.size(); rightIndex++) {
+      rightIndexesPerKey
+          .computeIfAbsent(keyExtractor.apply(rightList.get(rightIndex)), k -> new ArrayDeque<>())
+          .add(rightIndex);
+    }
+
+    UnorderedCollectionDifference difference = new UnorderedCollectionDifference(
+        "Collections/arrays are different",
+        left,
+        right,
+        leftList,
+        rightList
+    );
+    boolean isEqual = true;
+    for (int leftIndex = 0; leftIndex < leftList.size(); leftIndex++) {
+      Object leftValue = leftList.get(leftIndex);
+      ArrayDeque<Integer> rightIndexes = rightIndexesPerKey.get(keyExtractor.apply(leftValue));
+      Integer rightIndex = rightIndexes == null ? null : rightIndexes.poll();
+      if (rightIndex == null) {
+        difference.setBestMatchingIndexes(leftIndex, -1);
+        isEqual = false;
+      } else {
+        Difference elementDifference = reflectionComparator
+            .getDifference(leftValue, rightList.get(rightIndex), onlyFirstDifference);
+        if (elementDifference == null) {
+          continue;
+        }
+        difference.addElementDifference(leftIndex, rightIndex, elementDifference);
+        difference.setBestMatchingIndexes(leftIndex, rightIndex);
+        isEqual = false;
+      }
+      if (onlyFirstDifference) {
+        return difference;
+      }
+    }
+
+    List<Integer> rightMissingIndexes = new ArrayList<>();
+    for (ArrayDeque<Integer> rightIndexes : rightIndexesPerKey.values()) {
+      rightMissingIndexes.addAll(rightIndexes);
+    }
+    if (!rightMissingIndexes.isEmpty()) {
+      rightMissingIndexes.sort(null);
+      for (Integer rightIndex : rightMissingIndexes) {
+        difference.addRightMissingIndex(rightIndex);
+      }
+      isEqual = false;
+    }
+    return isEqual ? null : difference;
+  }
+
+
   /**
    * Recursively checks whether there is a sequence so that both collections have matching elements.
    * This will loop over the elements of the left list and then try to find a match for these
@@ -265,6 +413,7 @@ public class LenientOrderCollectionComparator implements Comparator {
         if (elementDifference == null) {
           rightIterator.remove();
           leftIterator.remove();
+          break;
         }
       }
     }
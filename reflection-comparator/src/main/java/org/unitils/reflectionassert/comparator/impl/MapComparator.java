@@ -100,6 +100,15 @@ public class MapComparator implements Comparator {
           rightIterator.remove();
 
           // compare values
+          if (!onlyFirstDifference && reflectionComparator.isLazy()) {
+            if (!reflectionComparator.isEqual(leftValue, rightValue)) {
+              difference.addLazyValueDifference(
+                  leftKey,
+                  reflectionComparator.getLazyDifferenceSupplier(leftValue, rightValue)
+              );
+            }
+            break;
+          }
           Difference elementDifference = reflectionComparator
               .getDifference(leftValue, rightValue, onlyFirstDifference);
           if (elementDifference != null) {
@@ -121,7 +130,7 @@ public class MapComparator implements Comparator {
       difference.addRightMissingKey(rightKey);
     }
 
-    if (difference.getValueDifferences().isEmpty() && difference.getLeftMissingKeys().isEmpty()
+    if (!difference.hasValueDifferences() && difference.getLeftMissingKeys().isEmpty()
         && difference.getRightMissingKeys().isEmpty()) {
       return null;
     }
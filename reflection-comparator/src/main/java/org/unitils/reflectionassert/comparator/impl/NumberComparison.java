@@ -0,0 +1,165 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact comparison of Number and Character values, independent of their type.
+ * <p/>
+ * Each pair of value kinds has its own path, none of them boxes the values:
+ * <ul>
+ * <li>integral vs integral (Byte, Short, Integer, Long, Character, atomics...): compared as
+ * long</li>
+ * <li>integral vs floating point: equal only if the floating point value is exactly the integral
+ * value, e.g. <code>2^53 + 1</code> differs from <code>2^53</code> as double</li>
+ * <li>floating point vs floating point: compared as double, like {@link Double#equals(Object)}
+ * does, so NaN values are equal and 0.0 differs from -0.0</li>
+ * <li>BigDecimal and BigInteger: compared by value using compareTo, so the scale of a BigDecimal
+ * is ignored. Floating point values are converted by their decimal representation, see
+ * {@link BigDecimal#valueOf(double)}, so <code>0.1</code> equals <code>new
+ * BigDecimal("0.1")</code></li>
+ * </ul>
+ */
+final class NumberComparison {
+
+  /* The smallest double that no longer fits in a long: 2^63 */
+  private static final double TWO_POW_63 = 0x1p63;
+
+  private NumberComparison() {
+  }
+
+  /**
+   * Checks whether the given value can be compared by this class.
+   *
+   * @param value The value
+   * @return True for Numbers and Characters
+   */
+  static boolean isSupported(Object value) {
+    return value instanceof Number || value instanceof Character;
+  }
+
+  /**
+   * Checks whether the given Numbers or Characters have the same value.
+   *
+   * @param left The left Number or Character, not null
+   * @param right The right Number or Character, not null
+   * @return True if both values are exactly equal
+   */
+  static boolean isEqual(Object left, Object right) {
+    if (isIntegral(left)) {
+      long leftLong = getLongValue(left);
+      if (isIntegral(right)) {
+        return leftLong == getLongValue(right);
+      }
+      return isEqual(leftLong, (Number) right);
+    }
+    if (isIntegral(right)) {
+      return isEqual(getLongValue(right), (Number) left);
+    }
+    if (isBig(left) || isBig(right)) {
+      BigDecimal leftDecimal = toBigDecimal((Number) left);
+      BigDecimal rightDecimal = toBigDecimal((Number) right);
+      return leftDecimal != null && rightDecimal != null
+          && leftDecimal.compareTo(rightDecimal) == 0;
+    }
+    return isEqual(((Number) left).doubleValue(), ((Number) right).doubleValue());
+  }
+
+  /**
+   * Checks whether the given Number or Character has a zero value.
+   *
+   * @param value The Number or Character, not null
+   * @return True for 0, 0.0 and -0.0 of any type
+   */
+  static boolean isZero(Object value) {
+    if (isIntegral(value)) {
+      return getLongValue(value) == 0;
+    }
+    if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).signum() == 0;
+    }
+    if (value instanceof BigInteger) {
+      return ((BigInteger) value).signum() == 0;
+    }
+    return ((Number) value).doubleValue() == 0;
+  }
+
+  private static boolean isEqual(long integral, Number other) {
+    if (other instanceof BigDecimal) {
+      return ((BigDecimal) other).compareTo(BigDecimal.valueOf(integral)) == 0;
+    }
+    if (other instanceof BigInteger) {
+      BigInteger bigInteger = (BigInteger) other;
+      return bigInteger.bitLength() < Long.SIZE && bigInteger.longValue() == integral;
+    }
+    double value = other.doubleValue();
+    if (!(value >= -TWO_POW_63 && value < TWO_POW_63)) {
+      // out of range or NaN
+      return false;
+    }
+    return (long) value == integral && isEqual((double) integral, value);
+  }
+
+  private static boolean isEqual(double left, double right) {
+    return Double.doubleToLongBits(left) == Double.doubleToLongBits(right);
+  }
+
+  private static boolean isIntegral(Object value) {
+    return value instanceof Integer
+        || value instanceof Long
+        || value instanceof Short
+        || value instanceof Byte
+        || value instanceof Character
+        || value instanceof AtomicInteger
+        || value instanceof AtomicLong
+        || value instanceof LongAdder
+        || value instanceof LongAccumulator;
+  }
+
+  private static long getLongValue(Object value) {
+    if (value instanceof Character) {
+      return (Character) value;
+    }
+    return ((Number) value).longValue();
+  }
+
+  private static boolean isBig(Object value) {
+    return value instanceof BigDecimal || value instanceof BigInteger;
+  }
+
+  /**
+   * @return The value as a BigDecimal, null for NaN and infinity
+   */
+  private static BigDecimal toBigDecimal(Number value) {
+    if (value instanceof BigDecimal) {
+      return (BigDecimal) value;
+    }
+    if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value);
+    }
+    double doubleValue = value.doubleValue();
+    if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+      return null;
+    }
+    return BigDecimal.valueOf(doubleValue);
+  }
+}
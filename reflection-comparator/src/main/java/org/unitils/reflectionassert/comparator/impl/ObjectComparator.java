@@ -15,11 +15,10 @@
  */
 package org.unitils.reflectionassert.comparator.impl;
 
-import static java.lang.reflect.Modifier.isStatic;
-import static java.lang.reflect.Modifier.isTransient;
+import static org.unitils.reflectionassert.util.ComparedFields.getComparedFields;
 
-import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
+import org.unitils.reflectionassert.FieldFilter;
 import org.unitils.reflectionassert.ReflectionComparator;
 import org.unitils.reflectionassert.comparator.Comparator;
 import org.unitils.reflectionassert.difference.ClassDifference;
@@ -51,7 +50,8 @@ public class ObjectComparator implements Comparator {
    * Compares the given objects by iterating over the fields and comparing the corresponding values.
    * If both objects are of a different type, a difference is returned. The fields of the
    * superclasses are also compared. Fields of java.lang classes are ignored. So for example fields
-   * of the Object class are not compared
+   * of the Object class are not compared. Neither are static, transient and synthetic fields and
+   * fields annotated with {@link org.unitils.reflectionassert.IgnoreInComparison}.
    *
    * @param left The left object, not null
    * @param right The right object, not null
@@ -70,7 +70,8 @@ public class ObjectComparator implements Comparator {
     Class<?> clazz = left.getClass();
     if (!clazz.isAssignableFrom(right.getClass())) {
       return new ClassDifference(
-          "Different classes. Left: " + clazz + ", right: " + right.getClass(),
+          "Different classes. Left: %s, right: %s",
+          new Object[]{clazz, right.getClass()},
           left,
           right,
           left.getClass(),
@@ -81,7 +82,7 @@ public class ObjectComparator implements Comparator {
     ObjectDifference difference = new ObjectDifference("Different field values", left, right);
     compareFields(left, right, clazz, difference, onlyFirstDifference, reflectionComparator);
 
-    if (difference.getFieldDifferences().isEmpty()) {
+    if (!difference.hasFieldDifferences()) {
       return null;
     }
     return difference;
@@ -89,7 +90,8 @@ public class ObjectComparator implements Comparator {
 
 
   /**
-   * Compares the values of all fields in the given objects by use of reflection.
+   * Compares the values of all fields in the given objects by use of reflection. Fields that are
+   * excluded by the field filter of the reflection comparator are not read.
    *
    * @param left the left object for the comparison, not null
    * @param right the right object for the comparison, not null
@@ -106,19 +108,28 @@ public class ObjectComparator implements Comparator {
       boolean onlyFirstDifference,
       ReflectionComparator reflectionComparator
   ) {
-    Field[] fields = clazz.getDeclaredFields();
-    AccessibleObject.setAccessible(fields, true);
-
-    for (Field field : fields) {
-      // skip transient and static fields
-      if (isTransient(field.getModifiers()) || isStatic(field.getModifiers()) || field
-          .isSynthetic()) {
+    FieldFilter.Scope scope = reflectionComparator.getFieldScope();
+    for (Field field : getComparedFields(clazz)) {
+      FieldFilter.Scope fieldScope = scope == null ? null : scope.getFieldScope(field);
+      if (scope != null && fieldScope == null) {
         continue;
       }
+      reflectionComparator.setFieldScope(fieldScope);
       try {
+        Object leftValue = field.get(left);
+        Object rightValue = field.get(right);
+        if (!onlyFirstDifference && reflectionComparator.isLazy()) {
+          if (!reflectionComparator.isEqual(leftValue, rightValue)) {
+            difference.addLazyFieldDifference(
+                field.getName(),
+                reflectionComparator.getLazyDifferenceSupplier(leftValue, rightValue)
+            );
+          }
+          continue;
+        }
         // recursively check the value of the fields
         Difference innerDifference = reflectionComparator
-            .getDifference(field.get(left), field.get(right), onlyFirstDifference);
+            .getDifference(leftValue, rightValue, onlyFirstDifference);
         if (innerDifference != null) {
           difference.addFieldDifference(field.getName(), innerDifference);
           if (onlyFirstDifference) {
@@ -129,16 +140,9 @@ public class ObjectComparator implements Comparator {
         // this can't happen. Would get a Security exception instead
         // throw a runtime exception in case the impossible happens.
         throw new InternalError("Unexpected IllegalAccessException");
+      } finally {
+        reflectionComparator.setFieldScope(scope);
       }
     }
-
-    // compare fields declared in superclass
-    Class<?> superclazz = clazz.getSuperclass();
-    while (superclazz != null && !superclazz.getName().startsWith("java.lang")) {
-      compareFields(left, right, superclazz, difference, onlyFirstDifference, reflectionComparator);
-      superclazz = superclazz.getSuperclass();
-    }
   }
-
-
 }
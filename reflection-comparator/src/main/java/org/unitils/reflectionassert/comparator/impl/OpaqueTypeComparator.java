@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import org.unitils.reflectionassert.OpaqueTypes;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.difference.Difference;
+
+/**
+ * Comparator for values of the {@link OpaqueTypes}: they are compared by identity or ignored, and
+ * never traversed.
+ * <p/>
+ * This comparator is meant to be placed before all comparators that traverse values, so that
+ * ignored values are not compared with null either.
+ */
+public class OpaqueTypeComparator implements Comparator {
+
+  private final OpaqueTypes opaqueTypes;
+
+
+  /**
+   * Creates a comparator for the given types.
+   *
+   * @param opaqueTypes The opaque types, not null
+   */
+  public OpaqueTypeComparator(OpaqueTypes opaqueTypes) {
+    this.opaqueTypes = opaqueTypes;
+  }
+
+
+  /**
+   * Returns true if at least one of the objects is of an opaque type.
+   *
+   * @param left The left object
+   * @param right The right object
+   * @return True for opaque values
+   */
+  @Override
+  public boolean canCompare(Object left, Object right) {
+    return left != null && opaqueTypes.isOpaque(left)
+        || right != null && opaqueTypes.isOpaque(right);
+  }
+
+
+  /**
+   * Compares the given objects by identity, unless one of them is of an ignored type.
+   *
+   * @param left The left object
+   * @param right The right object
+   * @param onlyFirstDifference True if only the first difference should be returned
+   * @param reflectionComparator The root comparator for inner comparisons, not null
+   * @return A difference or null if both objects are the same instance or ignored
+   */
+  @Override
+  public Difference compare(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    if (left == right
+        || left != null && opaqueTypes.isIgnored(left)
+        || right != null && opaqueTypes.isIgnored(right)) {
+      return null;
+    }
+    return new Difference("Different instances of an opaque type", left, right);
+  }
+}
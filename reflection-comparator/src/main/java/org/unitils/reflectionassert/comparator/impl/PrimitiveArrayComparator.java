@@ -0,0 +1,390 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import static org.unitils.reflectionassert.comparator.impl.CollectionConverter.convertToListView;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import org.unitils.reflectionassert.FloatingPointTolerance;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+
+/**
+ * Comparator for primitive arrays (e.g. <code>byte[]</code>, <code>double[]</code>) and
+ * multi-dimensional arrays of primitives (e.g. <code>int[][]</code>) of the same type.
+ * <p/>
+ * The arrays are first compared in bulk using {@link Arrays#equals}, which is intrinsified on
+ * modern JDKs, so equal arrays are never boxed. Only when the arrays differ, the elements starting
+ * from the first mismatch are boxed and compared by the root comparator, so the element
+ * differences are the same as the ones of the {@link CollectionComparator}.
+ * <p/>
+ * If a {@link FloatingPointTolerance} is given, float and double arrays are compared with that
+ * tolerance in a tight loop instead.
+ * <p/>
+ * This comparator is meant to be placed right before the {@link CollectionComparator} in the
+ * chain. Arrays of different types (e.g. <code>int[]</code> and <code>long[]</code>) are left to
+ * the collection comparator.
+ */
+public class PrimitiveArrayComparator implements Comparator {
+
+  /* The tolerance for float and double arrays, null for exact comparison */
+  private final FloatingPointTolerance tolerance;
+
+
+  /**
+   * Creates a comparator that compares all arrays exactly.
+   */
+  public PrimitiveArrayComparator() {
+    this(null);
+  }
+
+
+  /**
+   * Creates a comparator that compares float and double arrays with the given tolerance.
+   *
+   * @param tolerance The tolerance, null for exact comparison
+   */
+  public PrimitiveArrayComparator(FloatingPointTolerance tolerance) {
+    this.tolerance = tolerance;
+  }
+
+
+  /**
+   * Returns true when both objects are arrays of the same type with primitive leaf elements.
+   *
+   * @param left The left object
+   * @param right The right object
+   * @return True in case of primitive arrays of the same type
+   */
+  @Override
+  public boolean canCompare(Object left, Object right) {
+    if (left == null || right == null) {
+      return false;
+    }
+    Class<?> type = left.getClass();
+    return type == right.getClass() && isPrimitiveArrayType(type);
+  }
+
+  private static boolean isPrimitiveArrayType(Class<?> type) {
+    Class<?> componentType = type.getComponentType();
+    while (componentType != null && componentType.isArray()) {
+      componentType = componentType.getComponentType();
+    }
+    return componentType != null && componentType.isPrimitive();
+  }
+
+  /**
+   * Compares the given arrays.
+   *
+   * @param left The left array, not null
+   * @param right The right array, not null
+   * @param onlyFirstDifference True if only the first difference should be returned
+   * @param reflectionComparator The root comparator for inner comparisons, not null
+   * @return A CollectionDifference or null if both arrays are equal
+   */
+  @Override
+  public Difference compare(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    if (left instanceof Object[]) {
+      return compareNested(
+          (Object[]) left,
+          (Object[]) right,
+          onlyFirstDifference,
+          reflectionComparator
+      );
+    }
+
+    int mismatchIndex = mismatch(left, right);
+    if (mismatchIndex < 0) {
+      return null;
+    }
+
+    int leftLength = Array.getLength(left);
+    int rightLength = Array.getLength(right);
+    CollectionDifference difference = createDifference(left, right);
+    for (int index = mismatchIndex; index < leftLength && index < rightLength; index++) {
+      index = nextMismatch(left, right, index);
+      if (index >= leftLength || index >= rightLength) {
+        break;
+      }
+      Difference elementDifference = reflectionComparator.getDifference(
+          Array.get(left, index),
+          Array.get(right, index),
+          onlyFirstDifference
+      );
+      if (elementDifference != null) {
+        difference.addElementDifference(index, elementDifference);
+        if (onlyFirstDifference) {
+          return difference;
+        }
+      }
+    }
+    return addMissingIndexes(difference, leftLength, rightLength);
+  }
+
+  /**
+   * Compares arrays of primitive arrays row by row. Equal rows are detected in bulk, other rows
+   * are compared by the root comparator (that will delegate back to this comparator).
+   */
+  private Difference compareNested(
+      Object[] left,
+      Object[] right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    CollectionDifference difference = createDifference(left, right);
+    for (int index = 0; index < left.length && index < right.length; index++) {
+      Object leftRow = left[index];
+      Object rightRow = right[index];
+      if (leftRow == rightRow || isRowEqual(leftRow, rightRow)) {
+        continue;
+      }
+      Difference elementDifference = reflectionComparator
+          .getDifference(leftRow, rightRow, onlyFirstDifference);
+      if (elementDifference != null) {
+        difference.addElementDifference(index, elementDifference);
+        if (onlyFirstDifference) {
+          return difference;
+        }
+      }
+    }
+    return addMissingIndexes(difference, left.length, right.length);
+  }
+
+  private boolean isRowEqual(Object leftRow, Object rightRow) {
+    if (leftRow == null || rightRow == null || leftRow.getClass() != rightRow.getClass()) {
+      return false;
+    }
+    if (leftRow instanceof Object[]) {
+      return Arrays.deepEquals((Object[]) leftRow, (Object[]) rightRow);
+    }
+    return mismatch(leftRow, rightRow) < 0;
+  }
+
+  private CollectionDifference createDifference(Object left, Object right) {
+    return new CollectionDifference(
+        "Different elements",
+        left,
+        right,
+        convertToListView(left),
+        convertToListView(right)
+    );
+  }
+
+  private Difference addMissingIndexes(
+      CollectionDifference difference,
+      int leftLength,
+      int rightLength
+  ) {
+    for (int index = rightLength; index < leftLength; index++) {
+      difference.addLeftMissingIndex(index);
+    }
+    for (int index = leftLength; index < rightLength; index++) {
+      difference.addRightMissingIndex(index);
+    }
+
+    if (
+        difference.getElementDifferences().isEmpty()
+            && difference.getLeftMissingIndexes().isEmpty()
+            && difference.getRightMissingIndexes().isEmpty()
+    ) {
+      return null;
+    }
+    return difference;
+  }
+
+  /**
+   * Finds the index of the first element that differs in both one-dimensional primitive arrays of
+   * the same type. Floating point values are compared by their bits, like
+   * {@link Double#equals(Object)} does.
+   *
+   * @param left The left array, not null
+   * @param right The right array, not null
+   * @return The first differing index, the length of the shortest array if one is a prefix of the
+   * other, -1 if both arrays are equal
+   */
+  static int mismatch(Object left, Object right) {
+    if (left instanceof byte[]) {
+      byte[] l = (byte[]) left;
+      byte[] r = (byte[]) right;
+      if (Arrays.equals(l, r)) {
+        return -1;
+      }
+      int length = Math.min(l.length, r.length);
+      for (int i = 0; i < length; i++) {
+        if (l[i] != r[i]) {
+          return i;
+        }
+      }
+      return length;
+    }
+    if (left instanceof short[]) {
+      short[] l = (short[]) left;
+      short[] r = (short[]) right;
+      if (Arrays.equals(l, r)) {
+        return -1;
+      }
+      int length = Math.min(l.length, r.length);
+      for (int i = 0; i < length; i++) {
+        if (l[i] != r[i]) {
+          return i;
+        }
+      }
+      return length;
+    }
+    if (left instanceof int[]) {
+      int[] l = (int[]) left;
+      int[] r = (int[]) right;
+      if (Arrays.equals(l, r)) {
+        return -1;
+      }
+      int length = Math.min(l.length, r.length);
+      for (int i = 0; i < length; i++) {
+        if (l[i] != r[i]) {
+          return i;
+        }
+      }
+      return length;
+    }
+    if (left instanceof long[]) {
+      long[] l = (long[]) left;
+      long[] r = (long[]) right;
+      if (Arrays.equals(l, r)) {
+        return -1;
+      }
+      int length = Math.min(l.length, r.length);
+      for (int i = 0; i < length; i++) {
+        if (l[i] != r[i]) {
+          return i;
+        }
+      }
+      return length;
+    }
+    if (left instanceof char[]) {
+      char[] l = (char[]) left;
+      char[] r = (char[]) right;
+      if (Arrays.equals(l, r)) {
+        return -1;
+      }
+      int length = Math.min(l.length, r.length);
+      for (int i = 0; i < length; i++) {
+        if (l[i] != r[i]) {
+          return i;
+        }
+      }
+      return length;
+    }
+    if (left instanceof float[]) {
+      float[] l = (float[]) left;
+      float[] r = (float[]) right;
+      if (Arrays.equals(l, r)) {
+        return -1;
+      }
+      int length = Math.min(l.length, r.length);
+      for (int i = 0; i < length; i++) {
+        if (Float.floatToIntBits(l[i]) != Float.floatToIntBits(r[i])) {
+          return i;
+        }
+      }
+      return length;
+    }
+    if (left instanceof double[]) {
+      double[] l = (double[]) left;
+      double[] r = (double[]) right;
+      if (Arrays.equals(l, r)) {
+        return -1;
+      }
+      int length = Math.min(l.length, r.length);
+      for (int i = 0; i < length; i++) {
+        if (Double.doubleToLongBits(l[i]) != Double.doubleToLongBits(r[i])) {
+          return i;
+        }
+      }
+      return length;
+    }
+    boolean[] l = (boolean[]) left;
+    boolean[] r = (boolean[]) right;
+    if (Arrays.equals(l, r)) {
+      return -1;
+    }
+    int length = Math.min(l.length, r.length);
+    for (int i = 0; i < length; i++) {
+      if (l[i] != r[i]) {
+        return i;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Finds the first index, starting from the given index, at which the elements of both
+   * one-dimensional primitive arrays of the same type are not equal, without boxing them.
+   *
+   * @return The index, the length of the shortest array if there is no such index
+   */
+  private int nextMismatch(Object left, Object right, int from) {
+    if (tolerance != null && left instanceof double[]) {
+      return tolerance.mismatch((double[]) left, (double[]) right, from);
+    }
+    if (tolerance != null && left instanceof float[]) {
+      return tolerance.mismatch((float[]) left, (float[]) right, from);
+    }
+    int length = Math.min(Array.getLength(left), Array.getLength(right));
+    int index = from;
+    while (index < length && isElementEqual(left, right, index)) {
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * Checks whether the elements at the given index of both one-dimensional primitive arrays of the
+   * same type are equal, without boxing them.
+   */
+  private static boolean isElementEqual(Object left, Object right, int index) {
+    if (left instanceof byte[]) {
+      return ((byte[]) left)[index] == ((byte[]) right)[index];
+    }
+    if (left instanceof short[]) {
+      return ((short[]) left)[index] == ((short[]) right)[index];
+    }
+    if (left instanceof int[]) {
+      return ((int[]) left)[index] == ((int[]) right)[index];
+    }
+    if (left instanceof long[]) {
+      return ((long[]) left)[index] == ((long[]) right)[index];
+    }
+    if (left instanceof char[]) {
+      return ((char[]) left)[index] == ((char[]) right)[index];
+    }
+    if (left instanceof float[]) {
+      return Float.floatToIntBits(((float[]) left)[index])
+          == Float.floatToIntBits(((float[]) right)[index]);
+    }
+    if (left instanceof double[]) {
+      return Double.doubleToLongBits(((double[]) left)[index])
+          == Double.doubleToLongBits(((double[]) right)[index]);
+    }
+    return ((boolean[]) left)[index] == ((boolean[]) right)[index];
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import static org.unitils.reflectionassert.comparator.impl.CollectionConverter.convertToList;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.difference.AlignedCollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+
+/**
+ * A comparator for collections and arrays whose elements may be out of order by at most a given
+ * nr of positions: the element at index i of the left collection may match any element of the
+ * right collection at an index from i - window up to i + window.
+ * <p/>
+ * Every left element is matched with the first unmatched right element in its window, so a
+ * comparison takes at most O(n * window) element comparisons. Elements that are in place are
+ * matched with a single comparison.
+ * <p/>
+ * Elements that could not be matched are compared in the order in which they appear and reported
+ * with their left and right index. Elements that were moved further than the window are reported
+ * as missing on both sides.
+ */
+public class ReorderWindowCollectionComparator implements Comparator {
+
+  /* The maximum nr of positions an element may be moved */
+  private final int window;
+
+  /* Used to decide whether both objects are collections */
+  private final CollectionComparator collectionComparator = new CollectionComparator();
+
+
+  /**
+   * Creates a comparator for the given window.
+   *
+   * @param window The maximum nr of positions an element may be moved, not negative
+   */
+  public ReorderWindowCollectionComparator(int window) {
+    this.window = window;
+  }
+
+
+  /**
+   * Returns true when both objects are arrays or collections.
+   *
+   * @param left The left object
+   * @param right The right object
+   * @return True in case of arrays/collections
+   */
+  @Override
+  public boolean canCompare(Object left, Object right) {
+    return collectionComparator.canCompare(left, right);
+  }
+
+
+  /**
+   * Compares the given collections/arrays, allowing elements to be moved within the window.
+   *
+   * @param left The left collection/array, not null
+   * @param right The right collection/array, not null
+   * @param onlyFirstDifference True if only the first difference should be returned
+   * @param reflectionComparator The root comparator for inner comparisons, not null
+   * @return An AlignedCollectionDifference or null if both collections are equal
+   */
+  @Override
+  public Difference compare(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    List<?> leftList = convertToList(left);
+    List<?> rightList = convertToList(right);
+    int leftSize = leftList.size();
+    int rightSize = rightList.size();
+
+    boolean[] matched = new boolean[rightSize];
+    List<Integer> unmatchedLeftIndexes = new ArrayList<>();
+    // all right elements before this index are matched
+    int firstUnmatched = 0;
+    for (int leftIndex = 0; leftIndex < leftSize; leftIndex++) {
+      Object leftValue = leftList.get(leftIndex);
+      int end = Math.min(rightSize, leftIndex + window + 1);
+      int rightIndex = Math.max(firstUnmatched, leftIndex - window);
+      while (rightIndex < end && (matched[rightIndex]
+          || !reflectionComparator.isEqual(leftValue, rightList.get(rightIndex)))) {
+        rightIndex++;
+      }
+      if (rightIndex == end) {
+        if (onlyFirstDifference) {
+          AlignedCollectionDifference difference =
+              createDifference(left, right, leftList, rightList);
+          difference.addLeftMissingIndex(leftIndex);
+          return difference;
+        }
+        unmatchedLeftIndexes.add(leftIndex);
+        continue;
+      }
+      matched[rightIndex] = true;
+      while (firstUnmatched < rightSize && matched[firstUnmatched]) {
+        firstUnmatched++;
+      }
+    }
+
+    List<Integer> unmatchedRightIndexes = new ArrayList<>();
+    for (int rightIndex = firstUnmatched; rightIndex < rightSize; rightIndex++) {
+      if (!matched[rightIndex]) {
+        unmatchedRightIndexes.add(rightIndex);
+      }
+    }
+    if (unmatchedLeftIndexes.isEmpty() && unmatchedRightIndexes.isEmpty()) {
+      return null;
+    }
+    AlignedCollectionDifference difference = createDifference(left, right, leftList, rightList);
+    if (onlyFirstDifference) {
+      difference.addRightMissingIndex(unmatchedRightIndexes.get(0));
+      return difference;
+    }
+    fillDifference(
+        difference,
+        unmatchedLeftIndexes,
+        unmatchedRightIndexes,
+        reflectionComparator
+    );
+    return difference;
+  }
+
+  private AlignedCollectionDifference createDifference(
+      Object left,
+      Object right,
+      List<?> leftList,
+      List<?> rightList
+  ) {
+    return new AlignedCollectionDifference(
+        "Collections/arrays are different",
+        left,
+        right,
+        leftList,
+        rightList
+    );
+  }
+
+  /**
+   * Pairs the unmatched left and right elements in their order. Paired elements are compared, the
+   * remaining elements and paired elements that are equal but moved outside the window are
+   * reported as missing.
+   */
+  private void fillDifference(
+      AlignedCollectionDifference difference,
+      List<Integer> unmatchedLeftIndexes,
+      List<Integer> unmatchedRightIndexes,
+      ReflectionComparator reflectionComparator
+  ) {
+    List<?> leftList = difference.getLeftList();
+    List<?> rightList = difference.getRightList();
+    int pairs = Math.min(unmatchedLeftIndexes.size(), unmatchedRightIndexes.size());
+    for (int i = 0; i < pairs; i++) {
+      int leftIndex = unmatchedLeftIndexes.get(i);
+      int rightIndex = unmatchedRightIndexes.get(i);
+      Difference elementDifference = reflectionComparator
+          .getDifference(leftList.get(leftIndex), rightList.get(rightIndex), false);
+      if (elementDifference == null) {
+        // equal, but moved too far
+        difference.addLeftMissingIndex(leftIndex);
+        difference.addRightMissingIndex(rightIndex);
+      } else {
+        difference.addElementDifference(leftIndex, rightIndex, elementDifference);
+      }
+    }
+    for (int i = pairs; i < unmatchedLeftIndexes.size(); i++) {
+      difference.addLeftMissingIndex(unmatchedLeftIndexes.get(i));
+    }
+    for (int i = pairs; i < unmatchedRightIndexes.size(); i++) {
+      difference.addRightMissingIndex(unmatchedRightIndexes.get(i));
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import static org.unitils.reflectionassert.comparator.impl.CollectionConverter.convertToList;
+
+import java.util.List;
+import java.util.Map;
+import org.unitils.reflectionassert.CollectionSampling;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.difference.Difference;
+
+/**
+ * A comparator for collections, arrays and maps that only compares a sample of the elements, as
+ * described by a {@link CollectionSampling}. It wraps the comparator that does the full comparison
+ * (e.g. the {@link CollectionComparator} or the {@link MapComparator}).
+ * <p/>
+ * Collections and arrays are compared at the sampled indexes, maps at the sampled keys of the left
+ * map. The keys are looked up in the right map using their equals method. As soon as the sizes
+ * differ, a sampled element differs or a key is not found, the comparison is escalated to the
+ * wrapped comparator, so the reported differences are always complete.
+ */
+public class SamplingComparator implements Comparator {
+
+  private final CollectionSampling sampling;
+
+  /* The comparator for the full comparison */
+  private final Comparator comparator;
+
+
+  /**
+   * Creates a sampling comparator.
+   *
+   * @param sampling The sampling, not null
+   * @param comparator The comparator for the full comparison, not null
+   */
+  public SamplingComparator(CollectionSampling sampling, Comparator comparator) {
+    this.sampling = sampling;
+    this.comparator = comparator;
+  }
+
+
+  /**
+   * Returns true if the wrapped comparator can compare the given objects.
+   *
+   * @param left The left object
+   * @param right The right object
+   * @return True if the objects can be compared
+   */
+  @Override
+  public boolean canCompare(Object left, Object right) {
+    return comparator.canCompare(left, right);
+  }
+
+
+  /**
+   * Compares a sample of the elements of the given collections/arrays/maps, or all elements using
+   * the wrapped comparator if a difference was found.
+   *
+   * @param left The left collection/array/map, not null
+   * @param right The right collection/array/map, not null
+   * @param onlyFirstDifference True if only the first difference should be returned
+   * @param reflectionComparator The root comparator for inner comparisons, not null
+   * @return The difference of the wrapped comparator, null if the sample is equal
+   */
+  @Override
+  public Difference compare(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    boolean isSampleEqual = left instanceof Map
+        ? isSampleEqual((Map<?, ?>) left, (Map<?, ?>) right, reflectionComparator)
+        : isSampleEqual(convertToList(left), convertToList(right), reflectionComparator);
+    if (isSampleEqual) {
+      return null;
+    }
+    return comparator.compare(left, right, onlyFirstDifference, reflectionComparator);
+  }
+
+  /**
+   * @return True if the sampled elements are equal, false if a full comparison is needed
+   */
+  private boolean isSampleEqual(
+      List<?> left,
+      List<?> right,
+      ReflectionComparator reflectionComparator
+  ) {
+    if (left.size() != right.size()) {
+      return false;
+    }
+    int[] indexes = sampling.getSampleIndexes(left.size());
+    if (indexes == null) {
+      return false;
+    }
+    for (int index : indexes) {
+      if (!reflectionComparator.isEqual(left.get(index), right.get(index))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isSampleEqual(
+      Map<?, ?> left,
+      Map<?, ?> right,
+      ReflectionComparator reflectionComparator
+  ) {
+    if (left.size() != right.size()) {
+      return false;
+    }
+    int[] indexes = sampling.getSampleIndexes(left.size());
+    if (indexes == null) {
+      return false;
+    }
+    int index = 0;
+    int sampleIndex = 0;
+    for (Map.Entry<?, ?> leftEntry : left.entrySet()) {
+      if (sampleIndex == indexes.length) {
+        break;
+      }
+      if (index++ != indexes[sampleIndex]) {
+        continue;
+      }
+      sampleIndex++;
+      Object key = leftEntry.getKey();
+      if (!right.containsKey(key)
+          || !reflectionComparator.isEqual(leftEntry.getValue(), right.get(key))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -105,9 +105,7 @@ public class SimpleCasesComparator implements Comparator {
     // check if right and left have same number value (including NaN and Infinity)
     if ((left instanceof Character || left instanceof Number)
         && (right instanceof Character || right instanceof Number)) {
-      Double leftDouble = getDoubleValue(left);
-      Double rightDouble = getDoubleValue(right);
-      if (leftDouble.equals(rightDouble)) {
+      if (NumberComparison.isEqual(left, right)) {
         return null;
       }
       return new Difference("Different primitive values", left, right);
@@ -118,6 +116,10 @@ public class SimpleCasesComparator implements Comparator {
       if (left.equals(right)) {
         return null;
       }
+      if (left instanceof String && right instanceof String) {
+        return CharSequenceComparison
+            .createDifference("Different object values", (String) left, (String) right);
+      }
       return new Difference("Different object values", left, right);
     }
     // check if dates are equal
@@ -144,17 +146,4 @@ public class SimpleCasesComparator implements Comparator {
     return null;
   }
 
-
-  /**
-   * Gets the double value for the given left Character or Number instance.
-   *
-   * @param object the Character or Number, not null
-   * @return the value as a Double (this way NaN and infinity can be compared)
-   */
-  private Double getDoubleValue(Object object) {
-    if (object instanceof Number) {
-      return ((Number) object).doubleValue();
-    }
-    return (double) ((Character) object).charValue();
-  }
-}
\ No newline at end of file
+}
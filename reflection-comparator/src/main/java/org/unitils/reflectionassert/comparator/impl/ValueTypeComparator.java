@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.comparator.impl;
+
+import java.net.URI;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+
+/**
+ * Comparator for JDK types with value semantics that would otherwise be compared field by field
+ * by the {@link ObjectComparator}, or by identity by the {@link SimpleCasesComparator}:
+ * <ul>
+ * <li>immutable values (java.time, UUID, URI, Locale, Currency, OptionalInt...): compared using
+ * equals</li>
+ * <li>StringBuilder and StringBuffer: compared by their characters, see
+ * {@link CharSequenceComparison}</li>
+ * <li>AtomicBoolean: compared by its value</li>
+ * <li>Optional and AtomicReference: their values are compared by the root comparator, the
+ * difference is reported on the <code>value</code> field like the ObjectComparator does</li>
+ * </ul>
+ * Both values must be of the same class. The comparison of a class is looked up only once.
+ * <p/>
+ * Numbers, like BigDecimal and AtomicLong, are not handled here but by the number comparators.
+ */
+public class ValueTypeComparator implements Comparator {
+
+  /* The comparison used for all types that are not in the registry */
+  private static final ValueComparison NONE = (left, right, onlyFirst, comparator) -> null;
+
+  private static final ValueComparison EQUALS = (left, right, onlyFirst, comparator) ->
+      left.equals(right) ? null : new Difference("Different object values", left, right);
+
+  private static final ValueComparison CHARACTERS = (left, right, onlyFirst, comparator) ->
+      CharSequenceComparison.isEqual((CharSequence) left, (CharSequence) right)
+          ? null
+          : CharSequenceComparison.createDifference(
+              "Different object values",
+              (CharSequence) left,
+              (CharSequence) right
+          );
+
+  private static final ValueComparison ATOMIC_BOOLEAN = (left, right, onlyFirst, comparator) ->
+      ((AtomicBoolean) left).get() == ((AtomicBoolean) right).get()
+          ? null
+          : new Difference("Different object values", left, right);
+
+  private static final ValueComparison OPTIONAL = (left, right, onlyFirst, comparator) ->
+      compareValues(
+          left,
+          right,
+          ((Optional<?>) left).orElse(null),
+          ((Optional<?>) right).orElse(null),
+          onlyFirst,
+          comparator
+      );
+
+  private static final ValueComparison ATOMIC_REFERENCE = (left, right, onlyFirst, comparator) ->
+      compareValues(
+          left,
+          right,
+          ((AtomicReference<?>) left).get(),
+          ((AtomicReference<?>) right).get(),
+          onlyFirst,
+          comparator
+      );
+
+  private static final ClassValue<ValueComparison> REGISTRY = new ClassValue<ValueComparison>() {
+    @Override
+    protected ValueComparison computeValue(Class<?> type) {
+      return lookupComparison(type);
+    }
+  };
+
+
+  /**
+   * Returns true when both objects are of the same class and that class has value semantics.
+   *
+   * @param left The left object
+   * @param right The right object
+   * @return True for value types
+   */
+  @Override
+  public boolean canCompare(Object left, Object right) {
+    if (left == null || right == null) {
+      return false;
+    }
+    Class<?> type = left.getClass();
+    return type == right.getClass() && REGISTRY.get(type) != NONE;
+  }
+
+
+  /**
+   * Compares the given values using the comparison registered for their class.
+   *
+   * @param left The left value, not null
+   * @param right The right value, not null
+   * @param onlyFirstDifference True if only the first difference should be returned
+   * @param reflectionComparator The root comparator for inner comparisons, not null
+   * @return A Difference if both values are different, null otherwise
+   */
+  @Override
+  public Difference compare(
+      Object left,
+      Object right,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    return REGISTRY.get(left.getClass())
+        .compare(left, right, onlyFirstDifference, reflectionComparator);
+  }
+
+
+  private static ValueComparison lookupComparison(Class<?> type) {
+    if (type == StringBuilder.class || type == StringBuffer.class) {
+      return CHARACTERS;
+    }
+    if (type == Optional.class) {
+      return OPTIONAL;
+    }
+    if (type == AtomicReference.class) {
+      return ATOMIC_REFERENCE;
+    }
+    if (type == AtomicBoolean.class) {
+      return ATOMIC_BOOLEAN;
+    }
+    if (type == UUID.class
+        || type == URI.class
+        || type == Locale.class
+        || Currency.class.isAssignableFrom(type)
+        || type == OptionalInt.class
+        || type == OptionalLong.class
+        || type == OptionalDouble.class
+        || isJavaTimeValue(type)) {
+      return EQUALS;
+    }
+    return NONE;
+  }
+
+  /**
+   * The types of java.time (e.g. LocalDateTime, Instant, ZoneId) and its chrono and zone packages
+   * are immutable and have an equals on all their state. The format package is left out, because
+   * formatters have no equals.
+   */
+  private static boolean isJavaTimeValue(Class<?> type) {
+    Package typePackage = type.getPackage();
+    if (typePackage == null) {
+      return false;
+    }
+    String packageName = typePackage.getName();
+    return packageName.equals("java.time")
+        || packageName.equals("java.time.chrono")
+        || packageName.equals("java.time.zone");
+  }
+
+  private static Difference compareValues(
+      Object left,
+      Object right,
+      Object leftValue,
+      Object rightValue,
+      boolean onlyFirstDifference,
+      ReflectionComparator reflectionComparator
+  ) {
+    Difference innerDifference = reflectionComparator
+        .getDifference(leftValue, rightValue, onlyFirstDifference);
+    if (innerDifference == null) {
+      return null;
+    }
+    ObjectDifference difference = new ObjectDifference("Different field values", left, right);
+    difference.addFieldDifference("value", innerDifference);
+    return difference;
+  }
+
+
+  /**
+   * The comparison of the values of a single class.
+   */
+  private interface ValueComparison {
+
+    Difference compare(
+        Object left,
+        Object right,
+        boolean onlyFirstDifference,
+        ReflectionComparator reflectionComparator
+    );
+  }
+}
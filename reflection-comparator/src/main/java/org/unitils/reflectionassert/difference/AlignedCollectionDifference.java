@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.difference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A class for holding the difference between two collections or arrays whose elements were
+ * aligned before being compared, e.g. by the ALIGNED_ORDER mode.
+ * <p/>
+ * The left missing indexes are the deleted left elements, the right missing indexes are the
+ * inserted right elements. The element differences are kept per left index, the right index of
+ * the element that it was compared with can differ and is kept as well.
+ * <p/>
+ * The lists are copied, so that the difference does not change when the compared collections are
+ * modified afterwards.
+ */
+public class AlignedCollectionDifference extends CollectionDifference {
+
+  /* The right index per left index of the element differences, -1 if not set */
+  private final int[] rightIndexes;
+
+
+  /**
+   * Creates a difference.
+   *
+   * @param message a message describing the difference
+   * @param leftValue the left instance
+   * @param rightValue the right instance
+   * @param leftList The left instance as a list
+   * @param rightList The right instance as a list
+   */
+  public AlignedCollectionDifference(
+      String message,
+      Object leftValue,
+      Object rightValue,
+      List<?> leftList,
+      List<?> rightList
+  ) {
+    super(message, leftValue, rightValue, new ArrayList<>(leftList), new ArrayList<>(rightList));
+    rightIndexes = new int[leftList.size()];
+    Arrays.fill(rightIndexes, -1);
+  }
+
+
+  /**
+   * Adds a difference between a left and a right element.
+   *
+   * @param leftIndex The index of the left element
+   * @param rightIndex The index of the right element
+   * @param difference The difference, not null
+   */
+  public void addElementDifference(int leftIndex, int rightIndex, Difference difference) {
+    addElementDifference(leftIndex, difference);
+    rightIndexes[leftIndex] = rightIndex;
+  }
+
+
+  /**
+   * Gets the index of the right element that the left element was compared with.
+   *
+   * @param leftIndex The index of the left element
+   * @return The right index, the left index if it was not set
+   */
+  public int getRightIndex(int leftIndex) {
+    int rightIndex = leftIndex < rightIndexes.length ? rightIndexes[leftIndex] : -1;
+    return rightIndex < 0 ? leftIndex : rightIndex;
+  }
+}
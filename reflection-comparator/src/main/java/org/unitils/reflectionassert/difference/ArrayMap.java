@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.difference;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map that stores its keys and values in two arrays, in insertion order, for the few entries of
+ * e.g. the field differences of an object. Lookups are linear, so this is only meant for small
+ * maps.
+ * <p/>
+ * Removing an entry shifts the entries after it.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+final class ArrayMap<K, V> extends AbstractMap<K, V> {
+
+  private static final Object[] EMPTY = new Object[0];
+
+  private Object[] keys = EMPTY;
+  private Object[] values = EMPTY;
+  private int size;
+
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(K key, V value) {
+    int index = indexOf(key);
+    if (index >= 0) {
+      V previous = (V) values[index];
+      values[index] = value;
+      return previous;
+    }
+    if (size == keys.length) {
+      int capacity = Math.max(2, size * 2);
+      keys = Arrays.copyOf(keys, capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+    keys[size] = key;
+    values[size] = value;
+    size++;
+    return null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    int index = indexOf(key);
+    return index < 0 ? null : (V) values[index];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V remove(Object key) {
+    int index = indexOf(key);
+    if (index < 0) {
+      return null;
+    }
+    V previous = (V) values[index];
+    removeAt(index);
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(keys, 0, size, null);
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+
+  private void removeAt(int index) {
+    size--;
+    System.arraycopy(keys, index + 1, keys, index, size - index);
+    System.arraycopy(values, index + 1, values, index, size - index);
+    keys[size] = null;
+    values[size] = null;
+  }
+
+  private int indexOf(Object key) {
+    for (int index = 0; index < size; index++) {
+      // field names are interned, so the identity check usually suffices
+      if (keys[index] == key || keys[index] != null && keys[index].equals(key)) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<Entry<K, V>>() {
+
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return new Iterator<Entry<K, V>>() {
+
+          private int index;
+          private int lastIndex = -1;
+
+          @Override
+          public boolean hasNext() {
+            return index < size;
+          }
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public Entry<K, V> next() {
+            if (index >= size) {
+              throw new NoSuchElementException();
+            }
+            Entry<K, V> entry = new SimpleImmutableEntry<>((K) keys[index], (V) values[index]);
+            lastIndex = index++;
+            return entry;
+          }
+
+          @Override
+          public void remove() {
+            if (lastIndex < 0) {
+              throw new IllegalStateException();
+            }
+            removeAt(lastIndex);
+            index = lastIndex;
+            lastIndex = -1;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public void clear() {
+        ArrayMap.this.clear();
+      }
+    };
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.difference;
+
+/**
+ * A class for holding the difference between the contents of two NIO buffers.
+ * <p/>
+ * Only the first differing index (relative to the position of the buffers) is kept, together
+ * with a small window of elements around it for both buffers. The windows are arrays of the
+ * element type of the buffers (e.g. <code>byte[]</code> for byte buffers).
+ * <p/>
+ * This is a simple difference for the difference visitors.
+ */
+public class BufferDifference extends Difference {
+
+  /* The index of the first differing element, relative to the buffer positions */
+  private final int mismatchIndex;
+
+  /* The index of the first element of the windows, relative to the buffer positions */
+  private final int windowStart;
+
+  /* The left elements around the mismatch */
+  private final Object leftWindow;
+
+  /* The right elements around the mismatch */
+  private final Object rightWindow;
+
+
+  /**
+   * Creates a difference.
+   *
+   * @param message a message describing the difference
+   * @param leftValue the left buffer
+   * @param rightValue the right buffer
+   * @param mismatchIndex the index of the first differing element
+   * @param windowStart the index of the first element of the windows
+   * @param leftWindow the left elements around the mismatch, not null
+   * @param rightWindow the right elements around the mismatch, not null
+   */
+  public BufferDifference(
+      String message,
+      Object leftValue,
+      Object rightValue,
+      int mismatchIndex,
+      int windowStart,
+      Object leftWindow,
+      Object rightWindow
+  ) {
+    super(message, leftValue, rightValue);
+    this.mismatchIndex = mismatchIndex;
+    this.windowStart = windowStart;
+    this.leftWindow = leftWindow;
+    this.rightWindow = rightWindow;
+  }
+
+
+  /**
+   * Gets the index of the first differing element. If one buffer is a prefix of the other, this
+   * is the number of remaining elements of the shortest buffer.
+   *
+   * @return the index, relative to the buffer positions
+   */
+  public int getMismatchIndex() {
+    return mismatchIndex;
+  }
+
+
+  /**
+   * @return the index of the first element of the windows, relative to the buffer positions
+   */
+  public int getWindowStart() {
+    return windowStart;
+  }
+
+
+  /**
+   * @return the left elements around the mismatch as an array, not null
+   */
+  public Object getLeftWindow() {
+    return leftWindow;
+  }
+
+
+  /**
+   * @return the right elements around the mismatch as an array, not null
+   */
+  public Object getRightWindow() {
+    return rightWindow;
+  }
+}
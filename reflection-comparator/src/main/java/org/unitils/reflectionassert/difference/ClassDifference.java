@@ -43,6 +43,27 @@ public class ClassDifference extends Difference {
     this.rightClass = rightClass;
   }
 
+  /**
+   * Creates a difference with a message that is only formatted when it is requested.
+   *
+   * @param messageFormat a {@link String#format} string describing the difference, not null
+   * @param messageArguments the arguments of the format string, null for a plain message
+   * @param leftValue the left instance
+   * @param rightValue the right instance
+   */
+  public ClassDifference(
+      String messageFormat,
+      Object[] messageArguments,
+      Object leftValue,
+      Object rightValue,
+      Class<?> leftClass,
+      Class<?> rightClass
+  ) {
+    super(messageFormat, messageArguments, leftValue, rightValue);
+    this.leftClass = leftClass;
+    this.rightClass = rightClass;
+  }
+
   public Class<?> getLeftClass() {
     return leftClass;
   }
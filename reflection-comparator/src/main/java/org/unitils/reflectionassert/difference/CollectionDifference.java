@@ -16,9 +16,9 @@
 package org.unitils.reflectionassert.difference;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * A class for holding the difference between two collections or arrays.
@@ -29,7 +29,10 @@ import java.util.Map;
 public class CollectionDifference extends Difference {
 
   /* The differences per index */
-  private final Map<Integer, Difference> elementDifferences = new HashMap<>();
+  private final IntKeyMap<Difference> elementDifferences = new IntKeyMap<>();
+
+  /* The differences per index that are only computed when they are first accessed */
+  private IntKeyMap<Supplier<Difference>> lazyElementDifferences;
 
   /* The indexes of the left elements that were missing in the right collection */
   private final List<Integer> leftMissingIndexes = new ArrayList<>();
@@ -77,12 +80,41 @@ public class CollectionDifference extends Difference {
   }
 
 
+  /**
+   * Adds a difference for the element at the given index that is only computed when the differences
+   * are first accessed, e.g. by a report. The result is kept.
+   *
+   * @param index The element index
+   * @param difference The supplier of the difference, not null
+   */
+  public void addLazyElementDifference(int index, Supplier<Difference> difference) {
+    if (lazyElementDifferences == null) {
+      lazyElementDifferences = new IntKeyMap<>();
+    }
+    lazyElementDifferences.put(index, difference);
+  }
+
+
+  /**
+   * Checks whether there are differences, without computing the lazy ones.
+   *
+   * @return True if there are differences
+   */
+  public boolean hasElementDifferences() {
+    return !elementDifferences.isEmpty() || lazyElementDifferences != null;
+  }
+
+
   /**
    * Gets all element differences per index.
    *
    * @return The differences, not null
    */
   public Map<Integer, Difference> getElementDifferences() {
+    if (lazyElementDifferences != null) {
+      addLazyDifferences(lazyElementDifferences, elementDifferences);
+      lazyElementDifferences = null;
+    }
     return elementDifferences;
   }
 
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.difference;
+
+import java.util.AbstractList;
+
+/**
+ * Replaces the left or right list of a detached collection difference. It has the size of the
+ * original list but only holds the elements that a report shows, e.g. the missing elements. The
+ * other elements are shown as <code>...</code>.
+ */
+final class DetachedList extends AbstractList<Object> {
+
+  private static final DetachedValue NOT_KEPT = new DetachedValue("...");
+
+  private final int size;
+  private final IntKeyMap<Object> elements = new IntKeyMap<>();
+
+
+  DetachedList(int size) {
+    this.size = size;
+  }
+
+
+  void keep(int index, Object element) {
+    elements.put(index, element);
+  }
+
+  @Override
+  public Object get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+    return elements.containsKey(index) ? elements.get(index) : NOT_KEPT;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.difference;
+
+/**
+ * Replaces a compared value in a detached difference, see {@link DifferenceDetacher}. It only
+ * holds the formatted value, so that the compared object graph can be garbage collected. The
+ * {@link org.unitils.core.util.ObjectFormatter} shows the formatted value as is.
+ */
+public final class DetachedValue {
+
+  private final String formattedValue;
+
+
+  /**
+   * Creates a detached value.
+   *
+   * @param formattedValue The formatted value, not null
+   */
+  public DetachedValue(String formattedValue) {
+    this.formattedValue = formattedValue;
+  }
+
+
+  /**
+   * @return The formatted value, not null
+   */
+  public String getFormattedValue() {
+    return formattedValue;
+  }
+
+  @Override
+  public String toString() {
+    return formattedValue;
+  }
+}
@@ -15,6 +15,9 @@
  */
 package org.unitils.reflectionassert.difference;
 
+import java.util.Map;
+import java.util.function.Supplier;
+
 /**
  * A class for holding the difference between two objects.
  *
@@ -29,9 +32,18 @@ public class Difference {
   /* The right result value */
   private final Object rightValue;
 
-  /* A message describing the difference */
+  /* A message describing the difference, a format string if there are message arguments */
   private final String message;
 
+  /* The arguments of the message format string, null if the message is not a format string */
+  private final Object[] messageArguments;
+
+  /* Why the comparison stopped before all differences were found, null if it did not */
+  private String truncationReason;
+
+  /* The differences of the tree per path, built on the first query */
+  private DifferenceIndex index;
+
 
   /**
    * Creates a difference.
@@ -41,7 +53,28 @@ public class Difference {
    * @param rightValue the right instance
    */
   public Difference(String message, Object leftValue, Object rightValue) {
-    this.message = message;
+    this(message, null, leftValue, rightValue);
+  }
+
+
+  /**
+   * Creates a difference with a message that is only formatted when it is requested, so that
+   * differences that are never reported don't hold a message string of their own. Use a
+   * constant format string.
+   *
+   * @param messageFormat a {@link String#format} string describing the difference, not null
+   * @param messageArguments the arguments of the format string, null for a plain message
+   * @param leftValue the left instance
+   * @param rightValue the right instance
+   */
+  public Difference(
+      String messageFormat,
+      Object[] messageArguments,
+      Object leftValue,
+      Object rightValue
+  ) {
+    this.message = messageFormat;
+    this.messageArguments = messageArguments;
     this.leftValue = leftValue;
     this.rightValue = rightValue;
   }
@@ -73,7 +106,78 @@ public class Difference {
    * @return the message
    */
   public String getMessage() {
-    return message;
+    if (messageArguments == null) {
+      return message;
+    }
+    return String.format(message, messageArguments);
+  }
+
+
+  /**
+   * Gets whether the comparison stopped before all differences were found, e.g. because its
+   * budget was exceeded. Only set on the root difference.
+   *
+   * @return True if the differences are incomplete
+   */
+  public boolean isTruncated() {
+    return truncationReason != null;
+  }
+
+
+  /**
+   * Gets the reason why the comparison stopped before all differences were found.
+   *
+   * @return The reason, null if the differences are complete
+   */
+  public String getTruncationReason() {
+    return truncationReason;
+  }
+
+
+  /**
+   * Marks the differences as incomplete.
+   *
+   * @param truncationReason The reason why the comparison stopped, null if it did not
+   */
+  public void setTruncationReason(String truncationReason) {
+    this.truncationReason = truncationReason;
+  }
+
+
+  /**
+   * Gets the inner difference at the given path, e.g. <code>orders[3].lines[key=42].amount</code>.
+   * Fields are separated by dots, elements are selected by their index and map values by their key.
+   * Keys are formatted like in the reports, e.g. <code>[key="id"]</code>, quotes may be left out.
+   * <p/>
+   * The first query walks the whole tree (computing all lazy differences) and indexes it by path,
+   * so that every query after that only needs a lookup. Do not add differences to the tree after it
+   * was queried.
+   *
+   * @param path The path, empty for this difference, not null
+   * @return The difference, null if there is no difference at the path
+   */
+  public Difference at(String path) {
+    return getIndex().get(path);
+  }
+
+
+  /**
+   * Gets the inner differences at all paths that match the given pattern, in which <code>*</code>
+   * matches any part of a single field name, index or key and <code>**</code> matches any nr of
+   * steps, e.g. <code>orders[*].amount</code> or <code>**.amount</code>.
+   *
+   * @param pattern The path pattern, not null
+   * @return The differences per path, shortest paths first, not null
+   */
+  public Map<String, Difference> find(String pattern) {
+    return getIndex().find(pattern);
+  }
+
+  private DifferenceIndex getIndex() {
+    if (index == null) {
+      index = new DifferenceIndex(this);
+    }
+    return index;
   }
 
 
@@ -91,4 +195,26 @@ public class Difference {
   }
 
 
-}
\ No newline at end of file
+  /**
+   * Computes the given lazy inner differences and adds them to the given inner differences.
+   * Suppliers that turn out to return null are skipped.
+   *
+   * @param lazyDifferences The lazy differences per key, null if there are none
+   * @param differences The differences per key, not null
+   * @param <K> The type of the keys
+   */
+  static <K> void addLazyDifferences(
+      Map<K, Supplier<Difference>> lazyDifferences,
+      Map<K, Difference> differences
+  ) {
+    if (lazyDifferences == null) {
+      return;
+    }
+    for (Map.Entry<K, Supplier<Difference>> entry : lazyDifferences.entrySet()) {
+      Difference difference = entry.getValue().get();
+      if (difference != null) {
+        differences.put(entry.getKey(), difference);
+      }
+    }
+  }
+}
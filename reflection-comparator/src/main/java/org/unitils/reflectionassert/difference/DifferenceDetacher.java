@@ -0,0 +1,255 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.difference;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.unitils.core.util.ObjectFormatter;
+import org.unitils.reflectionassert.util.LeafTypes;
+
+/**
+ * Copies a difference tree without references to the compared object graphs, so that the
+ * differences can be kept, e.g. in a failure history, without keeping the compared objects alive.
+ * <p/>
+ * Null values and small leaf values (Strings, primitive wrappers and enums) are kept. All other
+ * values are replaced by a {@link DetachedValue} that holds the value as formatted by the
+ * {@link ObjectFormatter}, so the reports of the detached tree look like the reports of the
+ * original one. The left and right lists of collection differences only keep the elements that
+ * the reports show, and unordered collection differences only keep the differences of the best
+ * matching elements.
+ * <p/>
+ * Lazy inner differences are determined while detaching, see
+ * {@link org.unitils.reflectionassert.ReflectionComparator#getLazyDifference(Object, Object)}.
+ */
+public final class DifferenceDetacher {
+
+  /* The maximum length of the Strings that are kept as is */
+  private static final int MAX_STRING_LENGTH = 1000;
+
+  private final ObjectFormatter objectFormatter;
+
+  /* The detached differences per original difference, to keep cycles and shared differences */
+  private final Map<Difference, Difference> detachedDifferences = new IdentityHashMap<>();
+
+
+  /**
+   * Creates a detacher that formats the values like the default reports do.
+   */
+  public DifferenceDetacher() {
+    this(new ObjectFormatter());
+  }
+
+
+  /**
+   * Creates a detacher that formats the values with the given formatter.
+   *
+   * @param objectFormatter The formatter, not null
+   */
+  public DifferenceDetacher(ObjectFormatter objectFormatter) {
+    this.objectFormatter = objectFormatter;
+  }
+
+
+  /**
+   * Copies the given difference tree without references to the compared values.
+   *
+   * @param difference The root difference, null for no difference
+   * @return The detached root difference, null if the given difference is null
+   */
+  public Difference detach(Difference difference) {
+    if (difference == null) {
+      return null;
+    }
+    Difference detached = detachedDifferences.get(difference);
+    if (detached != null) {
+      return detached;
+    }
+    detached = createDetached(difference);
+    detached.setTruncationReason(difference.getTruncationReason());
+    return detached;
+  }
+
+  private Difference createDetached(Difference difference) {
+    Object left = detachValue(difference.getLeftValue());
+    Object right = detachValue(difference.getRightValue());
+    String message = difference.getMessage();
+
+    if (difference instanceof ObjectDifference) {
+      ObjectDifference detached = register(difference, new ObjectDifference(message, left, right));
+      for (Map.Entry<String, Difference> entry : ((ObjectDifference) difference)
+          .getFieldDifferences().entrySet()) {
+        detached.addFieldDifference(entry.getKey(), detach(entry.getValue()));
+      }
+      return detached;
+    }
+    if (difference instanceof CollectionDifference) {
+      return detachCollection((CollectionDifference) difference, message, left, right);
+    }
+    if (difference instanceof UnorderedCollectionDifference) {
+      return detachUnordered((UnorderedCollectionDifference) difference, message, left, right);
+    }
+    if (difference instanceof MapDifference) {
+      return detachMap((MapDifference) difference, message, left, right);
+    }
+    if (difference instanceof SetDifference) {
+      SetDifference setDifference = (SetDifference) difference;
+      SetDifference detached = register(difference, new SetDifference(message, left, right));
+      for (Object element : setDifference.getLeftMissingElements()) {
+        detached.addLeftMissingElement(detachValue(element));
+      }
+      for (Object element : setDifference.getRightMissingElements()) {
+        detached.addRightMissingElement(detachValue(element));
+      }
+      return detached;
+    }
+    if (difference instanceof ClassDifference) {
+      ClassDifference classDifference = (ClassDifference) difference;
+      return register(difference, new ClassDifference(message, left, right,
+          classDifference.getLeftClass(), classDifference.getRightClass()));
+    }
+    if (difference instanceof StringDifference) {
+      StringDifference stringDifference = (StringDifference) difference;
+      return register(difference, new StringDifference(message, left, right,
+          stringDifference.getMismatchIndex(), stringDifference.getCommonSuffixLength(),
+          stringDifference.getWindowStart(), stringDifference.getLeftWindow(),
+          stringDifference.getRightWindow()));
+    }
+    if (difference instanceof BufferDifference) {
+      // the windows are small copies of the buffer elements
+      BufferDifference bufferDifference = (BufferDifference) difference;
+      return register(difference, new BufferDifference(message, left, right,
+          bufferDifference.getMismatchIndex(), bufferDifference.getWindowStart(),
+          bufferDifference.getLeftWindow(), bufferDifference.getRightWindow()));
+    }
+    return register(difference, new Difference(message, left, right));
+  }
+
+  private Difference detachCollection(
+      CollectionDifference difference,
+      String message,
+      Object left,
+      Object right
+  ) {
+    DetachedList leftList = new DetachedList(difference.getLeftList().size());
+    DetachedList rightList = new DetachedList(difference.getRightList().size());
+    CollectionDifference detached;
+    if (difference instanceof AlignedCollectionDifference) {
+      AlignedCollectionDifference alignedDifference = (AlignedCollectionDifference) difference;
+      AlignedCollectionDifference detachedAligned = register(difference,
+          new AlignedCollectionDifference(message, left, right, leftList, rightList));
+      for (Map.Entry<Integer, Difference> entry : difference.getElementDifferences().entrySet()) {
+        int leftIndex = entry.getKey();
+        detachedAligned.addElementDifference(leftIndex, alignedDifference.getRightIndex(leftIndex),
+            detach(entry.getValue()));
+      }
+      detached = detachedAligned;
+    } else {
+      detached = register(difference,
+          new CollectionDifference(message, left, right, leftList, rightList));
+      for (Map.Entry<Integer, Difference> entry : difference.getElementDifferences().entrySet()) {
+        detached.addElementDifference(entry.getKey(), detach(entry.getValue()));
+      }
+    }
+    for (int leftIndex : difference.getLeftMissingIndexes()) {
+      detached.addLeftMissingIndex(leftIndex);
+      keepElement(leftList, difference.getLeftList(), leftIndex);
+    }
+    for (int rightIndex : difference.getRightMissingIndexes()) {
+      detached.addRightMissingIndex(rightIndex);
+      keepElement(rightList, difference.getRightList(), rightIndex);
+    }
+    return detached;
+  }
+
+  private Difference detachUnordered(
+      UnorderedCollectionDifference difference,
+      String message,
+      Object left,
+      Object right
+  ) {
+    DetachedList leftList = new DetachedList(difference.getLeftList().size());
+    DetachedList rightList = new DetachedList(difference.getRightList().size());
+    UnorderedCollectionDifference detached = register(difference,
+        new UnorderedCollectionDifference(message, left, right, leftList, rightList));
+    for (Map.Entry<Integer, Integer> entry : difference.getBestMatchingIndexes().entrySet()) {
+      int leftIndex = entry.getKey();
+      int rightIndex = entry.getValue();
+      detached.setBestMatchingIndexes(leftIndex, rightIndex);
+      if (leftIndex == -1) {
+        keepElement(rightList, difference.getRightList(), rightIndex);
+      } else if (rightIndex == -1) {
+        keepElement(leftList, difference.getLeftList(), leftIndex);
+      } else {
+        detached.addElementDifference(leftIndex, rightIndex,
+            detach(difference.getElementDifference(leftIndex, rightIndex)));
+      }
+    }
+    for (int rightIndex : difference.getRightMissingIndexes()) {
+      detached.addRightMissingIndex(rightIndex);
+      keepElement(rightList, difference.getRightList(), rightIndex);
+    }
+    detached.setBestMatchingScore(difference.getBestMatchingScore());
+    return detached;
+  }
+
+  private Difference detachMap(
+      MapDifference difference,
+      String message,
+      Object left,
+      Object right
+  ) {
+    Map<Object, Object> leftMap = new HashMap<>();
+    Map<Object, Object> rightMap = new HashMap<>();
+    MapDifference detached = register(difference,
+        new MapDifference(message, left, right, leftMap, rightMap));
+    for (Map.Entry<Object, Difference> entry : difference.getValueDifferences().entrySet()) {
+      detached.addValueDifference(detachValue(entry.getKey()), detach(entry.getValue()));
+    }
+    for (Object leftKey : difference.getLeftMissingKeys()) {
+      Object key = detachValue(leftKey);
+      detached.addLeftMissingKey(key);
+      leftMap.put(key, detachValue(difference.getLeftMap().get(leftKey)));
+    }
+    for (Object rightKey : difference.getRightMissingKeys()) {
+      Object key = detachValue(rightKey);
+      detached.addRightMissingKey(key);
+      rightMap.put(key, detachValue(difference.getRightMap().get(rightKey)));
+    }
+    return detached;
+  }
+
+  private <D extends Difference> D register(Difference difference, D detached) {
+    detachedDifferences.put(difference, detached);
+    return detached;
+  }
+
+  private void keepElement(DetachedList detachedList, List<?> list, int index) {
+    detachedList.keep(index, detachValue(list.get(index)));
+  }
+
+  private Object detachValue(Object value) {
+    if (value == null || value instanceof DetachedValue) {
+      return value;
+    }
+    if (LeafTypes.isLeafValue(value)
+        && !(value instanceof String && ((String) value).length() > MAX_STRING_LENGTH)) {
+      return value;
+    }
+    return new DetachedValue(objectFormatter.format(value));
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.difference;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.regex.Pattern;
+import org.unitils.core.UnitilsException;
+import org.unitils.core.util.ObjectFormatter;
+
+/**
+ * The differences of a difference tree per path, see {@link Difference#at(String)}. The index is
+ * built once by walking the whole tree, so that looking up a path only needs to normalize it.
+ * <p/>
+ * The paths of the index have the following steps:
+ * <ul>
+ * <li>fields: <code>name</code>, separated by a dot from the previous step</li>
+ * <li>elements of collections and arrays: <code>[index]</code>, for unordered collections the
+ * index of the left element, matched with its best matching right element</li>
+ * <li>values of maps: <code>[key=formattedKey]</code>, the key as formatted by the
+ * {@link ObjectFormatter}, e.g. <code>[key="id"]</code> or <code>[key=42]</code></li>
+ * </ul>
+ * A shared difference is indexed under every path through which it can be reached. Cycles are
+ * only followed once, i.e. a difference is not indexed again below itself.
+ */
+final class DifferenceIndex {
+
+  private final ObjectFormatter objectFormatter = new ObjectFormatter();
+
+  /* The differences per path, in breadth first order */
+  private final Map<String, Difference> differencesByPath = new LinkedHashMap<>();
+
+
+  /**
+   * Builds the index of the given tree.
+   *
+   * @param root The root difference, not null
+   */
+  DifferenceIndex(Difference root) {
+    Queue<Object[]> queue = new ArrayDeque<>();
+    queue.add(new Object[]{"", root, null});
+    while (!queue.isEmpty()) {
+      Object[] entry = queue.remove();
+      String path = (String) entry[0];
+      Difference difference = (Difference) entry[1];
+      if (difference == null || isAncestor(difference, (Object[]) entry[2])) {
+        continue;
+      }
+      differencesByPath.put(path, difference);
+      addInnerDifferences(entry, queue);
+    }
+  }
+
+  /* Checks whether the difference is on the path from the root to the given parent entry */
+  private static boolean isAncestor(Difference difference, Object[] parent) {
+    for (Object[] entry = parent; entry != null; entry = (Object[]) entry[2]) {
+      if (entry[1] == difference) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void addInnerDifferences(Object[] parent, Queue<Object[]> queue) {
+    String path = (String) parent[0];
+    Difference difference = (Difference) parent[1];
+    if (difference instanceof ObjectDifference) {
+      for (Map.Entry<String, Difference> entry : ((ObjectDifference) difference)
+          .getFieldDifferences().entrySet()) {
+        String fieldPath = path.isEmpty() ? entry.getKey() : path + "." + entry.getKey();
+        queue.add(new Object[]{fieldPath, entry.getValue(), parent});
+      }
+    } else if (difference instanceof CollectionDifference) {
+      for (Map.Entry<Integer, Difference> entry : ((CollectionDifference) difference)
+          .getElementDifferences().entrySet()) {
+        queue.add(new Object[]{path + "[" + entry.getKey() + "]", entry.getValue(), parent});
+      }
+    } else if (difference instanceof UnorderedCollectionDifference) {
+      UnorderedCollectionDifference unorderedDifference =
+          (UnorderedCollectionDifference) difference;
+      for (Map.Entry<Integer, Integer> entry : unorderedDifference.getBestMatchingIndexes()
+          .entrySet()) {
+        int leftIndex = entry.getKey();
+        int rightIndex = entry.getValue();
+        if (leftIndex >= 0 && rightIndex >= 0) {
+          queue.add(new Object[]{path + "[" + leftIndex + "]",
+              unorderedDifference.getElementDifference(leftIndex, rightIndex), parent});
+        }
+      }
+    } else if (difference instanceof MapDifference) {
+      for (Map.Entry<Object, Difference> entry : ((MapDifference) difference)
+          .getValueDifferences().entrySet()) {
+        String keyPath = path + "[key=" + objectFormatter.format(entry.getKey()) + "]";
+        queue.add(new Object[]{keyPath, entry.getValue(), parent});
+      }
+    }
+  }
+
+
+  /**
+   * Gets the difference at the given path.
+   *
+   * @param path The path, e.g. <code>orders[3].lines[key=42].amount</code>, empty for the root
+   * @return The difference, null if there is no difference at the path
+   * @throws UnitilsException If the path is invalid
+   */
+  Difference get(String path) {
+    Difference difference = differencesByPath.get(path);
+    if (difference != null) {
+      return difference;
+    }
+    return differencesByPath.get(normalize(path, false));
+  }
+
+  /**
+   * Gets the differences at the paths that match the given pattern, in which <code>*</code>
+   * matches any part of a field name, index or key and <code>**</code> matches any number of
+   * steps, e.g. <code>orders[*].amount</code> or <code>**.amount</code>.
+   *
+   * @param pattern The pattern, not null
+   * @return The differences per path, in breadth first order, not null
+   * @throws UnitilsException If the pattern is invalid
+   */
+  Map<String, Difference> find(String pattern) {
+    Pattern regex = toRegex(normalize(pattern, true));
+    Map<String, Difference> result = new LinkedHashMap<>();
+    for (Map.Entry<String, Difference> entry : differencesByPath.entrySet()) {
+      if (regex.matcher(entry.getKey()).matches()) {
+        result.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return result;
+  }
+
+
+  /**
+   * Removes white space around the steps and quotes keys that are not found as is, so that e.g.
+   * <code>lines[ key = id ]</code> finds <code>lines[key="id"]</code>.
+   */
+  private String normalize(String path, boolean isPattern) {
+    StringBuilder result = new StringBuilder();
+    int index = 0;
+    while (index < path.length()) {
+      char c = path.charAt(index);
+      if (c == '[') {
+        int end = findClosingBracket(path, index);
+        result.append('[').append(normalizeBracket(result, path.substring(index + 1, end),
+            isPattern)).append(']');
+        index = end + 1;
+      } else if (c == '.' || !Character.isWhitespace(c)) {
+        result.append(c);
+        index++;
+      } else {
+        index++;
+      }
+    }
+    return result.toString();
+  }
+
+  private String normalizeBracket(CharSequence prefix, String content, boolean isPattern) {
+    content = content.trim();
+    if (!content.startsWith("key")) {
+      return content.replace(" ", "");
+    }
+    int equals = content.indexOf('=');
+    if (equals < 0) {
+      return content;
+    }
+    String key = content.substring(equals + 1).trim();
+    String keyStep = "key=" + key;
+    if (isPattern || key.startsWith("\"")
+        || differencesByPath.containsKey(prefix + "[" + keyStep + "]")) {
+      return keyStep;
+    }
+    return "key=\"" + key + "\"";
+  }
+
+  private static int findClosingBracket(String path, int start) {
+    boolean quoted = false;
+    for (int index = start + 1; index < path.length(); index++) {
+      char c = path.charAt(index);
+      if (c == '"') {
+        quoted = !quoted;
+      } else if (c == ']' && !quoted) {
+        return index;
+      }
+    }
+    throw new UnitilsException("Missing ] in difference path: " + path);
+  }
+
+  private static Pattern toRegex(String pattern) {
+    StringBuilder regex = new StringBuilder();
+    int index = 0;
+    while (index < pattern.length()) {
+      if (pattern.startsWith("**.", index)) {
+        // any number of steps, including none
+        regex.append("(?:.*\\.)?");
+        index += 3;
+      } else if (pattern.startsWith("**", index)) {
+        regex.append(".*");
+        index += 2;
+      } else if (pattern.charAt(index) == '*') {
+        regex.append("[^.\\[\\]]*");
+        index++;
+      } else {
+        regex.append(Pattern.quote(String.valueOf(pattern.charAt(index))));
+        index++;
+      }
+    }
+    return Pattern.compile(regex.toString());
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.difference;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map with int keys that stores its entries in a sorted int array and a value array, so that
+ * the keys are not boxed and no entry objects are kept. Keys that are added in increasing order,
+ * which is the common case for element indexes, are appended.
+ * <p/>
+ * Null values are allowed. Removing an entry shifts the entries after it.
+ *
+ * @param <V> The type of the values
+ */
+final class IntKeyMap<V> extends AbstractMap<Integer, V> {
+
+  private static final int[] NO_KEYS = new int[0];
+  private static final Object[] NO_VALUES = new Object[0];
+
+  private int[] keys = NO_KEYS;
+  private Object[] values = NO_VALUES;
+  private int size;
+
+
+  /**
+   * Puts the value for the given key.
+   *
+   * @param key The key
+   * @param value The value, can be null
+   * @return The previous value, null if there was none
+   */
+  @SuppressWarnings("unchecked")
+  V put(int key, V value) {
+    int index = indexOf(key);
+    if (index >= 0) {
+      V previous = (V) values[index];
+      values[index] = value;
+      return previous;
+    }
+    index = -index - 1;
+    if (size == keys.length) {
+      int capacity = Math.max(4, size + (size >> 1));
+      keys = Arrays.copyOf(keys, capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(values, index, values, index + 1, size - index);
+    keys[index] = key;
+    values[index] = value;
+    size++;
+    return null;
+  }
+
+  /**
+   * Gets the value for the given key.
+   *
+   * @param key The key
+   * @return The value, null if there is none
+   */
+  @SuppressWarnings("unchecked")
+  V get(int key) {
+    int index = indexOf(key);
+    return index < 0 ? null : (V) values[index];
+  }
+
+  /**
+   * Checks whether there is a value for the given key.
+   *
+   * @param key The key
+   * @return True if there is a value, which can be null
+   */
+  boolean containsKey(int key) {
+    return indexOf(key) >= 0;
+  }
+
+  /**
+   * Removes the value for the given key.
+   *
+   * @param key The key
+   * @return The removed value, null if there was none
+   */
+  @SuppressWarnings("unchecked")
+  V remove(int key) {
+    int index = indexOf(key);
+    if (index < 0) {
+      return null;
+    }
+    V previous = (V) values[index];
+    removeAt(index);
+    return previous;
+  }
+
+  private void removeAt(int index) {
+    size--;
+    System.arraycopy(keys, index + 1, keys, index, size - index);
+    System.arraycopy(values, index + 1, values, index, size - index);
+    values[size] = null;
+  }
+
+  private int indexOf(int key) {
+    // fast path for keys that are added in order
+    if (size == 0 || keys[size - 1] < key) {
+      return -size - 1;
+    }
+    return Arrays.binarySearch(keys, 0, size, key);
+  }
+
+
+  @Override
+  public V put(Integer key, V value) {
+    return put((int) key, value);
+  }
+
+  @Override
+  public V get(Object key) {
+    return key instanceof Integer ? get((int) (Integer) key) : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof Integer && indexOf((Integer) key) >= 0;
+  }
+
+  @Override
+  public V remove(Object key) {
+    return key instanceof Integer ? remove((int) (Integer) key) : null;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(values, 0, size, null);
+    size = 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Entry<Integer, V>> entrySet() {
+    return new AbstractSet<Entry<Integer, V>>() {
+
+      @Override
+      public Iterator<Entry<Integer, V>> iterator() {
+        return new Iterator<Entry<Integer, V>>() {
+
+          private int index;
+          private int lastIndex = -1;
+
+          @Override
+          public boolean hasNext() {
+            return index < size;
+          }
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public Entry<Integer, V> next() {
+            if (index >= size) {
+              throw new NoSuchElementException();
+            }
+            Entry<Integer, V> entry = new SimpleImmutableEntry<>(keys[index], (V) values[index]);
+            lastIndex = index++;
+            return entry;
+          }
+
+          @Override
+          public void remove() {
+            if (lastIndex < 0) {
+              throw new IllegalStateException();
+            }
+            removeAt(lastIndex);
+            index = lastIndex;
+            lastIndex = -1;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public void clear() {
+        IntKeyMap.this.clear();
+      }
+    };
+  }
+}
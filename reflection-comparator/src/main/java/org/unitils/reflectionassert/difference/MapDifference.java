@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * A class for holding the difference between two collections or arrays.
@@ -31,6 +32,9 @@ public class MapDifference extends Difference {
   /* The differences per key */
   private final Map<Object, Difference> valueDifferences = new IdentityHashMap<>();
 
+  /* The differences per key that are only computed when they are first accessed */
+  private Map<Object, Supplier<Difference>> lazyValueDifferences;
+
   /* The keys of the left map that were missing in the right map */
   private final List<Object> leftMissingKeys = new ArrayList<>();
 
@@ -76,12 +80,41 @@ public class MapDifference extends Difference {
   }
 
 
+  /**
+   * Adds a difference for the value at the given key that is only computed when the differences are
+   * first accessed, e.g. by a report. The result is kept.
+   *
+   * @param key The key
+   * @param difference The supplier of the difference, not null
+   */
+  public void addLazyValueDifference(Object key, Supplier<Difference> difference) {
+    if (lazyValueDifferences == null) {
+      lazyValueDifferences = new IdentityHashMap<>();
+    }
+    lazyValueDifferences.put(key, difference);
+  }
+
+
+  /**
+   * Checks whether there are differences, without computing the lazy ones.
+   *
+   * @return True if there are differences
+   */
+  public boolean hasValueDifferences() {
+    return !valueDifferences.isEmpty() || lazyValueDifferences != null;
+  }
+
+
   /**
    * Gets all element differences per key.
    *
    * @return The differences, not null
    */
   public Map<Object, Difference> getValueDifferences() {
+    if (lazyValueDifferences != null) {
+      addLazyDifferences(lazyValueDifferences, valueDifferences);
+      lazyValueDifferences = null;
+    }
     return valueDifferences;
   }
 
@@ -15,8 +15,8 @@
  */
 package org.unitils.reflectionassert.difference;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * A class for holding the difference between two objects.
@@ -27,7 +27,10 @@ import java.util.Map;
 public class ObjectDifference extends Difference {
 
   /* The differences per field name */
-  private final Map<String, Difference> fieldDifferences = new HashMap<>();
+  private final Map<String, Difference> fieldDifferences = new ArrayMap<>();
+
+  /* The differences per field name that are only computed when they are first accessed */
+  private Map<String, Supplier<Difference>> lazyFieldDifferences;
 
 
   /**
@@ -53,12 +56,41 @@ public class ObjectDifference extends Difference {
   }
 
 
+  /**
+   * Adds a difference for the field with the given name that is only computed when the differences
+   * are first accessed, e.g. by a report. The result is kept.
+   *
+   * @param fieldName The field name, not null
+   * @param difference The supplier of the difference, not null
+   */
+  public void addLazyFieldDifference(String fieldName, Supplier<Difference> difference) {
+    if (lazyFieldDifferences == null) {
+      lazyFieldDifferences = new ArrayMap<>();
+    }
+    lazyFieldDifferences.put(fieldName, difference);
+  }
+
+
+  /**
+   * Checks whether there are differences, without computing the lazy ones.
+   *
+   * @return True if there are differences
+   */
+  public boolean hasFieldDifferences() {
+    return !fieldDifferences.isEmpty() || lazyFieldDifferences != null;
+  }
+
+
   /**
    * Gets all differences per field name.
    *
    * @return The differences, not null
    */
   public Map<String, Difference> getFieldDifferences() {
+    if (lazyFieldDifferences != null) {
+      addLazyDifferences(lazyFieldDifferences, fieldDifferences);
+      lazyFieldDifferences = null;
+    }
     return fieldDifferences;
   }
 
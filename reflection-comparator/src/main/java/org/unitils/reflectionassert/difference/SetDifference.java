@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.difference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A class for holding the difference between two sets whose elements have a natural position,
+ * like an EnumSet (enum constants by ordinal) or a BitSet (bit indexes).
+ * <p/>
+ * Only the elements that are contained by one of both sets are kept, in ascending order.
+ * <p/>
+ * This is a simple difference for the difference visitors.
+ */
+public class SetDifference extends Difference {
+
+  /* The elements of the left set that were missing in the right set */
+  private final List<Object> leftMissingElements = new ArrayList<>();
+
+  /* The elements of the right set that were missing in the left set */
+  private final List<Object> rightMissingElements = new ArrayList<>();
+
+
+  /**
+   * Creates a difference.
+   *
+   * @param message a message describing the difference
+   * @param leftValue the left set
+   * @param rightValue the right set
+   */
+  public SetDifference(String message, Object leftValue, Object rightValue) {
+    super(message, leftValue, rightValue);
+  }
+
+
+  /**
+   * Adds an element of the left set that is missing in the right set.
+   *
+   * @param element The left element, e.g. an enum constant or a bit index
+   */
+  public void addLeftMissingElement(Object element) {
+    leftMissingElements.add(element);
+  }
+
+
+  /**
+   * Gets the elements of the left set that were missing in the right set.
+   *
+   * @return The elements, not null
+   */
+  public List<Object> getLeftMissingElements() {
+    return leftMissingElements;
+  }
+
+
+  /**
+   * Adds an element of the right set that is missing in the left set.
+   *
+   * @param element The right element, e.g. an enum constant or a bit index
+   */
+  public void addRightMissingElement(Object element) {
+    rightMissingElements.add(element);
+  }
+
+
+  /**
+   * Gets the elements of the right set that were missing in the left set.
+   *
+   * @return The elements, not null
+   */
+  public List<Object> getRightMissingElements() {
+    return rightMissingElements;
+  }
+}
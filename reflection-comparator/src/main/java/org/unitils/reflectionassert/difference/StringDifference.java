@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.difference;
+
+/**
+ * A class for holding the difference between two long strings or other character sequences.
+ * <p/>
+ * Next to both values, the length of the common prefix (the index of the first differing
+ * character) and of the common suffix are kept, together with a window of characters around the
+ * change for both values. Reports show these windows instead of the complete values.
+ * <p/>
+ * This is a simple difference for the difference visitors.
+ */
+public class StringDifference extends Difference {
+
+  /* The index of the first differing character */
+  private final int mismatchIndex;
+
+  /* The nr of equal characters at the end of both values */
+  private final int commonSuffixLength;
+
+  /* The index of the first character of the windows */
+  private final int windowStart;
+
+  /* The left characters around the change */
+  private final String leftWindow;
+
+  /* The right characters around the change */
+  private final String rightWindow;
+
+
+  /**
+   * Creates a difference.
+   *
+   * @param message a message describing the difference
+   * @param leftValue the left value
+   * @param rightValue the right value
+   * @param mismatchIndex the index of the first differing character
+   * @param commonSuffixLength the nr of equal characters at the end of both values
+   * @param windowStart the index of the first character of the windows
+   * @param leftWindow the left characters around the change, not null
+   * @param rightWindow the right characters around the change, not null
+   */
+  public StringDifference(
+      String message,
+      Object leftValue,
+      Object rightValue,
+      int mismatchIndex,
+      int commonSuffixLength,
+      int windowStart,
+      String leftWindow,
+      String rightWindow
+  ) {
+    super(message, leftValue, rightValue);
+    this.mismatchIndex = mismatchIndex;
+    this.commonSuffixLength = commonSuffixLength;
+    this.windowStart = windowStart;
+    this.leftWindow = leftWindow;
+    this.rightWindow = rightWindow;
+  }
+
+
+  /**
+   * Gets the index of the first differing character, which is also the length of the common
+   * prefix. If one value is a prefix of the other, this is the length of the shortest value.
+   *
+   * @return the index
+   */
+  public int getMismatchIndex() {
+    return mismatchIndex;
+  }
+
+
+  /**
+   * Gets the nr of equal characters at the end of both values. The common prefix and suffix never
+   * overlap.
+   *
+   * @return the length
+   */
+  public int getCommonSuffixLength() {
+    return commonSuffixLength;
+  }
+
+
+  /**
+   * @return the index of the first character of the windows
+   */
+  public int getWindowStart() {
+    return windowStart;
+  }
+
+
+  /**
+   * @return the left characters around the change, not null
+   */
+  public String getLeftWindow() {
+    return leftWindow;
+  }
+
+
+  /**
+   * @return the right characters around the change, not null
+   */
+  public String getRightWindow() {
+    return rightWindow;
+  }
+}
@@ -17,7 +17,7 @@ package org.unitils.reflectionassert.difference;
 
 import static java.lang.Integer.MAX_VALUE;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -30,10 +30,13 @@ import java.util.Map;
 public class UnorderedCollectionDifference extends Difference {
 
   /* The differences per left-index and right-index */
-  private final Map<Integer, Map<Integer, Difference>> elementDifferences = new HashMap<>();
+  private final IntKeyMap<Map<Integer, Difference>> elementDifferences = new IntKeyMap<>();
 
   /* The best matching left and right indexes */
-  private final Map<Integer, Integer> bestMatchingIndexes = new HashMap<>();
+  private final IntKeyMap<Integer> bestMatchingIndexes = new IntKeyMap<>();
+
+  /* The indexes of the right elements that have no left counterpart */
+  private final List<Integer> rightMissingIndexes = new ArrayList<>();
 
   /* The matching score of the best matching indexes */
   private int bestMatchingScore = MAX_VALUE;
@@ -75,10 +78,11 @@ public class UnorderedCollectionDifference extends Difference {
    * @param difference The difference, null for a match
    */
   public void addElementDifference(int leftIndex, int rightIndex, Difference difference) {
-    Map<Integer, Difference> rightDifferences = elementDifferences.computeIfAbsent(
-        leftIndex,
-        k -> new HashMap<>()
-    );
+    IntKeyMap<Difference> rightDifferences = getRightDifferences(leftIndex);
+    if (rightDifferences == null) {
+      rightDifferences = new IntKeyMap<>();
+      elementDifferences.put(leftIndex, rightDifferences);
+    }
     rightDifferences.put(rightIndex, difference);
   }
 
@@ -91,13 +95,17 @@ public class UnorderedCollectionDifference extends Difference {
    * @return The difference, null if not found or if there is no difference
    */
   public Difference getElementDifference(int leftIndex, int rightIndex) {
-    Map<Integer, Difference> rightDifferences = elementDifferences.get(leftIndex);
+    IntKeyMap<Difference> rightDifferences = getRightDifferences(leftIndex);
     if (rightDifferences == null) {
       return null;
     }
     return rightDifferences.get(rightIndex);
   }
 
+  private IntKeyMap<Difference> getRightDifferences(int leftIndex) {
+    return (IntKeyMap<Difference>) elementDifferences.get(leftIndex);
+  }
+
 
   /**
    * Gets all element differences per left index and right index. A null difference means a match.
@@ -116,7 +124,7 @@ public class UnorderedCollectionDifference extends Difference {
    * @param rightIndex The right index
    */
   public void setBestMatchingIndexes(int leftIndex, int rightIndex) {
-    bestMatchingIndexes.put(leftIndex, rightIndex);
+    bestMatchingIndexes.put(leftIndex, Integer.valueOf(rightIndex));
   }
 
 
@@ -130,6 +138,26 @@ public class UnorderedCollectionDifference extends Difference {
   }
 
 
+  /**
+   * Adds the index of a right element that has no counterpart in the left collection.
+   *
+   * @param rightIndex The right index
+   */
+  public void addRightMissingIndex(int rightIndex) {
+    rightMissingIndexes.add(rightIndex);
+  }
+
+
+  /**
+   * Gets the indexes of the right elements that have no counterpart in the left collection.
+   *
+   * @return The indexes, not null
+   */
+  public List<Integer> getRightMissingIndexes() {
+    return rightMissingIndexes;
+  }
+
+
   /**
    * Gets the matching score of the best matching indexes.
    *
@@ -16,6 +16,7 @@
 package org.unitils.reflectionassert.report.impl;
 
 import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.StringDifference;
 import org.unitils.reflectionassert.report.DifferenceReport;
 
 /**
@@ -44,10 +45,15 @@ public final class DefaultDifferenceReport implements DifferenceReport {
     result.append(new SimpleDifferenceView().createView(difference)).append("\n\n");
     result.append("--- Found following differences ---\n");
     result.append(new DefaultDifferenceView().createView(difference));
-    if (!Difference.class.equals(difference.getClass())) {
+    if (!Difference.class.equals(difference.getClass())
+        && !(difference instanceof StringDifference)) {
       result.append("\n--- Difference detail tree ---\n");
       result.append(new TreeDifferenceView().createView(difference));
     }
+    if (difference.isTruncated()) {
+      result.append("\n--- Comparison stopped early, the differences are incomplete: ")
+          .append(difference.getTruncationReason()).append(" ---\n");
+    }
     return result.toString();
   }
 
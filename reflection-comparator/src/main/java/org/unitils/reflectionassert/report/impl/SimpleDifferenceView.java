@@ -19,6 +19,7 @@ import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.M
 
 import org.unitils.core.util.ObjectFormatter;
 import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.StringDifference;
 import org.unitils.reflectionassert.report.DifferenceView;
 
 /**
@@ -39,8 +40,25 @@ public class SimpleDifferenceView implements DifferenceView {
    */
   @Override
   public final String createView(Difference difference) {
+    if (difference instanceof StringDifference) {
+      return createView((StringDifference) difference);
+    }
     String expectedStr = objectFormatter.format(difference.getLeftValue());
     String actualStr = objectFormatter.format(difference.getRightValue());
+    return formatValues(expectedStr, actualStr);
+  }
+
+  /**
+   * Only the characters around the change of long strings are shown.
+   */
+  private String createView(StringDifference difference) {
+    String windowStart = "[" + difference.getWindowStart() + "..]";
+    String expectedStr = windowStart + objectFormatter.format(difference.getLeftWindow());
+    String actualStr = windowStart + objectFormatter.format(difference.getRightWindow());
+    return formatValues(expectedStr, actualStr);
+  }
+
+  private String formatValues(String expectedStr, String actualStr) {
     String formattedOnOneLine = formatOnOneLine(expectedStr, actualStr);
     if (ASSERTION_ERROR_FQCN_LENGTH + 2 + formattedOnOneLine.length() < MAX_LINE_SIZE) {
       return formattedOnOneLine;
@@ -19,13 +19,18 @@ import static org.unitils.reflectionassert.report.impl.DefaultDifferenceReport.M
 
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import org.unitils.core.util.ObjectFormatter;
+import org.unitils.reflectionassert.difference.AlignedCollectionDifference;
+import org.unitils.reflectionassert.difference.BufferDifference;
 import org.unitils.reflectionassert.difference.ClassDifference;
 import org.unitils.reflectionassert.difference.CollectionDifference;
 import org.unitils.reflectionassert.difference.Difference;
 import org.unitils.reflectionassert.difference.DifferenceVisitor;
 import org.unitils.reflectionassert.difference.MapDifference;
 import org.unitils.reflectionassert.difference.ObjectDifference;
+import org.unitils.reflectionassert.difference.SetDifference;
+import org.unitils.reflectionassert.difference.StringDifference;
 import org.unitils.reflectionassert.difference.UnorderedCollectionDifference;
 import org.unitils.reflectionassert.report.DifferenceView;
 
@@ -69,10 +74,96 @@ public class TreeDifferenceView implements DifferenceView {
    * @return The string representation, not null
    */
   protected String formatDifference(Difference difference, String fieldName) {
+    if (difference instanceof BufferDifference) {
+      return formatDifference((BufferDifference) difference, fieldName);
+    }
+    if (difference instanceof SetDifference) {
+      return formatDifference((SetDifference) difference, fieldName);
+    }
+    if (difference instanceof StringDifference) {
+      return formatDifference((StringDifference) difference, fieldName);
+    }
     return formatValues(fieldName, difference.getLeftValue(), difference.getRightValue());
   }
 
 
+  /**
+   * Creates a string representation of a buffer difference. Only the elements around the first
+   * mismatch are shown.
+   *
+   * @param bufferDifference The difference, not null
+   * @param fieldName The current fieldName, null for root
+   * @return The string representation, not null
+   */
+  protected String formatDifference(BufferDifference bufferDifference, String fieldName) {
+    String innerFieldName = createFieldName(
+        fieldName,
+        "[" + bufferDifference.getWindowStart() + "..]",
+        false
+    );
+    return formatValues(
+        innerFieldName,
+        bufferDifference.getLeftWindow(),
+        bufferDifference.getRightWindow()
+    );
+  }
+
+
+  /**
+   * Creates a string representation of a string difference. Only the characters around the change
+   * are shown.
+   *
+   * @param stringDifference The difference, not null
+   * @param fieldName The current fieldName, null for root
+   * @return The string representation, not null
+   */
+  protected String formatDifference(StringDifference stringDifference, String fieldName) {
+    String innerFieldName = createFieldName(
+        fieldName,
+        "[" + stringDifference.getWindowStart() + "..]",
+        false
+    );
+    return formatValues(
+        innerFieldName,
+        stringDifference.getLeftWindow(),
+        stringDifference.getRightWindow()
+    );
+  }
+
+
+  /**
+   * Creates a string representation of a set difference. Only the elements that are missing in
+   * one of both sets are shown.
+   *
+   * @param setDifference The difference, not null
+   * @param fieldName The current fieldName, null for root
+   * @return The string representation, not null
+   */
+  protected String formatDifference(SetDifference setDifference, String fieldName) {
+    StringBuilder result = new StringBuilder();
+    result.append(
+        formatValues(fieldName, setDifference.getLeftValue(), setDifference.getRightValue())
+    );
+    for (Object leftElement : setDifference.getLeftMissingElements()) {
+      String innerFieldName = createFieldName(
+          fieldName,
+          "[" + formatObject(leftElement) + "]",
+          false
+      );
+      result.append(formatValues(innerFieldName, leftElement, NO_MATCH));
+    }
+    for (Object rightElement : setDifference.getRightMissingElements()) {
+      String innerFieldName = createFieldName(
+          fieldName,
+          "[" + formatObject(rightElement) + "]",
+          false
+      );
+      result.append(formatValues(innerFieldName, NO_MATCH, rightElement));
+    }
+    return result.toString();
+  }
+
+
   /**
    * Creates a string representation of an object difference.
    *
@@ -113,6 +204,9 @@ public class TreeDifferenceView implements DifferenceView {
    * @return The string representation, not null
    */
   protected String formatDifference(CollectionDifference collectionDifference, String fieldName) {
+    if (collectionDifference instanceof AlignedCollectionDifference) {
+      return formatDifference((AlignedCollectionDifference) collectionDifference, fieldName);
+    }
     StringBuilder result = new StringBuilder();
     result.append(formatDifference((Difference) collectionDifference, fieldName));
 
@@ -141,6 +235,49 @@ public class TreeDifferenceView implements DifferenceView {
   }
 
 
+  /**
+   * Creates a string representation of an aligned collection difference. Changed elements are
+   * shown with their left and right index, deleted and inserted elements with an x for the index
+   * on the other side.
+   *
+   * @param alignedDifference The difference, not null
+   * @param fieldName The current fieldName, null for root
+   * @return The string representation, not null
+   */
+  protected String formatDifference(
+      AlignedCollectionDifference alignedDifference,
+      String fieldName
+  ) {
+    StringBuilder result = new StringBuilder();
+    result.append(formatDifference((Difference) alignedDifference, fieldName));
+    Map<Integer, Difference> elementDifferences = new TreeMap<>(
+        alignedDifference.getElementDifferences()
+    );
+    for (Map.Entry<Integer, Difference> elementDifference : elementDifferences.entrySet()) {
+      int leftIndex = elementDifference.getKey();
+      int rightIndex = alignedDifference.getRightIndex(leftIndex);
+      String innerFieldName = createFieldName(
+          fieldName,
+          "[" + leftIndex + "," + rightIndex + "]",
+          false
+      );
+      result.append(elementDifference.getValue().accept(treeDifferenceFormatterVisitor, innerFieldName));
+    }
+
+    List<?> leftList = alignedDifference.getLeftList();
+    List<?> rightList = alignedDifference.getRightList();
+    for (Integer leftIndex : alignedDifference.getLeftMissingIndexes()) {
+      String innerFieldName = createFieldName(fieldName, "[" + leftIndex + ",x]", false);
+      result.append(formatValues(innerFieldName, leftList.get(leftIndex), NO_MATCH));
+    }
+    for (Integer rightIndex : alignedDifference.getRightMissingIndexes()) {
+      String innerFieldName = createFieldName(fieldName, "[x," + rightIndex + "]", false);
+      result.append(formatValues(innerFieldName, NO_MATCH, rightList.get(rightIndex)));
+    }
+    return result.toString();
+  }
+
+
   /**
    * Creates a string representation of a map difference.
    *
@@ -236,6 +373,14 @@ public class TreeDifferenceView implements DifferenceView {
       );
       result.append(difference.accept(treeDifferenceFormatterVisitor, innerFieldName));
     }
+    for (Integer rightIndex : unorderedCollectionDifference.getRightMissingIndexes()) {
+      String innerFieldName = createFieldName(fieldName, "[x," + rightIndex + "]", false);
+      result.append(formatValues(
+          innerFieldName,
+          NO_MATCH,
+          unorderedCollectionDifference.getRightList().get(rightIndex)
+      ));
+    }
     return result.toString();
   }
 
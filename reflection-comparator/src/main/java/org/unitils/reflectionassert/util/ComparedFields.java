@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+import static java.lang.reflect.Modifier.isStatic;
+import static java.lang.reflect.Modifier.isTransient;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import org.unitils.reflectionassert.IgnoreInComparison;
+
+/**
+ * Utility class for the fields of a class that are compared field by field: the fields declared by
+ * the class and its superclasses outside java.lang, except for static, transient and synthetic
+ * fields and fields annotated with {@link IgnoreInComparison}.
+ * <p/>
+ * The fields are looked up and made accessible only once per class.
+ */
+public final class ComparedFields {
+
+  private static final ClassValue<Field[]> FIELDS = new ClassValue<Field[]>() {
+    @Override
+    protected Field[] computeValue(Class<?> type) {
+      List<Field> fields = new ArrayList<>();
+      addFields(type, fields);
+      Class<?> superclass = type.getSuperclass();
+      while (superclass != null && !superclass.getName().startsWith("java.lang")) {
+        addFields(superclass, fields);
+        superclass = superclass.getSuperclass();
+      }
+      return fields.toArray(new Field[0]);
+    }
+  };
+
+  private ComparedFields() {
+  }
+
+  /**
+   * Gets the compared fields of the given class, the fields of the class itself first.
+   *
+   * @param type The class, not null
+   * @return The accessible fields, not null. Do not modify.
+   */
+  public static Field[] getComparedFields(Class<?> type) {
+    return FIELDS.get(type);
+  }
+
+  private static void addFields(Class<?> type, List<Field> fields) {
+    Field[] declaredFields = type.getDeclaredFields();
+    AccessibleObject.setAccessible(declaredFields, true);
+    for (Field field : declaredFields) {
+      if (!isTransient(field.getModifiers()) && !isStatic(field.getModifiers())
+          && !field.isSynthetic() && !field.isAnnotationPresent(IgnoreInComparison.class)) {
+        fields.add(field);
+      }
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+import java.lang.reflect.Field;
+import java.util.function.Function;
+import org.unitils.core.UnitilsException;
+
+/**
+ * Extracts the value of a field path, e.g. <code>"id"</code> or <code>"customer.id"</code>, from
+ * an object. The fields are looked up once in the given type and its superclasses, following the
+ * declared types of the fields along the path.
+ * <p/>
+ * If a field along the path contains null, the extracted value is null.
+ */
+public final class FieldPathKeyExtractor implements Function<Object, Object> {
+
+  private final String fieldPath;
+  private final Field[] fields;
+
+  /**
+   * Creates an extractor for the given path.
+   *
+   * @param type The type of the objects to extract the value from, not null
+   * @param fieldPath The field names separated by dots, not null
+   * @throws UnitilsException If a field of the path does not exist
+   */
+  public FieldPathKeyExtractor(Class<?> type, String fieldPath) {
+    this.fieldPath = fieldPath;
+    String[] fieldNames = fieldPath.split("\\.", -1);
+    this.fields = new Field[fieldNames.length];
+    Class<?> fieldType = type;
+    for (int i = 0; i < fieldNames.length; i++) {
+      fields[i] = getField(fieldType, fieldNames[i]);
+      fields[i].setAccessible(true);
+      fieldType = fields[i].getType();
+    }
+  }
+
+  private Field getField(Class<?> type, String fieldName) {
+    for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+      try {
+        return clazz.getDeclaredField(fieldName);
+      } catch (NoSuchFieldException e) {
+        // try the superclass
+      }
+    }
+    throw new UnitilsException(
+        "Unable to find field " + fieldName + " of path " + fieldPath + " in " + type.getName()
+    );
+  }
+
+  /**
+   * Gets the value of the field path.
+   *
+   * @param object The object, not null
+   * @return The value, null if a field along the path is null
+   */
+  @Override
+  public Object apply(Object object) {
+    Object value = object;
+    try {
+      for (Field field : fields) {
+        if (value == null) {
+          return null;
+        }
+        value = field.get(value);
+      }
+    } catch (IllegalAccessException e) {
+      throw new UnitilsException("Unable to get value of field path " + fieldPath, e);
+    }
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return fieldPath;
+  }
+}
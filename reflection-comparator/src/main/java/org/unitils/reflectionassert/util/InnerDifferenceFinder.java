@@ -123,7 +123,7 @@ public final class InnerDifferenceFinder {
      */
     @Override
     public Difference visit(CollectionDifference collectionDifference, String indexString) {
-      return collectionDifference.getElementDifferences().get(new Integer(indexString));
+      return collectionDifference.getElementDifferences().get(Integer.parseInt(indexString));
     }
 
 
@@ -139,7 +139,7 @@ public final class InnerDifferenceFinder {
         UnorderedCollectionDifference unorderedCollectionDifference,
         String indexString
     ) {
-      int leftIndex = new Integer(indexString);
+      int leftIndex = Integer.parseInt(indexString);
       int rightIndex = unorderedCollectionDifference.getBestMatchingIndexes().get(leftIndex);
       return unorderedCollectionDifference.getElementDifference(leftIndex, rightIndex);
     }
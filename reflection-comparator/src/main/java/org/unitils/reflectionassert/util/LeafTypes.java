@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils.reflectionassert.util;
+
+/**
+ * Utility class for leaf values: values of immutable JDK types (strings, primitive wrappers and
+ * enum constants) that are compared without looking at any other object.
+ * <p/>
+ * Comparing leaf values can never run into a cycle, and two leaf values of the same type that are
+ * equal according to their equals method are equal in every comparison mode.
+ */
+public final class LeafTypes {
+
+  private static final ClassValue<Boolean> LEAF_TYPES = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      return type == String.class
+          || type == Integer.class
+          || type == Long.class
+          || type == Short.class
+          || type == Byte.class
+          || type == Character.class
+          || type == Boolean.class
+          || type == Double.class
+          || type == Float.class
+          || type.isEnum()
+          || type.getSuperclass() != null && type.getSuperclass().isEnum();
+    }
+  };
+
+  private LeafTypes() {
+  }
+
+  /**
+   * Checks whether instances of the given type are leaf values.
+   *
+   * @param type The type, not null
+   * @return True for String, the primitive wrappers and enums (including constant bodies)
+   */
+  public static boolean isLeafType(Class<?> type) {
+    return LEAF_TYPES.get(type);
+  }
+
+  /**
+   * Checks whether the given value is a leaf value.
+   *
+   * @param value The value
+   * @return True if the value is not null and of a leaf type
+   */
+  public static boolean isLeafValue(Object value) {
+    return value != null && isLeafType(value.getClass());
+  }
+}
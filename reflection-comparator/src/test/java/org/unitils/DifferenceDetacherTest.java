@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.DetachedValue;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.DifferenceDetacher;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+import org.unitils.reflectionassert.report.impl.DefaultDifferenceReport;
+
+
+/**
+ * Test class for {@link DifferenceDetacher}.
+ */
+class DifferenceDetacherTest {
+
+  /* Class under test */
+  private final DifferenceDetacher differenceDetacher = new DifferenceDetacher();
+
+  private final ReflectionComparator reflectionComparator =
+      ReflectionComparatorFactory.createReflectionComparator();
+
+
+  @Test
+  void testSameReport() {
+    Node left = new Node("a", asList(new Node("b"), new Node("c"), new Node("d")));
+    left.properties.put("key", new Node("e"));
+    left.properties.put("removed", new Node("f"));
+    left.tags.add("x");
+    Node right = new Node("a", asList(new Node("b"), new Node("y")));
+    right.properties.put("key", new Node("z"));
+    right.tags.add("w");
+
+    assertSameReport(reflectionComparator.getDifference(left, right));
+  }
+
+
+  @Test
+  void testSameReport_lenientOrder() {
+    List<Node> left = asList(new Node("a"), new Node("b"), new Node("c"));
+    List<Node> right = asList(new Node("c"), new Node("x"));
+
+    assertSameReport(ReflectionComparatorFactory.createReflectionComparator(LENIENT_ORDER)
+        .getDifference(left, right));
+  }
+
+
+  @Test
+  void testSameReport_longString() {
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      value.append(i % 10);
+    }
+
+    assertSameReport(reflectionComparator.getDifference(value.toString(), value + "x"));
+  }
+
+
+  @Test
+  void testValuesDetached() {
+    Node left = new Node("a", asList(new Node("b"), new Node("c")));
+    Node right = new Node("a", asList(new Node("x")));
+
+    ObjectDifference difference = (ObjectDifference) differenceDetacher
+        .detach(reflectionComparator.getDifference(left, right));
+
+    assertTrue(difference.getLeftValue() instanceof DetachedValue);
+    assertTrue(difference.getRightValue() instanceof DetachedValue);
+    CollectionDifference children = (CollectionDifference) difference.getFieldDifferences()
+        .get("children");
+    assertTrue(children.getLeftList().get(1) instanceof DetachedValue);
+    assertEquals("...", children.getLeftList().get(0).toString());
+    assertEquals(2, children.getLeftList().size());
+    Difference name = ((ObjectDifference) children.getElementDifferences().get(0))
+        .getFieldDifferences().get("name");
+    assertEquals("b", name.getLeftValue());
+    assertEquals("x", name.getRightValue());
+  }
+
+
+  @Test
+  void testCycle() {
+    Node left = new Node("a", new ArrayList<>());
+    Node right = new Node("b", new ArrayList<>());
+    left.children.add(left);
+    right.children.add(right);
+
+    // lazy differences can refer back to their parent
+    ObjectDifference difference = (ObjectDifference) differenceDetacher
+        .detach(reflectionComparator.getLazyDifference(left, right));
+    CollectionDifference children = (CollectionDifference) difference.getFieldDifferences()
+        .get("children");
+
+    assertSame(difference, children.getElementDifferences().get(0));
+  }
+
+
+  @Test
+  void testNull() {
+    assertNull(differenceDetacher.detach(null));
+  }
+
+
+  private void assertSameReport(Difference difference) {
+    DefaultDifferenceReport report = new DefaultDifferenceReport();
+    assertEquals(report.createReport(difference),
+        report.createReport(new DifferenceDetacher().detach(difference)));
+  }
+
+
+  private static class Node {
+
+    private final String name;
+    private final List<Node> children;
+    private final Map<String, Node> properties = new HashMap<>();
+    private final HashSet<String> tags = new HashSet<>();
+
+    Node(String name) {
+      this(name, new ArrayList<>());
+    }
+
+    Node(String name, List<Node> children) {
+      this.name = name;
+      this.children = children;
+    }
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitils.core.UnitilsException;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+
+
+/**
+ * Test class for {@link Difference#at(String)} and {@link Difference#find(String)}.
+ */
+class DifferencePathTest {
+
+  private final ReflectionComparator reflectionComparator =
+      ReflectionComparatorFactory.createReflectionComparator();
+
+  private Difference difference;
+
+
+  @BeforeEach
+  void initialize() {
+    Order left = new Order(asList(new Line(1), new Line(2), new Line(3)));
+    left.linesByKey.put(42, new Line(4));
+    left.linesByKey.put("id", new Line(5));
+    Order right = new Order(asList(new Line(1), new Line(7), new Line(8)));
+    right.linesByKey.put(42, new Line(9));
+    right.linesByKey.put("id", new Line(10));
+
+    difference = reflectionComparator.getDifference(asList(left), asList(right));
+  }
+
+
+  @Test
+  void testAt() {
+    Difference result = difference.at("[0].lines[1].amount");
+
+    assertEquals(2, result.getLeftValue());
+    assertEquals(7, result.getRightValue());
+  }
+
+
+  @Test
+  void testAt_root() {
+    assertSame(difference, difference.at(""));
+  }
+
+
+  @Test
+  void testAt_notDifferent() {
+    assertNull(difference.at("[0].lines[0]"));
+    assertNull(difference.at("[0].unknown"));
+  }
+
+
+  @Test
+  void testAt_sameAsInnerDifference() {
+    Difference lineDifference = difference.at("[0].lines[2]");
+
+    assertSame(((ObjectDifference) lineDifference).getFieldDifferences().get("amount"),
+        difference.at("[0].lines[2].amount"));
+  }
+
+
+  @Test
+  void testAt_mapKey() {
+    assertEquals(4, difference.at("[0].linesByKey[key=42].amount").getLeftValue());
+    assertEquals(5, difference.at("[0].linesByKey[key=\"id\"].amount").getLeftValue());
+  }
+
+
+  @Test
+  void testAt_unquotedStringKey() {
+    assertEquals(5, difference.at("[0].linesByKey[ key = id ].amount").getLeftValue());
+  }
+
+
+  @Test
+  void testAt_lenientOrder() {
+    List<Line> left = asList(new Line(1), new Line(2));
+    List<Line> right = asList(new Line(3), new Line(1));
+
+    Difference result = ReflectionComparatorFactory.createReflectionComparator(LENIENT_ORDER)
+        .getDifference(left, right);
+
+    assertEquals(2, result.at("[1].amount").getLeftValue());
+    assertEquals(3, result.at("[1].amount").getRightValue());
+  }
+
+
+  @Test
+  void testAt_missingBracket() {
+    assertThrows(UnitilsException.class, () -> difference.at("[0].lines[1"));
+  }
+
+
+  @Test
+  void testFind() {
+    Map<String, Difference> result = difference.find("[0].lines[*].amount");
+
+    assertEquals(asList("[0].lines[1].amount", "[0].lines[2].amount"),
+        asList(result.keySet().toArray()));
+  }
+
+
+  @Test
+  void testFind_anyDepth() {
+    Map<String, Difference> result = difference.find("**.amount");
+
+    assertEquals(new HashSet<>(asList(
+        "[0].lines[1].amount",
+        "[0].lines[2].amount",
+        "[0].linesByKey[key=42].amount",
+        "[0].linesByKey[key=\"id\"].amount"
+    )), result.keySet());
+  }
+
+
+  @Test
+  void testFind_mapKeys() {
+    assertEquals(2, difference.find("[0].linesByKey[key=*]").size());
+  }
+
+
+  @Test
+  void testFind_noMatch() {
+    assertEquals(0, difference.find("**.unknown").size());
+  }
+
+
+  @Test
+  void testSharedDifference() {
+    Line left = new Line(1);
+    Line right = new Line(2);
+    Difference sharedDifference = reflectionComparator
+        .getDifference(new LinePair(left, left), new LinePair(right, right));
+
+    assertSame(sharedDifference.at("first"), sharedDifference.at("second"));
+    assertSame(sharedDifference.at("first.amount"), sharedDifference.at("second.amount"));
+    assertEquals(new HashSet<>(asList("first.amount", "second.amount")),
+        sharedDifference.find("**.amount").keySet());
+  }
+
+
+  private static class Order {
+
+    private final List<Line> lines;
+    private final Map<Object, Line> linesByKey = new LinkedHashMap<>();
+
+    Order(List<Line> lines) {
+      this.lines = lines;
+    }
+  }
+
+  private static class Line {
+
+    private final int amount;
+
+    Line(int amount) {
+      this.amount = amount;
+    }
+  }
+
+  private static class LinePair {
+
+    private final Line first;
+    private final Line second;
+
+    LinePair(Line first, Line second) {
+      this.first = first;
+      this.second = second;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+import org.unitils.reflectionassert.difference.UnorderedCollectionDifference;
+
+
+/**
+ * Test class for the compact internals of the {@link Difference} classes.
+ */
+class DifferenceTest {
+
+  private final Difference difference1 = new Difference("1", 1, 2);
+  private final Difference difference2 = new Difference("2", 1, 2);
+  private final Difference difference3 = new Difference("3", 1, 2);
+
+
+  @Test
+  void testElementDifferences() {
+    CollectionDifference difference = new CollectionDifference("", null, null, emptyList(),
+        emptyList());
+    difference.addElementDifference(5, difference2);
+    difference.addElementDifference(9, difference3);
+    difference.addElementDifference(1, difference1);
+    difference.addElementDifference(5, difference1);
+
+    Map<Integer, Difference> elementDifferences = difference.getElementDifferences();
+    assertEquals(asList(1, 5, 9), new ArrayList<>(elementDifferences.keySet()));
+    assertEquals(asList(difference1, difference1, difference3),
+        new ArrayList<>(elementDifferences.values()));
+    assertSame(difference3, elementDifferences.get(9));
+    assertNull(elementDifferences.get(2));
+    assertNull(elementDifferences.get("9"));
+    assertTrue(elementDifferences.containsKey(1));
+    assertFalse(elementDifferences.containsKey(0));
+  }
+
+
+  @Test
+  void testManyElementDifferences() {
+    CollectionDifference difference = new CollectionDifference("", null, null, emptyList(),
+        emptyList());
+    for (int i = 999; i >= 0; i -= 2) {
+      difference.addElementDifference(i, difference1);
+    }
+    for (int i = 0; i < 1000; i += 2) {
+      difference.addElementDifference(i, difference2);
+    }
+
+    Map<Integer, Difference> elementDifferences = difference.getElementDifferences();
+    assertEquals(1000, elementDifferences.size());
+    int expectedIndex = 0;
+    for (Map.Entry<Integer, Difference> entry : elementDifferences.entrySet()) {
+      assertEquals(expectedIndex, (int) entry.getKey());
+      assertSame(expectedIndex % 2 == 0 ? difference2 : difference1, entry.getValue());
+      expectedIndex++;
+    }
+  }
+
+
+  @Test
+  void testFieldDifferences() {
+    ObjectDifference difference = new ObjectDifference("", null, null);
+    difference.addFieldDifference("b", difference1);
+    difference.addFieldDifference("a", difference2);
+    difference.addFieldDifference(new String("b"), difference3);
+
+    Map<String, Difference> fieldDifferences = difference.getFieldDifferences();
+    assertEquals(asList("b", "a"), new ArrayList<>(fieldDifferences.keySet()));
+    assertSame(difference3, fieldDifferences.get("b"));
+    assertNull(fieldDifferences.get("c"));
+  }
+
+
+  @Test
+  void testUnorderedElementDifferences() {
+    UnorderedCollectionDifference difference = new UnorderedCollectionDifference("", null, null,
+        emptyList(), emptyList());
+    difference.addElementDifference(0, 1, difference1);
+    difference.addElementDifference(0, 0, null);
+    difference.addElementDifference(1, 0, difference2);
+    difference.setBestMatchingIndexes(1, 0);
+
+    assertSame(difference1, difference.getElementDifference(0, 1));
+    assertNull(difference.getElementDifference(0, 0));
+    assertTrue(difference.getElementDifferences().get(0).containsKey(0));
+    assertNull(difference.getElementDifference(2, 0));
+    assertEquals(0, (int) difference.getBestMatchingIndexes().get(1));
+  }
+
+
+  @Test
+  void testRemoveDifferences() {
+    CollectionDifference collectionDifference = new CollectionDifference("", null, null,
+        emptyList(), emptyList());
+    collectionDifference.addElementDifference(1, difference1);
+    collectionDifference.addElementDifference(3, difference2);
+    collectionDifference.addElementDifference(5, difference3);
+    Map<Integer, Difference> elementDifferences = collectionDifference.getElementDifferences();
+    assertSame(difference2, elementDifferences.remove(3));
+    assertNull(elementDifferences.remove(4));
+    elementDifferences.values().removeIf(difference -> difference == difference1);
+    assertEquals(asList(5), new ArrayList<>(elementDifferences.keySet()));
+    elementDifferences.clear();
+    assertFalse(collectionDifference.hasElementDifferences());
+
+    ObjectDifference objectDifference = new ObjectDifference("", null, null);
+    objectDifference.addFieldDifference("a", difference1);
+    objectDifference.addFieldDifference("b", difference2);
+    objectDifference.addFieldDifference("c", difference3);
+    Map<String, Difference> fieldDifferences = objectDifference.getFieldDifferences();
+    assertSame(difference2, fieldDifferences.remove("b"));
+    fieldDifferences.keySet().removeIf("a"::equals);
+    assertEquals(asList("c"), new ArrayList<>(fieldDifferences.keySet()));
+    fieldDifferences.clear();
+    assertFalse(objectDifference.hasFieldDifferences());
+  }
+
+
+  @Test
+  void testFormattedMessage() {
+    Difference difference = ReflectionComparatorFactory.createReflectionComparator()
+        .getDifference(new Left(), new Right());
+
+    assertEquals("Different classes. Left: " + Left.class + ", right: " + Right.class,
+        difference.getMessage());
+    assertEquals("Different: a, 1", new Difference("Different: %s, %s", new Object[]{"a", 1},
+        null, null).getMessage());
+  }
+
+
+  private static class Left {
+  }
+
+
+  private static class Right {
+  }
+}
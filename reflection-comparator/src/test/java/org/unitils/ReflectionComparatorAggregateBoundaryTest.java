@@ -0,0 +1,300 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.AggregateBoundary;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.ReflectionComparatorOptions;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for comparisons that stop at the
+ * boundary of the compared aggregates.
+ */
+class ReflectionComparatorAggregateBoundaryTest {
+
+  private static final AggregateBoundary BOUNDARY = AggregateBoundary.entities()
+      .withEntityAnnotation(TestEntity.class, TestId.class);
+
+
+  @Test
+  void testReferencedEntity_sameId() {
+    Order left = new Order(1L, "A", new Customer(7L, "John"));
+    Order right = new Order(1L, "A", new Customer(7L, "Jane"));
+
+    assertNull(createReflectionComparator(BOUNDARY).getDifference(left, right));
+  }
+
+
+  @Test
+  void testReferencedEntity_differentId() {
+    Order left = new Order(1L, "A", new Customer(7L, "John"));
+    Order right = new Order(1L, "A", new Customer(8L, "John"));
+
+    ObjectDifference difference =
+        (ObjectDifference) createReflectionComparator(BOUNDARY).getDifference(left, right);
+
+    ObjectDifference customerDifference =
+        (ObjectDifference) difference.getFieldDifferences().get("customer");
+    assertEquals("Different entity identifiers", customerDifference.getMessage());
+    assertEquals(
+        asList("<entity id>"),
+        new ArrayList<>(customerDifference.getFieldDifferences().keySet())
+    );
+  }
+
+
+  @Test
+  void testReferencedEntity_notTraversed() {
+    Customer leftCustomer = new Customer(7L, "John");
+    Customer rightCustomer = new Customer(7L, "John");
+    Order left = new Order(1L, "A", leftCustomer);
+    Order right = new Order(1L, "A", rightCustomer);
+    leftCustomer.orders.add(left);
+    leftCustomer.orders.add(new Order(2L, "B", leftCustomer));
+    rightCustomer.orders.add(right);
+
+    assertNull(createReflectionComparator(BOUNDARY).getDifference(left, right));
+  }
+
+
+  @Test
+  void testSharedEntity_referencedAndRoot() {
+    Customer leftCustomer = new Customer(1L, "John");
+    Customer rightCustomer = new Customer(1L, "Jane");
+    Wrapper left = new Wrapper(new Order(1L, "A", leftCustomer), leftCustomer);
+    Wrapper right = new Wrapper(new Order(1L, "A", rightCustomer), rightCustomer);
+
+    assertFalse(createReflectionComparator(BOUNDARY).isEqual(left, right));
+    ObjectDifference difference =
+        (ObjectDifference) createReflectionComparator(BOUNDARY).getDifference(left, right);
+    assertEquals(asList("customer"), new ArrayList<>(difference.getFieldDifferences().keySet()));
+    assertNotNull(difference.at("customer.name"));
+  }
+
+
+  @Test
+  void testSharedEntity_rootAndReferenced() {
+    Customer leftCustomer = new Customer(1L, "John");
+    Customer rightCustomer = new Customer(1L, "Jane");
+    CustomerFirstWrapper left =
+        new CustomerFirstWrapper(leftCustomer, new Order(1L, "A", leftCustomer));
+    CustomerFirstWrapper right =
+        new CustomerFirstWrapper(rightCustomer, new Order(1L, "A", rightCustomer));
+
+    ObjectDifference difference =
+        (ObjectDifference) createReflectionComparator(BOUNDARY).getDifference(left, right);
+
+    assertEquals(asList("customer"), new ArrayList<>(difference.getFieldDifferences().keySet()));
+  }
+
+
+  @Test
+  void testRootEntity_comparedByFields() {
+    Order left = new Order(1L, "A", new Customer(7L, "John"));
+    Order right = new Order(1L, "B", new Customer(7L, "John"));
+
+    ObjectDifference difference =
+        (ObjectDifference) createReflectionComparator(BOUNDARY).getDifference(left, right);
+
+    assertEquals(asList("number"), new ArrayList<>(difference.getFieldDifferences().keySet()));
+  }
+
+
+  @Test
+  void testRootEntities_inCollection() {
+    Customer customer = new Customer(7L, "John");
+    List<Order> left = asList(new Order(1L, "A", customer), new Order(2L, "B", customer));
+    List<Order> right = asList(new Order(1L, "A", customer), new Order(2L, "C", customer));
+
+    CollectionDifference difference =
+        (CollectionDifference) createReflectionComparator(BOUNDARY).getDifference(left, right);
+
+    assertEquals(1, difference.getElementDifferences().size());
+    assertTrue(difference.getElementDifferences().containsKey(1));
+  }
+
+
+  @Test
+  void testAggregateMember_comparedByFields() {
+    Order left = new Order(1L, "A", null);
+    Order right = new Order(1L, "A", null);
+    left.lines.add(new OrderLine(3L, "apple", left));
+    right.lines.add(new OrderLine(3L, "pear", right));
+
+    assertNull(createReflectionComparator(BOUNDARY).getDifference(left, right));
+    assertFalse(createReflectionComparator(BOUNDARY.withAggregateMembers(OrderLine.class))
+        .isEqual(left, right));
+  }
+
+
+  @Test
+  void testReferencedEntity_withoutIds() {
+    Order left = new Order(1L, "A", new Customer(null, "John"));
+    Order right = new Order(1L, "A", new Customer(null, "Jane"));
+
+    assertFalse(createReflectionComparator(BOUNDARY).isEqual(left, right));
+  }
+
+
+  @Test
+  void testReferencedEntity_differentType() {
+    AggregateBoundary boundary = AggregateBoundary.entities()
+        .withEntityType(Note.class, "id")
+        .withEntityType(Customer.class, (Customer customer) -> customer.id)
+        .withEntityType(Supplier.class, "id");
+    Note left = new Note(1L, new Customer(7L, "John"));
+    Note right = new Note(1L, new Supplier(7L));
+
+    ObjectDifference difference =
+        (ObjectDifference) createReflectionComparator(boundary).getDifference(left, right);
+
+    Difference subjectDifference = difference.getFieldDifferences().get("subject");
+    assertTrue(subjectDifference.getMessage().startsWith("Different entity types"));
+  }
+
+
+  @Test
+  void testNoBoundary() {
+    Order left = new Order(1L, "A", new Customer(7L, "John"));
+    Order right = new Order(1L, "A", new Customer(7L, "Jane"));
+
+    assertFalse(createReflectionComparator(null).isEqual(left, right));
+  }
+
+
+  private ReflectionComparator createReflectionComparator(AggregateBoundary boundary) {
+    return ReflectionComparatorFactory.createReflectionComparator(
+        emptySet(),
+        ReflectionComparatorOptions.defaultOptions().withAggregateBoundary(boundary)
+    );
+  }
+
+
+  @Retention(RetentionPolicy.RUNTIME)
+  private @interface TestEntity {
+
+  }
+
+  @Retention(RetentionPolicy.RUNTIME)
+  private @interface TestId {
+
+  }
+
+  @TestEntity
+  private static class Order {
+
+    @TestId
+    private final Long id;
+    private final String number;
+    private final Customer customer;
+    private final List<OrderLine> lines = new ArrayList<>();
+
+    Order(Long id, String number, Customer customer) {
+      this.id = id;
+      this.number = number;
+      this.customer = customer;
+    }
+  }
+
+  @TestEntity
+  private static class OrderLine {
+
+    @TestId
+    private final Long id;
+    private final String product;
+    private final Order order;
+
+    OrderLine(Long id, String product, Order order) {
+      this.id = id;
+      this.product = product;
+      this.order = order;
+    }
+  }
+
+  @TestEntity
+  private static class Customer {
+
+    @TestId
+    private final Long id;
+    private final String name;
+    private final List<Order> orders = new ArrayList<>();
+
+    Customer(Long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+  private static class Wrapper {
+
+    private final Order order;
+    private final Customer customer;
+
+    Wrapper(Order order, Customer customer) {
+      this.order = order;
+      this.customer = customer;
+    }
+  }
+
+  private static class CustomerFirstWrapper {
+
+    private final Customer customer;
+    private final Order order;
+
+    CustomerFirstWrapper(Customer customer, Order order) {
+      this.customer = customer;
+      this.order = order;
+    }
+  }
+
+  private static class Supplier {
+
+    private final Long id;
+
+    Supplier(Long id) {
+      this.id = id;
+    }
+  }
+
+  private static class Note {
+
+    private final Long id;
+    private final Object subject;
+
+    Note(Long id, Object subject) {
+      this.id = id;
+      this.subject = subject;
+    }
+  }
+}
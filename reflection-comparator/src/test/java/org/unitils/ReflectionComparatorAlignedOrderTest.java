@@ -0,0 +1,174 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createReflectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.ALIGNED_ORDER;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.comparator.impl.AlignedCollectionComparator;
+import org.unitils.reflectionassert.difference.AlignedCollectionDifference;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.report.impl.DefaultDifferenceReport;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for the aligned order mode.
+ */
+class ReflectionComparatorAlignedOrderTest {
+
+  /* Class under test */
+  private ReflectionComparator reflectionComparator;
+
+
+  @BeforeEach
+  void setUp() {
+    reflectionComparator = createReflectionComparator(ALIGNED_ORDER);
+  }
+
+
+  @Test
+  void testEqual() {
+    assertNull(reflectionComparator.getDifference(asList("a", "b", "c"), asList("a", "b", "c")));
+    assertNull(reflectionComparator.getDifference(emptyList(), new LinkedList<>()));
+    assertNull(reflectionComparator.getDifference(new int[]{1, 2}, asList(1, 2)));
+  }
+
+
+  @Test
+  void testInsertion() {
+    List<Integer> left = createList(100_000);
+    List<Integer> right = new ArrayList<>(left);
+    right.add(3, -1);
+
+    AlignedCollectionDifference difference = (AlignedCollectionDifference) reflectionComparator
+        .getDifference(left, right);
+
+    assertTrue(difference.getElementDifferences().isEmpty());
+    assertTrue(difference.getLeftMissingIndexes().isEmpty());
+    assertEquals(singletonList(3), difference.getRightMissingIndexes());
+  }
+
+
+  @Test
+  void testInputModifiedAfterComparison() {
+    List<Integer> left = createList(10);
+    List<Integer> right = new ArrayList<>(left);
+    right.add(3, -1);
+
+    AlignedCollectionDifference difference = (AlignedCollectionDifference) reflectionComparator
+        .getDifference(left, right);
+    right.set(3, 7);
+
+    assertEquals(-1, difference.getRightList().get(3));
+  }
+
+
+  @Test
+  void testDeletion() {
+    AlignedCollectionDifference difference = (AlignedCollectionDifference) reflectionComparator
+        .getDifference(asList("a", "b", "c", "d"), asList("a", "c", "d"));
+
+    assertTrue(difference.getElementDifferences().isEmpty());
+    assertEquals(singletonList(1), difference.getLeftMissingIndexes());
+    assertTrue(difference.getRightMissingIndexes().isEmpty());
+  }
+
+
+  @Test
+  void testChangedElementAfterInsertion() {
+    AlignedCollectionDifference difference = (AlignedCollectionDifference) reflectionComparator
+        .getDifference(asList("a", "b", "c", "d"), asList("x", "a", "b", "y", "d"));
+
+    assertEquals(singletonList(0), difference.getRightMissingIndexes());
+    assertTrue(difference.getLeftMissingIndexes().isEmpty());
+    assertEquals(1, difference.getElementDifferences().size());
+    Difference elementDifference = difference.getElementDifferences().get(2);
+    assertEquals("c", elementDifference.getLeftValue());
+    assertEquals("y", elementDifference.getRightValue());
+    assertEquals(3, difference.getRightIndex(2));
+  }
+
+
+  @Test
+  void testPrimitiveArrays() {
+    AlignedCollectionDifference difference = (AlignedCollectionDifference) reflectionComparator
+        .getDifference(new long[]{1, 2, 3, 4, 5}, new long[]{1, 2, 4, 5, 6});
+
+    assertTrue(difference.getElementDifferences().isEmpty());
+    assertEquals(singletonList(2), difference.getLeftMissingIndexes());
+    assertEquals(singletonList(4), difference.getRightMissingIndexes());
+  }
+
+
+  @Test
+  void testEditDistanceTooLarge() {
+    int size = AlignedCollectionComparator.MAX_EDIT_DISTANCE + 10;
+    List<Integer> left = createList(size);
+    List<Integer> right = new ArrayList<>(left);
+    for (int i = 0; i < size; i += 2) {
+      right.set(i, -i - 1);
+    }
+
+    CollectionDifference difference = (CollectionDifference) reflectionComparator
+        .getDifference(left, right);
+
+    assertFalse(difference instanceof AlignedCollectionDifference);
+    assertEquals((size + 1) / 2, difference.getElementDifferences().size());
+  }
+
+
+  @Test
+  void testOnlyFirstDifference() {
+    CollectionDifference difference = (CollectionDifference) reflectionComparator
+        .getDifference(asList("a", "b", "c"), asList("x", "a", "b", "c"), true);
+
+    assertEquals(1, difference.getElementDifferences().size());
+  }
+
+
+  @Test
+  void testReport() {
+    String report = new DefaultDifferenceReport().createReport(reflectionComparator
+        .getDifference(asList("a", "b", "c", "d"), asList("x", "a", "b", "y")));
+
+    assertTrue(report.contains("[2,3]: expected: \"c\", actual: \"y\""), report);
+    assertTrue(report.contains("[3,x]: expected: \"d\", actual: --no match--"), report);
+    assertTrue(report.contains("[x,0]: expected: --no match--, actual: \"x\""), report);
+  }
+
+
+  private static List<Integer> createList(int size) {
+    List<Integer> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(i);
+    }
+    return list;
+  }
+}
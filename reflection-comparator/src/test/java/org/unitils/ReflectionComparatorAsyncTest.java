@@ -0,0 +1,190 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ComparisonBudget;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.comparator.impl.CollectionComparator;
+import org.unitils.reflectionassert.comparator.impl.ObjectComparator;
+import org.unitils.reflectionassert.comparator.impl.SimpleCasesComparator;
+import org.unitils.reflectionassert.difference.Difference;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for asynchronous comparisons.
+ */
+class ReflectionComparatorAsyncTest {
+
+  /* Class under test */
+  private final ReflectionComparator reflectionComparator =
+      ReflectionComparatorFactory.createReflectionComparator();
+
+
+  @Test
+  void testEqual() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      CompletableFuture<Difference> equal = reflectionComparator
+          .getDifferenceAsync(asList(1, 2), asList(1, 2), executor);
+      CompletableFuture<Difference> different = reflectionComparator
+          .getDifferenceAsync(asList(1, 2), asList(1, 3), executor);
+
+      assertNull(equal.get());
+      assertEquals("Different elements", different.get().getMessage());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+
+  @Test
+  void testBudget() {
+    Difference difference = reflectionComparator.getDifferenceAsync(
+        asList(asList(1)),
+        asList(asList(1)),
+        ComparisonBudget.unlimited().withMaxDepth(1),
+        Runnable::run
+    ).join();
+
+    assertTrue(difference.isTruncated());
+  }
+
+
+  @Test
+  void testCancelledBeforeStart() {
+    Queue<Runnable> tasks = new ArrayDeque<>();
+    List<String> compared = new ArrayList<>();
+    CompletableFuture<Difference> future = createReflectionComparator(compared::add)
+        .getDifferenceAsync(values("a", "b"), values("a", "b"), tasks::add);
+
+    future.cancel(true);
+    tasks.remove().run();
+
+    assertTrue(future.isCancelled());
+    assertTrue(compared.isEmpty());
+  }
+
+
+  @Test
+  void testCancelledDuringComparison() {
+    List<String> compared = new ArrayList<>();
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[1];
+    Queue<Runnable> tasks = new ArrayDeque<>();
+    ReflectionComparator cancellingComparator = createReflectionComparator(value -> {
+      compared.add(value);
+      if (value.equals("cancel")) {
+        futures[0].cancel(true);
+      }
+    });
+    futures[0] = cancellingComparator.getDifferenceAsync(
+        values("a", "cancel", "b"),
+        values("a", "cancel", "b"),
+        tasks::add
+    );
+
+    tasks.remove().run();
+
+    assertTrue(futures[0].isCancelled());
+    assertEquals(asList("a", "cancel"), compared);
+  }
+
+
+  @Test
+  void testInterrupted() {
+    List<String> compared = new ArrayList<>();
+    ReflectionComparator interruptingComparator = createReflectionComparator(value -> {
+      compared.add(value);
+      Thread.currentThread().interrupt();
+    });
+
+    CompletableFuture<Difference> future = interruptingComparator
+        .getDifferenceAsync(values("a", "b"), values("a", "b"), Runnable::run);
+
+    assertTrue(Thread.interrupted());
+    assertTrue(future.isCancelled());
+    assertThrows(CancellationException.class, future::get);
+    assertEquals(asList("a"), compared);
+  }
+
+
+  private static List<Value> values(String... names) {
+    List<Value> values = new ArrayList<>();
+    for (String name : names) {
+      values.add(new Value(name));
+    }
+    return values;
+  }
+
+
+  /**
+   * Creates a comparator that passes the name of every compared Value to the given listener.
+   */
+  private static ReflectionComparator createReflectionComparator(Consumer<String> listener) {
+    Comparator listeningComparator = new Comparator() {
+
+      @Override
+      public boolean canCompare(Object left, Object right) {
+        return left instanceof Value;
+      }
+
+      @Override
+      public Difference compare(
+          Object left,
+          Object right,
+          boolean onlyFirstDifference,
+          ReflectionComparator reflectionComparator
+      ) {
+        String name = ((Value) left).name;
+        listener.accept(name);
+        return name.equals(((Value) right).name) ? null : new Difference("Different", left, right);
+      }
+    };
+    return new ReflectionComparator(asList(
+        listeningComparator,
+        new SimpleCasesComparator(),
+        new CollectionComparator(),
+        new ObjectComparator()
+    ));
+  }
+
+
+  private static class Value {
+
+    private final String name;
+
+    Value(String name) {
+      this.name = name;
+    }
+  }
+}
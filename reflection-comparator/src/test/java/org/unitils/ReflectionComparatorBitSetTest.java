@@ -0,0 +1,238 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createReflectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+
+import java.lang.Character.UnicodeScript;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.MapDifference;
+import org.unitils.reflectionassert.difference.SetDifference;
+import org.unitils.reflectionassert.report.impl.DefaultDifferenceReport;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests with EnumSets, EnumMaps and BitSets.
+ */
+class ReflectionComparatorBitSetTest {
+
+  /* Class under test */
+  private ReflectionComparator reflectionComparator;
+
+
+  @BeforeEach
+  void setUp() {
+    reflectionComparator = createReflectionComparator();
+  }
+
+
+  @Test
+  void testEnumSets_equal() {
+    assertNull(reflectionComparator.getDifference(
+        EnumSet.of(Permission.READ, Permission.ADMIN),
+        EnumSet.of(Permission.ADMIN, Permission.READ)
+    ));
+    assertNull(reflectionComparator.getDifference(
+        EnumSet.noneOf(Permission.class),
+        EnumSet.noneOf(Permission.class)
+    ));
+  }
+
+
+  @Test
+  void testEnumSets_differentConstants() {
+    SetDifference difference = (SetDifference) reflectionComparator.getDifference(
+        EnumSet.of(Permission.READ, Permission.WRITE),
+        EnumSet.of(Permission.READ, Permission.EXECUTE, Permission.ADMIN)
+    );
+
+    assertEquals(singletonList(Permission.WRITE), difference.getLeftMissingElements());
+    assertEquals(
+        asList(Permission.EXECUTE, Permission.ADMIN),
+        difference.getRightMissingElements()
+    );
+  }
+
+
+  @Test
+  void testEnumSets_onlyFirstDifference() {
+    SetDifference difference = (SetDifference) reflectionComparator.getDifference(
+        EnumSet.of(Permission.WRITE, Permission.ADMIN),
+        EnumSet.of(Permission.READ),
+        true
+    );
+
+    assertEquals(emptyList(), difference.getLeftMissingElements());
+    assertEquals(singletonList(Permission.READ), difference.getRightMissingElements());
+  }
+
+
+  @Test
+  void testLargeEnumSets() {
+    EnumSet<UnicodeScript> left = EnumSet.allOf(UnicodeScript.class);
+    EnumSet<UnicodeScript> right = EnumSet.allOf(UnicodeScript.class);
+    assertNull(reflectionComparator.getDifference(left, right));
+
+    right.remove(UnicodeScript.UNKNOWN);
+    SetDifference difference = (SetDifference) createReflectionComparator()
+        .getDifference(left, right);
+
+    assertEquals(singletonList(UnicodeScript.UNKNOWN), difference.getLeftMissingElements());
+    assertEquals(emptyList(), difference.getRightMissingElements());
+  }
+
+
+  @Test
+  void testEnumSets_differentEnumTypes() {
+    CollectionDifference difference = (CollectionDifference) reflectionComparator.getDifference(
+        EnumSet.of(Permission.READ),
+        EnumSet.of(Feature.BETA)
+    );
+
+    assertEquals(1, difference.getElementDifferences().size());
+  }
+
+
+  @Test
+  void testEnumSets_lenientOrder() {
+    ReflectionComparator lenientComparator = createReflectionComparator(LENIENT_ORDER);
+
+    assertNull(lenientComparator.getDifference(
+        EnumSet.of(Permission.READ, Permission.ADMIN),
+        EnumSet.of(Permission.ADMIN, Permission.READ)
+    ));
+    assertTrue(lenientComparator.getDifference(
+        EnumSet.of(Permission.READ),
+        EnumSet.of(Permission.ADMIN)
+    ) instanceof SetDifference);
+  }
+
+
+  @Test
+  void testBitSets_equalWithDifferentCapacity() {
+    BitSet left = new BitSet(10);
+    left.set(3);
+    left.set(7);
+    BitSet right = new BitSet(10_000);
+    right.set(7);
+    right.set(3);
+
+    assertNull(reflectionComparator.getDifference(left, right));
+  }
+
+
+  @Test
+  void testBitSets_differentBits() {
+    BitSet left = new BitSet();
+    left.set(1);
+    left.set(100);
+    BitSet right = new BitSet();
+    right.set(1);
+    right.set(64);
+    right.set(1000);
+
+    SetDifference difference = (SetDifference) reflectionComparator.getDifference(left, right);
+
+    assertEquals(singletonList(100), difference.getLeftMissingElements());
+    assertEquals(asList(64, 1000), difference.getRightMissingElements());
+  }
+
+
+  @Test
+  void testBitSets_report() {
+    BitSet left = new BitSet();
+    left.set(5);
+    BitSet right = new BitSet();
+    right.set(6);
+
+    String report = new DefaultDifferenceReport()
+        .createReport(reflectionComparator.getDifference(left, right));
+
+    assertTrue(report.contains("BitSet{5}"), report);
+    assertTrue(report.contains("[5]: expected: 5, actual: --no match--"), report);
+    assertTrue(report.contains("[6]: expected: --no match--, actual: 6"), report);
+  }
+
+
+  @Test
+  void testEnumMaps_equal() {
+    EnumMap<Permission, String> left = new EnumMap<>(Permission.class);
+    left.put(Permission.READ, "r");
+    left.put(Permission.ADMIN, "a");
+    EnumMap<Permission, String> right = new EnumMap<>(left);
+
+    assertNull(reflectionComparator.getDifference(left, right));
+  }
+
+
+  @Test
+  void testEnumMaps_differentValuesAndKeys() {
+    EnumMap<Permission, String> left = new EnumMap<>(Permission.class);
+    left.put(Permission.READ, "r");
+    left.put(Permission.WRITE, "w");
+    left.put(Permission.ADMIN, "a");
+    EnumMap<Permission, String> right = new EnumMap<>(Permission.class);
+    right.put(Permission.READ, "r");
+    right.put(Permission.EXECUTE, "x");
+    right.put(Permission.ADMIN, "xxx");
+
+    MapDifference difference = (MapDifference) reflectionComparator.getDifference(left, right);
+
+    assertEquals(singletonList(Permission.WRITE), difference.getLeftMissingKeys());
+    assertEquals(singletonList(Permission.EXECUTE), difference.getRightMissingKeys());
+    assertEquals(1, difference.getValueDifferences().size());
+    assertEquals("a", difference.getValueDifferences().get(Permission.ADMIN).getLeftValue());
+  }
+
+
+  @Test
+  void testEnumMaps_onlyFirstDifference() {
+    EnumMap<Permission, String> left = new EnumMap<>(Permission.class);
+    left.put(Permission.WRITE, "w");
+    left.put(Permission.ADMIN, "a");
+    EnumMap<Permission, String> right = new EnumMap<>(Permission.class);
+    right.put(Permission.WRITE, "xxx");
+
+    MapDifference difference = (MapDifference) reflectionComparator
+        .getDifference(left, right, true);
+
+    assertEquals(1, difference.getValueDifferences().size());
+    assertEquals(emptyList(), difference.getLeftMissingKeys());
+  }
+
+
+  private enum Permission {
+    READ, WRITE, EXECUTE, ADMIN
+  }
+
+
+  private enum Feature {
+    BETA
+  }
+}
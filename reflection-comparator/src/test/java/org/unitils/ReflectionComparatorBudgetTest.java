@@ -0,0 +1,253 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ComparisonBudget;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.comparator.impl.CollectionComparator;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.report.impl.DefaultDifferenceReport;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for comparisons with a
+ * {@link ComparisonBudget}.
+ */
+class ReflectionComparatorBudgetTest {
+
+  /* Class under test */
+  private ReflectionComparator reflectionComparator;
+
+
+  @BeforeEach
+  void setUp() {
+    reflectionComparator = ReflectionComparatorFactory.createReflectionComparator();
+  }
+
+
+  @Test
+  void testUnlimited() {
+    ComparisonBudget budget = ComparisonBudget.unlimited();
+
+    assertNull(reflectionComparator.getDifference(asList(1, 2), asList(1, 2), budget));
+    Difference difference = reflectionComparator.getDifference(asList(1, 2), asList(1, 3), budget);
+    assertFalse(difference.isTruncated());
+    assertNull(difference.getTruncationReason());
+  }
+
+
+  @Test
+  void testMaxNodes_lenientOrder() {
+    ReflectionComparator lenientComparator = ReflectionComparatorFactory
+        .createReflectionComparator(EnumSet.of(LENIENT_ORDER));
+    List<Element> left = createElements(0, 300);
+    List<Element> right = createElements(1000, 300);
+
+    Difference difference = lenientComparator
+        .getDifference(left, right, ComparisonBudget.unlimited().withMaxNodes(1000));
+
+    assertTrue(difference.isTruncated());
+    assertEquals("more than 1000 values compared", difference.getTruncationReason());
+  }
+
+
+  @Test
+  void testMaxDifferences() {
+    CollectionDifference difference = (CollectionDifference) reflectionComparator.getDifference(
+        asList(1, 2, 3, 4, 5),
+        asList(6, 7, 8, 9, 10),
+        ComparisonBudget.unlimited().withMaxDifferences(3)
+    );
+
+    assertEquals(3, difference.getElementDifferences().size());
+    assertTrue(difference.isTruncated());
+    assertEquals("maximum of 3 differences reached", difference.getTruncationReason());
+  }
+
+
+  @Test
+  void testMaxDifferences_noneLeft() {
+    Difference difference = reflectionComparator.getDifference(
+        asList(1, 2, 3),
+        asList(6, 7, 8),
+        ComparisonBudget.unlimited().withMaxDifferences(3)
+    );
+
+    assertFalse(difference.isTruncated());
+  }
+
+
+  @Test
+  void testMaxDepth() {
+    Element left = new Element(1, new Element(2, null));
+    Element right = new Element(1, new Element(3, null));
+
+    Difference shallow = reflectionComparator
+        .getDifference(left, right, ComparisonBudget.unlimited().withMaxDepth(2));
+    Difference deep = reflectionComparator
+        .getDifference(left, right, ComparisonBudget.unlimited().withMaxDepth(3));
+
+    assertTrue(shallow.isTruncated());
+    assertEquals("values nested deeper than 2 levels skipped", shallow.getTruncationReason());
+    assertEquals("Comparison stopped early: values nested deeper than 2 levels skipped",
+        shallow.getMessage());
+    assertFalse(deep.isTruncated());
+  }
+
+
+  @Test
+  void testTimeout() {
+    List<Element> elements = createElements(0, 5000);
+
+    Difference difference = reflectionComparator.getDifference(
+        elements,
+        createElements(0, 5000),
+        ComparisonBudget.unlimited().withTimeout(Duration.ZERO)
+    );
+
+    assertTrue(difference.isTruncated());
+    assertEquals("timeout of PT0S exceeded", difference.getTruncationReason());
+  }
+
+
+  @Test
+  void testCachedResultsCleared() {
+    Element left = new Element(1, new Element(2, null));
+    Element right = new Element(1, new Element(3, null));
+
+    Difference truncated = reflectionComparator
+        .getDifference(left, right, ComparisonBudget.unlimited().withMaxNodes(1));
+
+    assertTrue(truncated.isTruncated());
+    assertNotNull(reflectionComparator.getDifference(left, right));
+    assertFalse(reflectionComparator.isEqual(left, right));
+  }
+
+
+  @Test
+  void testReport() {
+    String report = new DefaultDifferenceReport().createReport(reflectionComparator.getDifference(
+        asList(1, 2, 3),
+        asList(4, 5, 6),
+        ComparisonBudget.unlimited().withMaxDifferences(1)
+    ));
+
+    assertTrue(report.contains(
+        "--- Comparison stopped early, the differences are incomplete: "
+            + "maximum of 1 differences reached ---"), report);
+  }
+
+
+  @Test
+  void testMaxDifferences_cachedDifferencesNotCounted() {
+    Element left = new Element(1, null);
+    Element right = new Element(2, null);
+
+    CollectionDifference difference = (CollectionDifference) reflectionComparator.getDifference(
+        asList(left, left, left),
+        asList(right, right, right),
+        ComparisonBudget.unlimited().withMaxDifferences(2)
+    );
+
+    assertFalse(difference.isTruncated());
+    assertEquals(3, difference.getElementDifferences().size());
+  }
+
+
+  @Test
+  void testMaxNodes_leafElements() {
+    List<Long> left = createLongs(10_000);
+    List<Long> right = createLongs(10_000);
+
+    Difference difference = reflectionComparator
+        .getDifference(left, right, ComparisonBudget.unlimited().withMaxNodes(1000));
+
+    assertTrue(difference.isTruncated());
+    assertEquals("more than 1000 values compared", difference.getTruncationReason());
+  }
+
+
+  @Test
+  void testMaxNodes_chunkScan() {
+    List<Long> left = createLongs(CollectionComparator.PARALLEL_THRESHOLD * 2);
+    List<Long> right = createLongs(CollectionComparator.PARALLEL_THRESHOLD * 2);
+
+    Difference difference = reflectionComparator.getDifference(
+        left,
+        right,
+        ComparisonBudget.unlimited().withMaxNodes(CollectionComparator.PARALLEL_THRESHOLD)
+    );
+
+    assertTrue(difference.isTruncated());
+    assertNull(reflectionComparator.getDifference(left, right, ComparisonBudget.unlimited()));
+  }
+
+
+  @Test
+  void testInvalidLimit() {
+    assertThrows(IllegalArgumentException.class,
+        () -> ComparisonBudget.unlimited().withMaxNodes(0));
+    assertThrows(IllegalArgumentException.class,
+        () -> ComparisonBudget.unlimited().withMaxDepth(-1));
+  }
+
+
+  private static List<Long> createLongs(int count) {
+    List<Long> values = new ArrayList<>();
+    for (long i = 0; i < count; i++) {
+      values.add(i * 1000);
+    }
+    return values;
+  }
+
+  private static List<Element> createElements(int start, int count) {
+    List<Element> elements = new ArrayList<>();
+    for (int i = start; i < start + count; i++) {
+      elements.add(new Element(i, null));
+    }
+    return elements;
+  }
+
+
+  private static class Element {
+
+    private final int value;
+    private final Element inner;
+
+    Element(int value, Element inner) {
+      this.value = value;
+      this.inner = inner;
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createReflectionComparator;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.BufferDifference;
+import org.unitils.reflectionassert.report.impl.DefaultDifferenceReport;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests with NIO buffers.
+ */
+class ReflectionComparatorBufferTest {
+
+  /* Class under test */
+  private ReflectionComparator reflectionComparator;
+
+
+  @BeforeEach
+  void setUp() {
+    reflectionComparator = createReflectionComparator();
+  }
+
+
+  @Test
+  void heapAndDirectBuffersWithSameContentAreEqual() {
+    ByteBuffer heap = ByteBuffer.wrap(createBytes(1000));
+    ByteBuffer direct = ByteBuffer.allocateDirect(2000);
+    direct.put(createBytes(1000));
+    direct.flip();
+
+    assertNull(reflectionComparator.getDifference(heap, direct));
+    assertEquals(0, direct.position());
+  }
+
+
+  @Test
+  void onlyRemainingElementsAreCompared() {
+    ByteBuffer left = ByteBuffer.wrap(new byte[]{9, 9, 1, 2, 3});
+    left.position(2);
+    ByteBuffer right = ByteBuffer.wrap(new byte[]{1, 2, 3, 8});
+    right.limit(3);
+
+    assertNull(reflectionComparator.getDifference(left, right));
+  }
+
+
+  @Test
+  void firstDifferingIndexAndWindowAreReported() {
+    byte[] leftBytes = createBytes(100);
+    byte[] rightBytes = createBytes(100);
+    rightBytes[42] = -1;
+
+    BufferDifference difference = (BufferDifference) reflectionComparator
+        .getDifference(ByteBuffer.wrap(leftBytes), ByteBuffer.wrap(rightBytes));
+
+    assertEquals(42, difference.getMismatchIndex());
+    assertEquals(34, difference.getWindowStart());
+    assertEquals(16, ((byte[]) difference.getLeftWindow()).length);
+    assertEquals(42, ((byte[]) difference.getLeftWindow())[8]);
+    assertEquals(-1, ((byte[]) difference.getRightWindow())[8]);
+  }
+
+
+  @Test
+  void byteOrderDoesNotMatterForContent() {
+    ByteBuffer left = ByteBuffer.wrap(createBytes(20)).order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer right = ByteBuffer.wrap(createBytes(20)).order(ByteOrder.BIG_ENDIAN);
+
+    assertNull(reflectionComparator.getDifference(left, right));
+
+    right.put(19, (byte) 0);
+    BufferDifference difference = (BufferDifference) createReflectionComparator()
+        .getDifference(left, right);
+    assertEquals(19, difference.getMismatchIndex());
+  }
+
+
+  @Test
+  void differentSizesAreReported() {
+    BufferDifference difference = (BufferDifference) reflectionComparator.getDifference(
+        IntBuffer.wrap(new int[]{1, 2, 3}),
+        IntBuffer.wrap(new int[]{1, 2})
+    );
+
+    assertEquals(2, difference.getMismatchIndex());
+    assertArrayEquals(new int[]{1, 2, 3}, (int[]) difference.getLeftWindow());
+    assertArrayEquals(new int[]{1, 2}, (int[]) difference.getRightWindow());
+  }
+
+
+  @Test
+  void otherBufferTypes() {
+    assertNull(reflectionComparator.getDifference(
+        CharBuffer.wrap("abc"),
+        CharBuffer.wrap(new char[]{'a', 'b', 'c'})
+    ));
+    assertNull(reflectionComparator.getDifference(
+        DoubleBuffer.wrap(new double[]{1.0, Double.NaN}),
+        DoubleBuffer.wrap(new double[]{1.0, Double.NaN})
+    ));
+  }
+
+
+  @Test
+  void reportShowsWindowOnly() {
+    byte[] rightBytes = createBytes(1000);
+    rightBytes[500] = -1;
+
+    String report = new DefaultDifferenceReport().createReport(reflectionComparator
+        .getDifference(ByteBuffer.wrap(createBytes(1000)), ByteBuffer.wrap(rightBytes)));
+
+    assertTrue(report.contains("[492..]"), report);
+    assertTrue(report.contains("-1"), report);
+  }
+
+
+  private static byte[] createBytes(int size) {
+    byte[] bytes = new byte[size];
+    for (int i = 0; i < size; i++) {
+      bytes[i] = (byte) i;
+    }
+    return bytes;
+  }
+}
@@ -19,12 +19,17 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.unitils.reflectionassert.ReflectionComparatorFactory.createReflectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.IGNORE_DEFAULTS;
+import static org.unitils.reflectionassert.comparator.impl.CollectionComparator.CHUNK_SIZE;
+import static org.unitils.reflectionassert.comparator.impl.CollectionComparator.PARALLEL_THRESHOLD;
 import static org.unitils.reflectionassert.util.InnerDifferenceFinder.getInnerDifference;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.unitils.reflectionassert.ReflectionComparator;
@@ -236,6 +241,110 @@ class ReflectionComparatorCollectionTest {
   }
 
 
+  /**
+   * Test for two large equal collections of leaf values.
+   */
+  @Test
+  void testGetAllDifferences_equalsLeafValues() {
+    List<Long> left = createLongs(1_000_000);
+    List<Long> right = createLongs(1_000_000);
+
+    assertNull(reflectionComparator.getDifference(left, right));
+  }
+
+
+  /**
+   * Test for two large collections of leaf values with a single different element.
+   */
+  @Test
+  void testGetAllDifferences_notEqualsLeafValues() {
+    List<Long> left = createLongs(1_000_000);
+    List<Long> right = createLongs(1_000_000);
+    right.set(765_432, -1L);
+
+    CollectionDifference result = (CollectionDifference) reflectionComparator
+        .getDifference(left, right);
+
+    assertEquals(1, result.getElementDifferences().size());
+    Difference difference = result.getElementDifferences().get(765_432);
+    assertEquals(765_432L, difference.getLeftValue());
+    assertEquals(-1L, difference.getRightValue());
+  }
+
+
+  /**
+   * Test for two large collections of leaf values with differences in several chunks, including
+   * the last incomplete one, and a different size.
+   */
+  @Test
+  void testGetAllDifferences_notEqualsLeafValuesInChunks() {
+    int size = PARALLEL_THRESHOLD + 7;
+    List<Long> left = createLongs(size);
+    List<Long> right = createLongs(size + 1);
+    right.set(0, -1L);
+    right.set(3 * CHUNK_SIZE + 1, -1L);
+    right.set(size - 1, -1L);
+
+    CollectionDifference result = (CollectionDifference) reflectionComparator
+        .getDifference(left, right);
+
+    assertEquals(3, result.getElementDifferences().size());
+    assertEquals(-1L, result.getElementDifferences().get(3 * CHUNK_SIZE + 1).getRightValue());
+    assertEquals(-1L, result.getElementDifferences().get(size - 1).getRightValue());
+    assertEquals(Arrays.asList(size), result.getRightMissingIndexes());
+  }
+
+
+  /**
+   * Test for large collections with elements that are not equal, but equal for the comparator.
+   */
+  @Test
+  void testGetAllDifferences_equalValuesOfOtherTypeInChunks() {
+    List<Object> left = new ArrayList<>(createLongs(PARALLEL_THRESHOLD));
+    List<Object> right = new ArrayList<>(createLongs(PARALLEL_THRESHOLD));
+    right.set(CHUNK_SIZE + 5, CHUNK_SIZE + 5);
+
+    assertNull(reflectionComparator.getDifference(left, right));
+  }
+
+
+  /**
+   * Test for collections that do not hold leaf values of a single type.
+   */
+  @Test
+  void testGetAllDifferences_mixedLeafValues() {
+    List<Object> left = Arrays.asList(1L, 2, "3", null, 5.0, 0.0);
+    List<Object> right = Arrays.asList(1L, 2L, "3", null, 5, -0.0);
+
+    CollectionDifference result = (CollectionDifference) reflectionComparator
+        .getDifference(left, right);
+
+    assertEquals(1, result.getElementDifferences().size());
+    assertEquals(-0.0, result.getElementDifferences().get(5).getRightValue());
+  }
+
+
+  /**
+   * Test for leaf values that differ but are ignored by the comparison mode.
+   */
+  @Test
+  void testGetAllDifferences_ignoredLeafValues() {
+    List<Integer> left = Arrays.asList(1, 0, 3);
+    List<Integer> right = Arrays.asList(1, 2, 3);
+
+    assertNull(createReflectionComparator(IGNORE_DEFAULTS).getDifference(left, right));
+  }
+
+
+  private List<Long> createLongs(int size) {
+    List<Long> result = new ArrayList<>(size);
+    for (long i = 0; i < size; i++) {
+      result.add(i);
+    }
+    return result;
+  }
+
+
   /**
    * Creates a collection.
    *
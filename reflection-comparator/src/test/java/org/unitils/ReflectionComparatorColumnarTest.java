@@ -0,0 +1,248 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createReflectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.IGNORE_DEFAULTS;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ComparisonBudget;
+import org.unitils.reflectionassert.FloatingPointTolerance;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.ReflectionComparatorOptions;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for large lists of objects of a
+ * single class, that are compared column by column.
+ */
+class ReflectionComparatorColumnarTest {
+
+  private static final int SIZE = 100_000;
+
+  /* Class under test */
+  private ReflectionComparator reflectionComparator;
+
+
+  @BeforeEach
+  void setUp() {
+    reflectionComparator = createReflectionComparator();
+  }
+
+
+  @Test
+  void testEqual() {
+    assertNull(reflectionComparator.getDifference(createTrades(), createTrades()));
+  }
+
+
+  @Test
+  void testDifferentPrimitiveField() {
+    List<Trade> right = createTrades();
+    right.get(777).price = -1;
+
+    assertFieldDifference(777, "price", createTrades(), right);
+  }
+
+
+  @Test
+  void testDifferentZeroSign() {
+    List<Trade> left = createTrades();
+    List<Trade> right = createTrades();
+    left.get(5).price = 0.0;
+    right.get(5).price = -0.0;
+
+    assertFieldDifference(5, "price", left, right);
+  }
+
+
+  @Test
+  void testDifferentLeafField() {
+    List<Trade> right = createTrades();
+    right.get(SIZE - 1).side = Side.SELL;
+
+    assertFieldDifference(SIZE - 1, "side", createTrades(), right);
+  }
+
+
+  @Test
+  void testDifferentReferenceField() {
+    List<Trade> right = createTrades();
+    right.get(1234).tags.add("late");
+
+    assertFieldDifference(1234, "tags", createTrades(), right);
+  }
+
+
+  @Test
+  void testDifferentSuperclassField() {
+    List<Trade> right = createTrades();
+    right.get(42).id = -1;
+
+    assertFieldDifference(42, "id", createTrades(), right);
+  }
+
+
+  @Test
+  void testNullElement() {
+    List<Trade> right = createTrades();
+    right.set(3, null);
+
+    CollectionDifference difference = (CollectionDifference) reflectionComparator
+        .getDifference(createTrades(), right);
+
+    assertEquals(1, difference.getElementDifferences().size());
+    assertNull(difference.getElementDifferences().get(3).getRightValue());
+  }
+
+
+  @Test
+  void testIgnoredDefaultValue() {
+    List<Trade> left = createTrades();
+    left.get(10).quantity = 0;
+
+    assertNull(createReflectionComparator(IGNORE_DEFAULTS).getDifference(left, createTrades()));
+  }
+
+
+  @Test
+  void testValueWithinTolerance() {
+    List<Trade> right = createTrades();
+    right.get(20).price += 1e-12;
+    ReflectionComparator toleranceComparator = ReflectionComparatorFactory
+        .createReflectionComparator(
+            emptySet(),
+            ReflectionComparatorOptions.defaultOptions()
+                .withFloatingPointTolerance(FloatingPointTolerance.absolute(1e-9))
+        );
+
+    assertNull(toleranceComparator.getDifference(createTrades(), right));
+  }
+
+
+  @Test
+  void testDeclaringTypeModes() {
+    List<Trade> right = createTrades();
+    right.get(30).tags.add(0, right.get(30).tags.remove(1));
+    ReflectionComparator scopedComparator = ReflectionComparatorFactory.createReflectionComparator(
+        emptySet(),
+        ReflectionComparatorOptions.defaultOptions()
+            .withDeclaringTypeModes(Trade.class, LENIENT_ORDER)
+    );
+
+    assertNull(scopedComparator.getDifference(createTrades(), right));
+    assertFieldDifference(30, "tags", createTrades(), right);
+  }
+
+
+  @Test
+  void testBudget() {
+    Difference difference = reflectionComparator.getDifference(
+        createPoints(),
+        createPoints(),
+        ComparisonBudget.unlimited().withMaxNodes(SIZE)
+    );
+
+    assertTrue(difference.isTruncated());
+  }
+
+
+  private void assertFieldDifference(
+      int index,
+      String fieldName,
+      List<Trade> left,
+      List<Trade> right
+  ) {
+    CollectionDifference difference = (CollectionDifference) reflectionComparator
+        .getDifference(left, right);
+
+    assertEquals(1, difference.getElementDifferences().size());
+    ObjectDifference elementDifference = (ObjectDifference) difference.getElementDifferences()
+        .get(index);
+    assertTrue(elementDifference.getFieldDifferences().containsKey(fieldName));
+  }
+
+  private static List<Trade> createTrades() {
+    List<Trade> trades = new ArrayList<>(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      trades.add(new Trade(i, "SYM" + (i % 100), i * 0.5, i % 7, Side.BUY));
+    }
+    return trades;
+  }
+
+
+  private static List<Point> createPoints() {
+    List<Point> points = new ArrayList<>(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      points.add(new Point(i, i * 0.5));
+    }
+    return points;
+  }
+
+
+  private enum Side {BUY, SELL}
+
+
+  private static class Point {
+
+    private final long x;
+    private final double y;
+
+    Point(long x, double y) {
+      this.x = x;
+      this.y = y;
+    }
+  }
+
+
+  private static class Entity {
+
+    long id;
+  }
+
+
+  private static class Trade extends Entity {
+
+    private final String symbol;
+    private double price;
+    private int quantity;
+    private final char currency = 'E';
+    private final boolean settled = true;
+    private Side side;
+    private final List<String> tags = new ArrayList<>(asList("a", "b"));
+
+    Trade(long id, String symbol, double price, int quantity, Side side) {
+      this.id = id;
+      this.symbol = symbol;
+      this.price = price;
+      this.quantity = quantity;
+      this.side = side;
+    }
+  }
+}
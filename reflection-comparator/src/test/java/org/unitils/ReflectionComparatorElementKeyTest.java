@@ -0,0 +1,191 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitils.core.UnitilsException;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.ReflectionComparatorOptions;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+import org.unitils.reflectionassert.difference.UnorderedCollectionDifference;
+import org.unitils.reflectionassert.report.impl.DefaultDifferenceReport;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for lenient order collections whose
+ * elements are matched by key.
+ */
+class ReflectionComparatorElementKeyTest {
+
+  /* Class under test */
+  private ReflectionComparator reflectionComparator;
+
+
+  @BeforeEach
+  void setUp() {
+    reflectionComparator = createReflectionComparator(
+        ReflectionComparatorOptions.defaultOptions().withElementKey(Element.class, "id")
+    );
+  }
+
+
+  @Test
+  void testEqual() {
+    List<Element> left = createElements(10_000);
+    List<Element> right = new ArrayList<>(left);
+    Collections.shuffle(right, new Random(42));
+
+    assertNull(reflectionComparator.getDifference(left, right));
+  }
+
+
+  @Test
+  void testDifferentElement() {
+    UnorderedCollectionDifference difference = (UnorderedCollectionDifference) reflectionComparator
+        .getDifference(
+            asList(new Element(1, "a"), new Element(2, "b")),
+            asList(new Element(2, "x"), new Element(1, "a"))
+        );
+
+    assertEquals(singletonList(1), new ArrayList<>(difference.getBestMatchingIndexes().keySet()));
+    assertEquals(0, (int) difference.getBestMatchingIndexes().get(1));
+    ObjectDifference elementDifference = (ObjectDifference) difference
+        .getElementDifference(1, 0);
+    Difference valueDifference = elementDifference.getFieldDifferences().get("value");
+    assertEquals("b", valueDifference.getLeftValue());
+    assertEquals("x", valueDifference.getRightValue());
+  }
+
+
+  @Test
+  void testMissingKeys() {
+    UnorderedCollectionDifference difference = (UnorderedCollectionDifference) reflectionComparator
+        .getDifference(
+            asList(new Element(1, "a"), new Element(2, "b")),
+            asList(new Element(3, "c"), new Element(1, "a"), new Element(4, "d"))
+        );
+
+    assertEquals(-1, (int) difference.getBestMatchingIndexes().get(1));
+    assertEquals(asList(0, 2), difference.getRightMissingIndexes());
+
+    String report = new DefaultDifferenceReport().createReport(difference);
+    assertTrue(report.contains("[1,x]: expected: Element<id=2, value=\"b\">"), report);
+    assertTrue(report.contains("[x,2]: expected: --no match--, actual: Element<id=4"), report);
+  }
+
+
+  @Test
+  void testDuplicateKeys() {
+    assertNull(reflectionComparator.getDifference(
+        asList(new Element(1, "a"), new Element(1, "a"), new Element(2, "b")),
+        asList(new Element(2, "b"), new Element(1, "a"), new Element(1, "a"))
+    ));
+  }
+
+
+  @Test
+  void testFunctionKey() {
+    ReflectionComparator keyComparator = createReflectionComparator(
+        ReflectionComparatorOptions.defaultOptions()
+            .withElementKey(Element.class, element -> element.value)
+    );
+    UnorderedCollectionDifference difference = (UnorderedCollectionDifference) keyComparator
+        .getDifference(
+            asList(new Element(1, "a"), new Element(2, "b")),
+            asList(new Element(3, "b"), new Element(1, "a"))
+        );
+
+    assertEquals(0, (int) difference.getBestMatchingIndexes().get(1));
+  }
+
+
+  @Test
+  void testOtherElementTypes() {
+    assertNull(reflectionComparator.getDifference(asList("a", "b"), asList("b", "a")));
+    assertNull(reflectionComparator.getDifference(
+        asList(new Element(1, "a"), null),
+        asList(null, new Element(1, "a"))
+    ));
+  }
+
+
+  @Test
+  void testOnlyFirstDifference() {
+    UnorderedCollectionDifference difference = (UnorderedCollectionDifference) reflectionComparator
+        .getDifference(
+            asList(new Element(1, "x"), new Element(2, "y")),
+            asList(new Element(2, "b"), new Element(1, "a")),
+            true
+        );
+
+    assertEquals(1, difference.getBestMatchingIndexes().size());
+  }
+
+
+  @Test
+  void testUnknownField() {
+    assertThrows(
+        UnitilsException.class,
+        () -> ReflectionComparatorOptions.defaultOptions().withElementKey(Element.class, "xxx")
+    );
+  }
+
+
+  private static ReflectionComparator createReflectionComparator(
+      ReflectionComparatorOptions options
+  ) {
+    return ReflectionComparatorFactory.createReflectionComparator(
+        EnumSet.of(LENIENT_ORDER),
+        options
+    );
+  }
+
+  private static List<Element> createElements(int count) {
+    List<Element> elements = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      elements.add(new Element(i, "value" + i));
+    }
+    return elements;
+  }
+
+
+  private static class Element {
+
+    private final int id;
+    private final String value;
+
+    Element(int id, String value) {
+      this.id = id;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.annotation.Retention;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.FieldFilter;
+import org.unitils.reflectionassert.IgnoreInComparison;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.ReflectionComparatorOptions;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.comparator.impl.CollectionComparator;
+import org.unitils.reflectionassert.comparator.impl.ObjectComparator;
+import org.unitils.reflectionassert.comparator.impl.SimpleCasesComparator;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.MapDifference;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for comparisons with a
+ * {@link FieldFilter}.
+ */
+class ReflectionComparatorFieldFilterTest {
+
+
+  @Test
+  void testExcludedPath() {
+    Order left = new Order("a", new Audit("x"));
+    Order right = new Order("a", new Audit("y"));
+
+    assertNotNull(createReflectionComparator(FieldFilter.allFields()).getDifference(left, right));
+    assertNull(createReflectionComparator(FieldFilter.allFields().withExcludedPath("audit"))
+        .getDifference(left, right));
+  }
+
+
+  @Test
+  void testExcludedPath_notTraversed() {
+    List<Object> comparedValues = new ArrayList<>();
+    ReflectionComparator reflectionComparator = new ReflectionComparator(
+        asList(new RecordingComparator(comparedValues), new SimpleCasesComparator(),
+            new CollectionComparator(), new ObjectComparator()),
+        FieldFilter.allFields().withExcludedPath("audit")
+    );
+    Audit leftAudit = new Audit("x");
+
+    reflectionComparator.getDifference(new Order("a", leftAudit), new Order("a", new Audit("y")));
+
+    assertFalse(comparedValues.contains(leftAudit));
+    assertFalse(comparedValues.contains("x"));
+  }
+
+
+  @Test
+  void testExcludedPath_anyDepth() {
+    Order left = new Order("a", new Audit("x"));
+    left.lines.add(new Line(1, new Audit("x")));
+    Order right = new Order("a", new Audit("y"));
+    right.lines.add(new Line(1, new Audit("y")));
+
+    ReflectionComparator reflectionComparator = createReflectionComparator(
+        FieldFilter.allFields().withExcludedPath("**.createdBy"));
+
+    assertNull(reflectionComparator.getDifference(left, right));
+  }
+
+
+  @Test
+  void testExcludedPath_glob() {
+    Order left = new Order("a", new Audit("x"));
+    left.lines.add(new Line(1, new Audit("x")));
+    Order right = new Order("a", new Audit("y"));
+    right.lines.add(new Line(1, new Audit("y")));
+
+    ReflectionComparator reflectionComparator = createReflectionComparator(
+        FieldFilter.allFields().withExcludedPath("lines.aud*"));
+
+    ObjectDifference difference = (ObjectDifference) reflectionComparator
+        .getDifference(left, right);
+    assertEquals(asList("audit"), new ArrayList<>(difference.getFieldDifferences().keySet()));
+  }
+
+
+  @Test
+  void testExcludedPath_sameValueInOtherScope() {
+    Audit leftAudit = new Audit("x");
+    Audit rightAudit = new Audit("y");
+    Line left = new Line(1, leftAudit);
+    left.previousAudit = leftAudit;
+    Line right = new Line(1, rightAudit);
+    right.previousAudit = rightAudit;
+
+    ObjectDifference difference = (ObjectDifference) createReflectionComparator(
+        FieldFilter.allFields().withExcludedPath("audit.createdBy")).getDifference(left, right);
+
+    assertEquals(asList("previousAudit"),
+        new ArrayList<>(difference.getFieldDifferences().keySet()));
+  }
+
+
+  @Test
+  void testIncludedPath() {
+    Order left = new Order("a", new Audit("x"));
+    left.lines.add(new Line(1, new Audit("x")));
+    Order right = new Order("a", new Audit("y"));
+    right.lines.add(new Line(1, new Audit("y")));
+
+    ReflectionComparator reflectionComparator = createReflectionComparator(
+        FieldFilter.allFields().withIncludedPath("id").withIncludedPath("lines.amount"));
+
+    assertNull(reflectionComparator.getDifference(left, right));
+    Order otherRight = new Order("a", new Audit("x"));
+    otherRight.lines.add(new Line(2, new Audit("x")));
+    assertEquals(2, reflectionComparator.getDifference(left, otherRight).at("lines[0].amount")
+        .getRightValue());
+  }
+
+
+  @Test
+  void testIncludedPath_everythingBelow() {
+    Order left = new Order("a", new Audit("x"));
+    Order right = new Order("b", new Audit("y"));
+
+    ObjectDifference difference = (ObjectDifference) createReflectionComparator(
+        FieldFilter.allFields().withIncludedPath("audit")).getDifference(left, right);
+
+    assertEquals(asList("audit"), new ArrayList<>(difference.getFieldDifferences().keySet()));
+    assertNotNull(difference.at("audit.createdBy"));
+  }
+
+
+  @Test
+  void testIncludedAndExcludedPath() {
+    Order left = new Order("a", new Audit("x"));
+    Order right = new Order("a", new Audit("y"));
+
+    ReflectionComparator reflectionComparator = createReflectionComparator(
+        FieldFilter.allFields().withIncludedPath("audit").withExcludedPath("audit.createdBy"));
+
+    assertNull(reflectionComparator.getDifference(left, right));
+  }
+
+
+  @Test
+  void testExcludedField() {
+    Order left = new Order("a", new Audit("x"));
+    Order right = new Order("a", new Audit("y"));
+
+    ReflectionComparator reflectionComparator = createReflectionComparator(
+        FieldFilter.allFields().withExcludedField("createdBy"));
+
+    assertNull(reflectionComparator.getDifference(left, right));
+  }
+
+
+  @Test
+  void testExcludedDeclaringType() {
+    Order left = new Order("a", new Audit("x"));
+    Order right = new Order("a", new Audit("y"));
+
+    ReflectionComparator reflectionComparator = createReflectionComparator(
+        FieldFilter.allFields().withExcludedDeclaringType(Audit.class));
+
+    assertNull(reflectionComparator.getDifference(left, right));
+  }
+
+
+  @Test
+  void testExcludedAnnotation() {
+    Line left = new Line(1, null);
+    left.note = "x";
+    Line right = new Line(1, null);
+    right.note = "y";
+
+    assertNotNull(createReflectionComparator(FieldFilter.allFields()).getDifference(left, right));
+    assertNull(createReflectionComparator(
+        FieldFilter.allFields().withExcludedAnnotation(Note.class)).getDifference(left, right));
+  }
+
+
+  @Test
+  void testIgnoreInComparison() {
+    Line left = new Line(1, null);
+    left.cache = "x";
+    Line right = new Line(1, null);
+    right.cache = "y";
+
+    assertTrue(ReflectionComparatorFactory.createReflectionComparator().isEqual(left, right));
+  }
+
+
+  @Test
+  void testLazyDifference() {
+    Order left = new Order("a", new Audit("x"));
+    Order right = new Order("b", new Audit("y"));
+
+    ObjectDifference difference = (ObjectDifference) createReflectionComparator(
+        FieldFilter.allFields().withExcludedPath("audit.createdBy")).getLazyDifference(left, right);
+
+    assertEquals(asList("id"), new ArrayList<>(difference.getFieldDifferences().keySet()));
+  }
+
+
+  @Test
+  void testLazyDifference_includedPathInElements() {
+    Order left = new Order("a", new Audit("x"));
+    left.lines.add(new Line(1, new Audit("x")));
+    Order right = new Order("a", new Audit("y"));
+    right.lines.add(new Line(2, new Audit("y")));
+
+    Difference difference = createReflectionComparator(
+        FieldFilter.allFields().withIncludedPath("id").withIncludedPath("lines.amount")
+    ).getLazyDifference(left, right);
+
+    assertEquals(asList("amount"), getLineFieldNames(difference));
+  }
+
+
+  @Test
+  void testLazyDifference_excludedPathInElements() {
+    Order left = new Order("a", new Audit("x"));
+    left.lines.add(new Line(1, new Audit("x")));
+    Order right = new Order("a", new Audit("x"));
+    right.lines.add(new Line(2, new Audit("y")));
+
+    Difference difference = createReflectionComparator(
+        FieldFilter.allFields().withExcludedPath("lines.audit")
+    ).getLazyDifference(left, right);
+
+    assertEquals(asList("amount"), getLineFieldNames(difference));
+  }
+
+
+  @Test
+  void testLazyDifference_excludedPathInMapValues() {
+    Order left = new Order("a", new Audit("x"));
+    left.linesByProduct.put("p", new Line(1, new Audit("x")));
+    Order right = new Order("a", new Audit("x"));
+    right.linesByProduct.put("p", new Line(2, new Audit("y")));
+
+    ObjectDifference difference = (ObjectDifference) createReflectionComparator(
+        FieldFilter.allFields().withExcludedPath("linesByProduct.audit")
+    ).getLazyDifference(left, right);
+
+    MapDifference linesDifference =
+        (MapDifference) difference.getFieldDifferences().get("linesByProduct");
+    ObjectDifference lineDifference =
+        (ObjectDifference) linesDifference.getValueDifferences().get("p");
+    assertEquals(asList("amount"), new ArrayList<>(lineDifference.getFieldDifferences().keySet()));
+  }
+
+
+  @Test
+  void testInvalidPattern() {
+    assertThrows(IllegalArgumentException.class,
+        () -> FieldFilter.allFields().withExcludedPath("audit..createdBy"));
+  }
+
+
+  private static List<String> getLineFieldNames(Difference orderDifference) {
+    CollectionDifference linesDifference = (CollectionDifference)
+        ((ObjectDifference) orderDifference).getFieldDifferences().get("lines");
+    ObjectDifference lineDifference =
+        (ObjectDifference) linesDifference.getElementDifferences().get(0);
+    return new ArrayList<>(lineDifference.getFieldDifferences().keySet());
+  }
+
+  private ReflectionComparator createReflectionComparator(FieldFilter fieldFilter) {
+    return ReflectionComparatorFactory.createReflectionComparator(
+        emptySet(),
+        ReflectionComparatorOptions.defaultOptions().withFieldFilter(fieldFilter)
+    );
+  }
+
+
+  @Retention(RUNTIME)
+  private @interface Note {
+
+  }
+
+  private static class Order {
+
+    private final String id;
+    private final Audit audit;
+    private final List<Line> lines = new ArrayList<>();
+    private final Map<String, Line> linesByProduct = new HashMap<>();
+
+    Order(String id, Audit audit) {
+      this.id = id;
+      this.audit = audit;
+    }
+  }
+
+  private static class Line {
+
+    private final int amount;
+    private final Audit audit;
+    private Audit previousAudit;
+    @Note
+    private String note;
+    @IgnoreInComparison
+    private String cache;
+
+    Line(int amount, Audit audit) {
+      this.amount = amount;
+      this.audit = audit;
+    }
+  }
+
+  private static class Audit {
+
+    private final String createdBy;
+
+    Audit(String createdBy) {
+      this.createdBy = createdBy;
+    }
+  }
+
+  /**
+   * Records the compared values and leaves their comparison to the next comparators.
+   */
+  private static class RecordingComparator implements Comparator {
+
+    private final List<Object> comparedValues;
+
+    RecordingComparator(List<Object> comparedValues) {
+      this.comparedValues = comparedValues;
+    }
+
+    @Override
+    public boolean canCompare(Object left, Object right) {
+      comparedValues.add(left);
+      return false;
+    }
+
+    @Override
+    public Difference compare(
+        Object left,
+        Object right,
+        boolean onlyFirstDifference,
+        ReflectionComparator reflectionComparator
+    ) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
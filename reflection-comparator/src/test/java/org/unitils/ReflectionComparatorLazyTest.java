@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.comparator.Comparator;
+import org.unitils.reflectionassert.comparator.impl.CollectionComparator;
+import org.unitils.reflectionassert.comparator.impl.MapComparator;
+import org.unitils.reflectionassert.comparator.impl.ObjectComparator;
+import org.unitils.reflectionassert.comparator.impl.SimpleCasesComparator;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.MapDifference;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+import org.unitils.reflectionassert.report.impl.DefaultDifferenceReport;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for lazily determined differences.
+ */
+class ReflectionComparatorLazyTest {
+
+  /* Class under test */
+  private final ReflectionComparator reflectionComparator =
+      ReflectionComparatorFactory.createReflectionComparator();
+
+
+  @Test
+  void testEqual() {
+    assertNull(reflectionComparator.getLazyDifference(
+        new Node("a", asList(new Node("b")), null),
+        new Node("a", asList(new Node("b")), null)
+    ));
+  }
+
+
+  @Test
+  void testSameReportAsEager() {
+    Node left = new Node("a", asList(new Node("b"), new Node("c")),
+        singletonMap("key", new Node("d")));
+    Node right = new Node("x", asList(new Node("b"), new Node("y")),
+        singletonMap("key", new Node("z")));
+
+    DefaultDifferenceReport report = new DefaultDifferenceReport();
+    assertEquals(
+        report.createReport(ReflectionComparatorFactory.createReflectionComparator()
+            .getDifference(left, right)),
+        report.createReport(reflectionComparator.getLazyDifference(left, right))
+    );
+  }
+
+
+  @Test
+  void testInnerDifferencesDeterminedOnAccess() {
+    List<String> compared = new ArrayList<>();
+    ReflectionComparator listeningComparator = createReflectionComparator(compared);
+    Node left = new Node("a", asList(new Node("b")), singletonMap("key", new Node("c")));
+    Node right = new Node("a", asList(new Node("x")), singletonMap("key", new Node("y")));
+
+    ObjectDifference difference = (ObjectDifference) listeningComparator
+        .getLazyDifference(left, right);
+
+    assertTrue(difference.hasFieldDifferences());
+    assertEquals(asList("a"), compared);
+
+    Map<String, Difference> fieldDifferences = difference.getFieldDifferences();
+    assertEquals(asList("a"), compared);
+    CollectionDifference children = (CollectionDifference) fieldDifferences.get("children");
+    assertEquals(asList("a"), compared);
+
+    Difference child = children.getElementDifferences().get(0);
+    assertEquals(asList("a", "b"), compared);
+    MapDifference properties = (MapDifference) fieldDifferences.get("properties");
+    properties.getValueDifferences();
+    assertEquals(asList("a", "b", "c"), compared);
+
+    assertSame(child, children.getElementDifferences().get(0));
+    assertEquals(asList("a", "b", "c"), compared);
+  }
+
+
+  @Test
+  void testCycle() {
+    Node left = new Node("a", new ArrayList<>(), null);
+    Node right = new Node("b", new ArrayList<>(), null);
+    left.children.add(left);
+    right.children.add(right);
+
+    ObjectDifference difference = (ObjectDifference) reflectionComparator
+        .getLazyDifference(left, right);
+    CollectionDifference children = (CollectionDifference) difference.getFieldDifferences()
+        .get("children");
+
+    assertSame(difference, children.getElementDifferences().get(0));
+    assertFalse(reflectionComparator.isLazy());
+  }
+
+
+  /**
+   * Creates a comparator that records the name of every Node that is compared for all its
+   * differences.
+   */
+  private static ReflectionComparator createReflectionComparator(List<String> compared) {
+    ObjectComparator objectComparator = new ObjectComparator();
+    Comparator listeningComparator = new Comparator() {
+
+      @Override
+      public boolean canCompare(Object left, Object right) {
+        return left instanceof Node && right instanceof Node;
+      }
+
+      @Override
+      public Difference compare(
+          Object left,
+          Object right,
+          boolean onlyFirstDifference,
+          ReflectionComparator reflectionComparator
+      ) {
+        if (!onlyFirstDifference) {
+          compared.add(((Node) left).name);
+        }
+        return objectComparator.compare(left, right, onlyFirstDifference, reflectionComparator);
+      }
+    };
+    return new ReflectionComparator(asList(
+        listeningComparator,
+        new SimpleCasesComparator(),
+        new CollectionComparator(),
+        new MapComparator(),
+        objectComparator
+    ));
+  }
+
+
+  private static class Node {
+
+    private final String name;
+    private final List<Node> children;
+    private final Map<String, Node> properties;
+
+    Node(String name) {
+      this(name, null, null);
+    }
+
+    Node(String name, List<Node> children, Map<String, Node> properties) {
+      this.name = name;
+      this.children = children;
+      this.properties = properties;
+    }
+  }
+}
@@ -71,6 +71,17 @@ class ReflectionComparatorLenientOrderCollectionsTest {
     assertBestMatch(expected, "3", actual, "4", difference);
   }
 
+  @Test
+  void duplicateMatchesOneElement() {
+    String[] expected = {"1", "1", "2"};
+    String[] actual = {"1", "3", "4"};
+
+    UnorderedCollectionDifference difference = (UnorderedCollectionDifference) reflectionComparator
+        .getDifference(expected, actual);
+    assertEquals(2, difference.getBestMatchingIndexes().size());
+    assertBestMatch(expected, "2", actual, "3", difference);
+  }
+
   private void assertBestMatch(
       String[] expected,
       String expectedValue,
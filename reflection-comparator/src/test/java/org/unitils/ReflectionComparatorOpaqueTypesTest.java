@@ -0,0 +1,195 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Collections.emptySet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.OpaqueTypes;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.ReflectionComparatorOptions;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for types that are compared by
+ * identity or ignored instead of being traversed.
+ */
+class ReflectionComparatorOpaqueTypesTest {
+
+
+  @Test
+  void testDefaults_sameInstance() {
+    Logger logger = Logger.getAnonymousLogger();
+    ReentrantLock lock = new ReentrantLock();
+
+    assertTrue(createReflectionComparator(OpaqueTypes.defaults())
+        .isEqual(new Holder("a", logger, lock), new Holder("a", logger, lock)));
+  }
+
+
+  @Test
+  void testDefaults_otherInstance() {
+    Logger logger = Logger.getAnonymousLogger();
+
+    ObjectDifference difference = (ObjectDifference) createReflectionComparator(
+        OpaqueTypes.defaults()
+    ).getDifference(
+            new Holder("a", logger, new ReentrantLock()),
+            new Holder("a", logger, new ReentrantLock())
+        );
+
+    assertEquals("lock", difference.getFieldDifferences().keySet().iterator().next());
+    assertEquals(
+        "Different instances of an opaque type",
+        difference.getFieldDifferences().get("lock").getMessage()
+    );
+  }
+
+
+  @Test
+  void testDefaults_valueLikeTypesTraversed() {
+    OpaqueTypes opaqueTypes = OpaqueTypes.defaults();
+
+    assertFalse(opaqueTypes.isOpaque(new StringReader("x")));
+    assertFalse(opaqueTypes.isOpaque(new ByteArrayInputStream(new byte[]{1})));
+    assertFalse(opaqueTypes.isOpaque(new SoftReference<>("x")));
+    assertTrue(opaqueTypes.isOpaque(Logger.getAnonymousLogger()));
+  }
+
+
+  @Test
+  void testDefaultOptions_noOpaqueTypes() {
+    assertNull(ReflectionComparatorOptions.defaultOptions().getOpaqueTypes());
+    assertTrue(ReflectionComparatorFactory.createReflectionComparator().isEqual(
+        new Holder("a", new Context("a"), new ArrayList<>()),
+        new Holder("a", new Context("a"), new ArrayList<>())
+    ));
+  }
+
+
+  @Test
+  void testIdentityType_notTraversed() {
+    ReflectionComparator reflectionComparator =
+        createReflectionComparator(OpaqueTypes.none().withIdentityTypes(Context.class));
+
+    assertFalse(reflectionComparator.isEqual(new Context("a"), new Context("a")));
+  }
+
+
+  @Test
+  void testIdentityType_withNull() {
+    ReflectionComparator reflectionComparator =
+        createReflectionComparator(OpaqueTypes.none().withIdentityTypes(Context.class));
+
+    assertFalse(reflectionComparator.isEqual(null, new Context("a")));
+  }
+
+
+  @Test
+  void testIgnoredType() {
+    ReflectionComparator reflectionComparator =
+        createReflectionComparator(OpaqueTypes.none().withIgnoredTypes(Context.class));
+
+    assertNull(reflectionComparator.getDifference(
+        new Holder("a", new Context("a"), null),
+        new Holder("a", new Context("b"), new Context("c"))
+    ));
+  }
+
+
+  @Test
+  void testIdentityType_byInterfaceName() {
+    ReflectionComparator reflectionComparator = createReflectionComparator(
+        OpaqueTypes.none().withIdentityTypeNames(Resource.class.getName())
+    );
+
+    assertFalse(reflectionComparator.isEqual(new Context("a"), new Context("a")));
+  }
+
+
+  @Test
+  void testTraversedSubtype() {
+    ReflectionComparator reflectionComparator = createReflectionComparator(OpaqueTypes.none()
+        .withIdentityTypes(Context.class)
+        .withTraversedTypes(ValueContext.class));
+
+    assertTrue(reflectionComparator.isEqual(new ValueContext("a"), new ValueContext("a")));
+    assertFalse(reflectionComparator.isEqual(new Context("a"), new Context("a")));
+  }
+
+
+  @Test
+  void testNoOpaqueTypes() {
+    assertTrue(createReflectionComparator(null).isEqual(
+        new Holder("a", new Context("a"), new ArrayList<>()),
+        new Holder("a", new Context("a"), new ArrayList<>())
+    ));
+  }
+
+
+  private ReflectionComparator createReflectionComparator(OpaqueTypes opaqueTypes) {
+    return ReflectionComparatorFactory.createReflectionComparator(
+        emptySet(),
+        ReflectionComparatorOptions.defaultOptions().withOpaqueTypes(opaqueTypes)
+    );
+  }
+
+
+  private static class Holder {
+
+    private final String name;
+    private final Object context;
+    private final Object lock;
+
+    Holder(String name, Object context, Object lock) {
+      this.name = name;
+      this.context = context;
+      this.lock = lock;
+    }
+  }
+
+  private interface Resource {
+
+  }
+
+  private static class Context implements Resource {
+
+    private final String value;
+
+    Context(String value) {
+      this.value = value;
+    }
+  }
+
+  private static class ValueContext extends Context {
+
+    ValueContext(String value) {
+      super(value);
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_DATES;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.FieldFilter;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.ReflectionComparatorOptions;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for modes that only apply to the
+ * values at some paths or of some fields.
+ */
+class ReflectionComparatorPathModesTest {
+
+
+  @Test
+  void testPathModes() {
+    Customer left = new Customer(asList("a", "b"), asList(1, 2));
+    Customer right = new Customer(asList("b", "a"), asList(2, 1));
+
+    ObjectDifference difference = (ObjectDifference) createReflectionComparator(
+        ReflectionComparatorOptions.defaultOptions().withPathModes("tags", LENIENT_ORDER)
+    ).getDifference(left, right);
+
+    assertEquals(asList("amounts"), new ArrayList<>(difference.getFieldDifferences().keySet()));
+  }
+
+
+  @Test
+  void testPathModes_nested() {
+    Order left = new Order(new Customer(asList("a", "b"), asList(1)), new Date(1));
+    Order right = new Order(new Customer(asList("b", "a"), asList(1)), new Date(1));
+
+    assertNull(createReflectionComparator(
+        ReflectionComparatorOptions.defaultOptions().withPathModes("customer.tags", LENIENT_ORDER)
+    ).getDifference(left, right));
+  }
+
+
+  @Test
+  void testPathModes_anyDepth() {
+    List<Order> left = asList(new Order(new Customer(asList("a", "b"), asList(1)), new Date(1)));
+    List<Order> right = asList(new Order(new Customer(asList("b", "a"), asList(1)), new Date(1)));
+
+    assertNull(createReflectionComparator(
+        ReflectionComparatorOptions.defaultOptions().withPathModes("**.tags", LENIENT_ORDER)
+    ).getDifference(left, right));
+  }
+
+
+  @Test
+  void testPathModes_everythingBelow() {
+    Order left = new Order(new Customer(asList("a", "b"), asList(1, 2)), new Date(1));
+    Order right = new Order(new Customer(asList("b", "a"), asList(2, 1)), new Date(2));
+
+    ObjectDifference difference = (ObjectDifference) createReflectionComparator(
+        ReflectionComparatorOptions.defaultOptions().withPathModes("customer", LENIENT_ORDER)
+    ).getDifference(left, right);
+
+    assertEquals(asList("created"), new ArrayList<>(difference.getFieldDifferences().keySet()));
+  }
+
+
+  @Test
+  void testPathModes_sameValueInOtherScope() {
+    List<String> leftTags = asList("a", "b");
+    List<String> rightTags = asList("b", "a");
+    Customer left = new Customer(leftTags, asList(1));
+    left.previousTags = leftTags;
+    Customer right = new Customer(rightTags, asList(1));
+    right.previousTags = rightTags;
+
+    ObjectDifference difference = (ObjectDifference) createReflectionComparator(
+        ReflectionComparatorOptions.defaultOptions().withPathModes("tags", LENIENT_ORDER)
+    ).getDifference(left, right);
+
+    assertEquals(asList("previousTags"),
+        new ArrayList<>(difference.getFieldDifferences().keySet()));
+  }
+
+
+  @Test
+  void testDeclaringTypeModes() {
+    Order left = new Order(new Customer(asList("a"), asList(1)), new Date(1));
+    Order right = new Order(new Customer(asList("a"), asList(1)), new Date(2));
+
+    assertNull(createReflectionComparator(
+        ReflectionComparatorOptions.defaultOptions().withDeclaringTypeModes(Order.class,
+            LENIENT_DATES)
+    ).getDifference(left, right));
+  }
+
+
+  @Test
+  void testPathModes_withFieldFilter() {
+    Order left = new Order(new Customer(asList("a", "b"), asList(1)), new Date(1));
+    Order right = new Order(new Customer(asList("b", "a"), asList(1)), new Date(2));
+
+    assertNull(createReflectionComparator(ReflectionComparatorOptions.defaultOptions()
+        .withFieldFilter(FieldFilter.allFields().withExcludedPath("created"))
+        .withPathModes("customer.tags", LENIENT_ORDER)
+    ).getDifference(left, right));
+  }
+
+
+  @Test
+  void testInvalidPattern() {
+    assertThrows(IllegalArgumentException.class, () -> ReflectionComparatorOptions
+        .defaultOptions().withPathModes("customer.", LENIENT_ORDER));
+  }
+
+
+  private ReflectionComparator createReflectionComparator(ReflectionComparatorOptions options) {
+    return ReflectionComparatorFactory.createReflectionComparator(emptySet(), options);
+  }
+
+
+  private static class Order {
+
+    private final Customer customer;
+    private final Date created;
+
+    Order(Customer customer, Date created) {
+      this.customer = customer;
+      this.created = created;
+    }
+  }
+
+  private static class Customer {
+
+    private final List<String> tags;
+    private final List<Integer> amounts;
+    private List<String> previousTags;
+
+    Customer(List<String> tags, List<Integer> amounts) {
+      this.tags = tags;
+      this.amounts = amounts;
+    }
+  }
+}
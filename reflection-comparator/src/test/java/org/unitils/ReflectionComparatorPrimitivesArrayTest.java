@@ -18,13 +18,16 @@ package org.unitils;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.unitils.reflectionassert.ReflectionComparatorFactory.createReflectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.IGNORE_DEFAULTS;
 import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
 import static org.unitils.reflectionassert.util.InnerDifferenceFinder.getInnerDifference;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.CollectionDifference;
 import org.unitils.reflectionassert.difference.Difference;
 
 
@@ -198,6 +201,107 @@ class ReflectionComparatorPrimitivesArrayTest {
   }
 
 
+  /**
+   * Test for two large equal byte arrays.
+   */
+  @Test
+  void testGetDifference_equalsLargeByteArrays() {
+    byte[] left = new byte[1 << 20];
+    byte[] right = new byte[1 << 20];
+    left[left.length - 1] = 7;
+    right[right.length - 1] = 7;
+
+    assertNull(reflectionComparator.getDifference(left, right));
+  }
+
+
+  /**
+   * Test for two large byte arrays that only differ in the last element.
+   */
+  @Test
+  void testGetDifference_notEqualsLargeByteArrays() {
+    byte[] left = new byte[1 << 20];
+    byte[] right = new byte[1 << 20];
+    right[right.length - 1] = 7;
+
+    CollectionDifference result = (CollectionDifference) reflectionComparator
+        .getDifference(left, right);
+
+    assertEquals(1, result.getElementDifferences().size());
+    Difference difference = getInnerDifference(String.valueOf(right.length - 1), result);
+    assertEquals((byte) 0, difference.getLeftValue());
+    assertEquals((byte) 7, difference.getRightValue());
+    assertEquals(right.length, result.getRightList().size());
+  }
+
+
+  /**
+   * Test for double arrays, NaN values are equal, but 0.0 and -0.0 are not.
+   */
+  @Test
+  void testGetDifference_doubleArrays() {
+    assertNull(reflectionComparator.getDifference(
+        new double[]{1.5, Double.NaN},
+        new double[]{1.5, Double.NaN}
+    ));
+
+    Difference result = reflectionComparator.getDifference(
+        new double[]{1.5, 0.0},
+        new double[]{1.5, -0.0}
+    );
+    Difference difference = getInnerDifference("1", result);
+    assertEquals(0.0, difference.getLeftValue());
+    assertEquals(-0.0, difference.getRightValue());
+  }
+
+
+  /**
+   * Test for primitive arrays with a different size but the same prefix.
+   */
+  @Test
+  void testGetDifference_notEqualsPrefix() {
+    CollectionDifference result = (CollectionDifference) reflectionComparator
+        .getDifference(new long[]{1, 2, 3}, new long[]{1, 2});
+
+    assertTrue(result.getElementDifferences().isEmpty());
+    assertEquals(1, result.getLeftMissingIndexes().size());
+    assertEquals(2, (int) result.getLeftMissingIndexes().get(0));
+    assertEquals(3L, result.getLeftList().get(2));
+  }
+
+
+  /**
+   * Test for multi-dimensional arrays with a different value in one of the rows.
+   */
+  @Test
+  void testGetDifference_notEqualsMultiDimensional() {
+    int[][] left = {{1, 2}, {3, 4}, null};
+    int[][] right = {{1, 2}, {3, 5}, null};
+
+    CollectionDifference result = (CollectionDifference) reflectionComparator
+        .getDifference(left, right);
+
+    assertEquals(1, result.getElementDifferences().size());
+    Difference difference = getInnerDifference("1", getInnerDifference("1", result));
+    assertEquals(4, difference.getLeftValue());
+    assertEquals(5, difference.getRightValue());
+    assertNull(reflectionComparator.getDifference(left, new int[][]{{1, 2}, {3, 4}, null}));
+  }
+
+
+  /**
+   * Test for primitive arrays with ignored defaults: the default elements on the left are ignored.
+   */
+  @Test
+  void testGetDifference_equalsIgnoreDefaults() {
+    ReflectionComparator ignoreDefaultsComparator = createReflectionComparator(IGNORE_DEFAULTS);
+
+    Difference result = ignoreDefaultsComparator
+        .getDifference(new int[]{0, 2, 0}, new int[]{1, 2, 3});
+    assertNull(result);
+  }
+
+
   /**
    * Test class with failing equals.
    */
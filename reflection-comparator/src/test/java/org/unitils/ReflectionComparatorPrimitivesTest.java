@@ -23,6 +23,9 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.unitils.reflectionassert.ReflectionComparatorFactory.createReflectionComparator;
 import static org.unitils.reflectionassert.util.InnerDifferenceFinder.getInnerDifference;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.unitils.reflectionassert.ReflectionComparator;
@@ -219,6 +222,57 @@ class ReflectionComparatorPrimitivesTest {
   }
 
 
+  /**
+   * Tests for large long values that are different but have the same double value
+   */
+  @Test
+  void testLargeLongs_notEqual() {
+    long value = 1L << 53;
+    assertNotNull(reflectionComparator.getDifference(value, value + 1));
+    assertNotNull(reflectionComparator.getDifference(Long.MAX_VALUE, Long.MAX_VALUE - 1));
+    assertNull(reflectionComparator.getDifference(Long.MAX_VALUE, Long.MAX_VALUE));
+  }
+
+  /**
+   * Tests for longs compared to doubles: only exactly equal values are equal
+   */
+  @Test
+  void testLongAndDouble() {
+    long value = 1L << 53;
+    assertNull(reflectionComparator.getDifference(value, (double) value));
+    assertNotNull(reflectionComparator.getDifference(value + 1, (double) value));
+    assertNotNull(reflectionComparator.getDifference(Long.MAX_VALUE, 0x1p63));
+    assertNotNull(reflectionComparator.getDifference(5, 5.5));
+    assertNull(reflectionComparator.getDifference('a', 97.0));
+  }
+
+  /**
+   * Tests for BigDecimal values, the scale is not compared
+   */
+  @Test
+  void testBigDecimal() {
+    assertNull(reflectionComparator.getDifference(new BigDecimal("1.0"), new BigDecimal("1.00")));
+    assertNull(reflectionComparator.getDifference(new BigDecimal("42"), 42L));
+    assertNull(reflectionComparator.getDifference(new BigDecimal("0.5"), 0.5));
+    assertNotNull(reflectionComparator.getDifference(
+        new BigDecimal("0.10000000000000000001"),
+        new BigDecimal("0.1")
+    ));
+    assertNull(reflectionComparator.getDifference(new BigDecimal("0.1"), 0.1));
+  }
+
+  /**
+   * Tests for BigInteger values that do not fit in a long
+   */
+  @Test
+  void testBigInteger() {
+    BigInteger big = BigInteger.ONE.shiftLeft(70);
+    assertNull(reflectionComparator.getDifference(big, BigInteger.ONE.shiftLeft(70)));
+    assertNotNull(reflectionComparator.getDifference(big, big.add(BigInteger.ONE)));
+    assertNotNull(reflectionComparator.getDifference(big, 0L));
+    assertNull(reflectionComparator.getDifference(BigInteger.TEN, new AtomicLong(10)));
+  }
+
   /**
    * Test class with failing equals.
    */
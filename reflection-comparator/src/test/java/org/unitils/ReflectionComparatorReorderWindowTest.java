@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.ReflectionComparatorOptions;
+import org.unitils.reflectionassert.difference.AlignedCollectionDifference;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.report.impl.DefaultDifferenceReport;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for collections compared with a
+ * reorder window.
+ */
+class ReflectionComparatorReorderWindowTest {
+
+  /* Class under test */
+  private ReflectionComparator reflectionComparator;
+
+
+  @BeforeEach
+  void setUp() {
+    reflectionComparator = createReflectionComparator(2);
+  }
+
+
+  @Test
+  void testInOrder() {
+    assertNull(reflectionComparator.getDifference(asList("a", "b", "c"), asList("a", "b", "c")));
+    assertNull(reflectionComparator.getDifference(new int[]{1, 2, 3}, asList(1, 2, 3)));
+  }
+
+
+  @Test
+  void testMovedWithinWindow() {
+    assertNull(reflectionComparator.getDifference(
+        asList("a", "b", "c", "d", "e"),
+        asList("c", "a", "b", "e", "d")
+    ));
+  }
+
+
+  @Test
+  void testMovedWithinWindow_largeList() {
+    List<Integer> left = new ArrayList<>();
+    for (int i = 0; i < 100_000; i++) {
+      left.add(i);
+    }
+    List<Integer> right = new ArrayList<>(left);
+    for (int i = 0; i + 2 < right.size(); i += 3) {
+      Collections.swap(right, i, i + 2);
+    }
+
+    assertNull(reflectionComparator.getDifference(left, right));
+  }
+
+
+  @Test
+  void testMovedOutsideWindow() {
+    AlignedCollectionDifference difference = (AlignedCollectionDifference) reflectionComparator
+        .getDifference(asList("a", "b", "c", "d"), asList("b", "c", "d", "a"));
+
+    assertTrue(difference.getElementDifferences().isEmpty());
+    assertEquals(singletonList(0), difference.getLeftMissingIndexes());
+    assertEquals(singletonList(3), difference.getRightMissingIndexes());
+  }
+
+
+  @Test
+  void testChangedElement() {
+    AlignedCollectionDifference difference = (AlignedCollectionDifference) reflectionComparator
+        .getDifference(asList("a", "b", "c", "d"), asList("b", "c", "d", "x"));
+
+    assertEquals(1, difference.getElementDifferences().size());
+    Difference elementDifference = difference.getElementDifferences().get(0);
+    assertEquals("a", elementDifference.getLeftValue());
+    assertEquals("x", elementDifference.getRightValue());
+    assertEquals(3, difference.getRightIndex(0));
+  }
+
+
+  @Test
+  void testDifferentSize() {
+    AlignedCollectionDifference difference = (AlignedCollectionDifference) reflectionComparator
+        .getDifference(asList("b", "a"), asList("a", "b", "c"));
+
+    assertTrue(difference.getElementDifferences().isEmpty());
+    assertTrue(difference.getLeftMissingIndexes().isEmpty());
+    assertEquals(singletonList(2), difference.getRightMissingIndexes());
+  }
+
+
+  @Test
+  void testOnlyFirstDifference() {
+    AlignedCollectionDifference difference = (AlignedCollectionDifference) reflectionComparator
+        .getDifference(asList("a", "b", "c"), asList("b", "c", "x"), true);
+
+    assertEquals(singletonList(0), difference.getLeftMissingIndexes());
+  }
+
+
+  @Test
+  void testReport() {
+    String report = new DefaultDifferenceReport().createReport(reflectionComparator
+        .getDifference(asList("a", "b", "c"), asList("b", "a", "x")));
+
+    assertTrue(report.contains("[2,2]: expected: \"c\", actual: \"x\""), report);
+  }
+
+
+  @Test
+  void testNegativeWindow() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ReflectionComparatorOptions.defaultOptions().withReorderWindow(-1)
+    );
+  }
+
+
+  private static ReflectionComparator createReflectionComparator(int window) {
+    return ReflectionComparatorFactory.createReflectionComparator(
+        emptySet(),
+        ReflectionComparatorOptions.defaultOptions().withReorderWindow(window)
+    );
+  }
+}
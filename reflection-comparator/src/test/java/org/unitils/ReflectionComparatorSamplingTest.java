@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Collections.emptySet;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.CollectionSampling;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorFactory;
+import org.unitils.reflectionassert.ReflectionComparatorOptions;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+import org.unitils.reflectionassert.difference.MapDifference;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for the sampled comparison of large
+ * collections and maps.
+ */
+class ReflectionComparatorSamplingTest {
+
+  private static final int SIZE = 100_000;
+
+  /* Class under test */
+  private ReflectionComparator reflectionComparator;
+
+
+  @BeforeEach
+  void setUp() {
+    reflectionComparator = createReflectionComparator(CollectionSampling.fixed(100));
+  }
+
+
+  @Test
+  void testEqual() {
+    assertNull(reflectionComparator.getDifference(createList(SIZE), createList(SIZE)));
+    assertNull(reflectionComparator.getDifference(createMap(SIZE), createMap(SIZE)));
+  }
+
+
+  @Test
+  void testDifferentSize() {
+    CollectionDifference difference = (CollectionDifference) reflectionComparator
+        .getDifference(createList(SIZE), createList(SIZE + 1));
+
+    assertEquals(1, difference.getRightMissingIndexes().size());
+  }
+
+
+  @Test
+  void testSampledDifference_escalatesToFullComparison() {
+    List<Element> left = createList(SIZE);
+    List<Element> right = createList(SIZE);
+    for (int i = 0; i < SIZE; i += 2) {
+      right.get(i).value = "other";
+    }
+
+    CollectionDifference difference = (CollectionDifference) reflectionComparator
+        .getDifference(left, right);
+
+    assertEquals(SIZE / 2, difference.getElementDifferences().size());
+  }
+
+
+  @Test
+  void testMapDifference() {
+    Map<String, Element> right = createMap(1000);
+    for (Element element : right.values()) {
+      element.value = "other";
+    }
+
+    MapDifference difference = (MapDifference) reflectionComparator
+        .getDifference(createMap(1000), right);
+
+    assertEquals(1000, difference.getValueDifferences().size());
+  }
+
+
+  @Test
+  void testMapDifferentSize() {
+    MapDifference difference = (MapDifference) reflectionComparator
+        .getDifference(createMap(1000), createMap(999));
+
+    assertEquals(1, difference.getLeftMissingKeys().size());
+  }
+
+
+  @Test
+  void testSmallCollections_comparedCompletely() {
+    List<Element> right = createList(100);
+    right.get(42).value = "other";
+
+    CollectionDifference difference = (CollectionDifference) reflectionComparator
+        .getDifference(createList(100), right);
+
+    assertEquals(1, difference.getElementDifferences().size());
+  }
+
+
+  @Test
+  void testSampleIndexes() {
+    CollectionSampling sampling = CollectionSampling.proportional(0.01, 5).withSeed(7);
+
+    int[] indexes = sampling.getSampleIndexes(10_000);
+
+    assertEquals(100, indexes.length);
+    for (int i = 1; i < indexes.length; i++) {
+      assertTrue(indexes[i - 1] < indexes[i]);
+    }
+    assertArrayEquals(indexes, sampling.getSampleIndexes(10_000));
+    assertEquals(5, sampling.getSampleIndexes(100).length);
+    assertNull(sampling.getSampleIndexes(5));
+  }
+
+
+  @Test
+  void testMaxDifferentFraction() {
+    CollectionSampling sampling = CollectionSampling.fixed(3000);
+
+    assertEquals(0.001, sampling.getMaxDifferentFraction(1_000_000, 0.95), 1e-5);
+    assertEquals(0, sampling.getMaxDifferentFraction(3000, 0.95));
+  }
+
+
+  private static ReflectionComparator createReflectionComparator(CollectionSampling sampling) {
+    return ReflectionComparatorFactory.createReflectionComparator(
+        emptySet(),
+        ReflectionComparatorOptions.defaultOptions().withCollectionSampling(sampling)
+    );
+  }
+
+  private static List<Element> createList(int size) {
+    List<Element> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(new Element(i));
+    }
+    return list;
+  }
+
+  private static Map<String, Element> createMap(int size) {
+    Map<String, Element> map = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put("key" + i, new Element(i));
+    }
+    return map;
+  }
+
+
+  private static class Element {
+
+    private final int id;
+    private String value;
+
+    Element(int id) {
+      this.id = id;
+      this.value = "value" + id;
+    }
+  }
+}
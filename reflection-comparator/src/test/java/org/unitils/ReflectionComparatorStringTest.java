@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createReflectionComparator;
+import static org.unitils.reflectionassert.util.InnerDifferenceFinder.getInnerDifference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.StringDifference;
+import org.unitils.reflectionassert.report.impl.DefaultDifferenceReport;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests with long strings.
+ */
+class ReflectionComparatorStringTest {
+
+  /* Class under test */
+  private ReflectionComparator reflectionComparator;
+
+
+  @BeforeEach
+  void setUp() {
+    reflectionComparator = createReflectionComparator();
+  }
+
+
+  @Test
+  void testShortStrings() {
+    Difference difference = reflectionComparator.getDifference("abc", "abd");
+
+    assertEquals(Difference.class, difference.getClass());
+  }
+
+
+  @Test
+  void testLongStrings_mismatchAndCommonSuffix() {
+    String left = createString(1_000_000);
+    String right = left.substring(0, 500_000) + "XY" + left.substring(500_001);
+
+    StringDifference difference = (StringDifference) reflectionComparator
+        .getDifference(left, right);
+
+    assertSame(left, difference.getLeftValue());
+    assertEquals(500_000, difference.getMismatchIndex());
+    assertEquals(499_999, difference.getCommonSuffixLength());
+    assertEquals(500_000 - 20, difference.getWindowStart());
+    assertEquals(left.substring(499_980, 500_021), difference.getLeftWindow());
+    assertEquals(right.substring(499_980, 500_022), difference.getRightWindow());
+  }
+
+
+  @Test
+  void testLongStrings_prefix() {
+    String left = createString(200);
+    String right = left + "tail";
+
+    StringDifference difference = (StringDifference) reflectionComparator
+        .getDifference(left, right);
+
+    assertEquals(200, difference.getMismatchIndex());
+    assertEquals(0, difference.getCommonSuffixLength());
+    assertEquals("", difference.getLeftWindow().substring(20));
+    assertEquals("tail", difference.getRightWindow().substring(20));
+  }
+
+
+  @Test
+  void testLongStrings_windowIsBounded() {
+    String left = createString(10_000);
+    String right = new StringBuilder(left).reverse().toString();
+
+    StringDifference difference = (StringDifference) reflectionComparator
+        .getDifference(left, right);
+
+    assertEquals(0, difference.getWindowStart());
+    assertEquals(80, difference.getLeftWindow().length());
+    assertEquals(80, difference.getRightWindow().length());
+  }
+
+
+  @Test
+  void testLongStringBuilders() {
+    StringBuilder left = new StringBuilder(createString(1000));
+    StringBuilder right = new StringBuilder(createString(1000)).replace(10, 11, "#");
+
+    assertNull(reflectionComparator.getDifference(left, new StringBuilder(left)));
+    StringDifference difference = (StringDifference) reflectionComparator
+        .getDifference(left, right);
+    assertEquals(10, difference.getMismatchIndex());
+  }
+
+
+  @Test
+  void testReport_onlyShowsWindows() {
+    Payload left = new Payload(createString(1_000_000) + "left");
+    Payload right = new Payload(createString(1_000_000) + "right");
+
+    Difference difference = reflectionComparator.getDifference(left, right);
+    String report = new DefaultDifferenceReport().createReport(difference);
+
+    assertTrue(getInnerDifference("json", difference) instanceof StringDifference);
+    assertTrue(report.length() < 10_000, "report length " + report.length());
+    assertTrue(report.contains("json[999980..]"), report);
+    assertTrue(report.contains("left\""), report);
+    assertFalse(report.contains(createString(2000)), report);
+  }
+
+
+  private static String createString(int length) {
+    StringBuilder result = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      result.append((char) ('a' + i % 26));
+    }
+    return result.toString();
+  }
+
+
+  private static class Payload {
+
+    private final String json;
+
+    Payload(String json) {
+      this.json = json;
+    }
+  }
+}
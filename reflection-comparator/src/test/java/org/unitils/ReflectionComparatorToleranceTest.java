@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Collections.emptySet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.unitils.reflectionassert.FloatingPointTolerance.absolute;
+import static org.unitils.reflectionassert.FloatingPointTolerance.relative;
+import static org.unitils.reflectionassert.FloatingPointTolerance.ulps;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createReflectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorOptions.defaultOptions;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.FloatingPointTolerance;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.CollectionDifference;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests for the floating point tolerance.
+ */
+class ReflectionComparatorToleranceTest {
+
+  @Test
+  void testAbsolute() {
+    ReflectionComparator reflectionComparator = createComparator(absolute(1e-9));
+
+    assertTrue(reflectionComparator.isEqual(0.1 + 0.2, 0.3));
+    assertTrue(reflectionComparator.isEqual(1.0f, 1.0));
+    assertFalse(reflectionComparator.isEqual(1.0, 1.001));
+  }
+
+
+  @Test
+  void testRelative() {
+    ReflectionComparator reflectionComparator = createComparator(relative(1e-6));
+
+    assertTrue(reflectionComparator.isEqual(1e12, 1e12 + 1));
+    assertFalse(reflectionComparator.isEqual(1.0, 1.01));
+    assertFalse(reflectionComparator.isEqual(0.0, 1e-300));
+  }
+
+
+  @Test
+  void testUlps() {
+    ReflectionComparator reflectionComparator = createComparator(ulps(2));
+
+    assertTrue(reflectionComparator.isEqual(1.0, Math.nextUp(Math.nextUp(1.0))));
+    assertFalse(reflectionComparator.isEqual(1.0, Math.nextUp(Math.nextUp(Math.nextUp(1.0)))));
+    assertTrue(reflectionComparator.isEqual(Double.MIN_VALUE, -Double.MIN_VALUE));
+    assertTrue(reflectionComparator.isEqual(1.0f, Math.nextUp(1.0f)));
+    assertFalse(reflectionComparator.isEqual(Double.MAX_VALUE, Double.POSITIVE_INFINITY));
+  }
+
+
+  @Test
+  void testSpecialValues() {
+    ReflectionComparator reflectionComparator = createComparator(relative(1));
+
+    assertTrue(reflectionComparator.isEqual(Double.NaN, Double.NaN));
+    assertTrue(reflectionComparator
+        .isEqual(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY));
+    assertFalse(reflectionComparator.isEqual(Double.POSITIVE_INFINITY, 1e308));
+    assertFalse(reflectionComparator.isEqual(Double.NaN, 1.0));
+  }
+
+
+  @Test
+  void testFields() {
+    ReflectionComparator reflectionComparator = createComparator(absolute(0.01));
+
+    assertTrue(reflectionComparator.isEqual(new Point(1.0, 2.0f), new Point(1.001, 2.001f)));
+    assertFalse(reflectionComparator.isEqual(new Point(1.0, 2.0f), new Point(1.1, 2.0f)));
+  }
+
+
+  @Test
+  void testDoubleArrays() {
+    double[] left = new double[10_000];
+    double[] right = new double[10_000];
+    for (int i = 0; i < left.length; i++) {
+      left[i] = i * 0.1;
+      right[i] = i / 10.0 + 1e-12;
+    }
+
+    assertTrue(createComparator(absolute(1e-9)).isEqual(left, right));
+    assertFalse(createComparator(null).isEqual(left, right));
+  }
+
+
+  @Test
+  void testFloatArrays_allDifferences() {
+    float[] left = new float[100];
+    float[] right = new float[100];
+    Arrays.fill(left, 1.0f);
+    Arrays.fill(right, 1.0f);
+    right[3] = 1.5f;
+    right[50] = 1.0001f;
+    right[97] = 2.0f;
+
+    CollectionDifference difference = (CollectionDifference) createComparator(absolute(0.01))
+        .getDifference(left, right);
+
+    assertEquals(2, difference.getElementDifferences().size());
+    assertNotNull(difference.getElementDifferences().get(3));
+    assertNotNull(difference.getElementDifferences().get(97));
+  }
+
+
+  @Test
+  void testDoubleArrays_onlyFirstDifference() {
+    double[] left = {1.0, 2.0, 3.0, 4.0};
+    double[] right = {1.0, 2.5, 3.0, 4.5, 5.0};
+
+    CollectionDifference difference = (CollectionDifference) createComparator(absolute(0.1))
+        .getDifference(left, right, true);
+
+    assertEquals(1, difference.getElementDifferences().size());
+    assertNotNull(difference.getElementDifferences().get(1));
+  }
+
+
+  @Test
+  void testInvalidTolerance() {
+    assertThrows(IllegalArgumentException.class, () -> absolute(-1));
+    assertThrows(IllegalArgumentException.class, () -> relative(Double.NaN));
+    assertThrows(IllegalArgumentException.class, () -> absolute(Double.POSITIVE_INFINITY));
+    assertThrows(IllegalArgumentException.class, () -> ulps(-1));
+  }
+
+
+  @Test
+  void testNoTolerance() {
+    assertNull(createReflectionComparator(emptySet(), defaultOptions()).getDifference(0.3, 0.3));
+    assertFalse(createReflectionComparator(emptySet(), defaultOptions()).isEqual(0.1 + 0.2, 0.3));
+  }
+
+
+  private static ReflectionComparator createComparator(FloatingPointTolerance tolerance) {
+    return createReflectionComparator(
+        emptySet(),
+        defaultOptions().withFloatingPointTolerance(tolerance)
+    );
+  }
+
+
+  private static class Point {
+
+    private final double x;
+    private final float y;
+
+    Point(double x, float y) {
+      this.x = x;
+      this.y = y;
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createReflectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_DATES;
+import static org.unitils.reflectionassert.util.InnerDifferenceFinder.getInnerDifference;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.difference.Difference;
+import org.unitils.reflectionassert.difference.ObjectDifference;
+
+
+/**
+ * Test class for {@link ReflectionComparator}. Contains tests with JDK types that have value
+ * semantics.
+ */
+class ReflectionComparatorValueTypeTest {
+
+  /* Class under test */
+  private ReflectionComparator reflectionComparator;
+
+
+  @BeforeEach
+  void setUp() {
+    reflectionComparator = createReflectionComparator();
+  }
+
+
+  @Test
+  void testJavaTime() {
+    LocalDateTime dateTime = LocalDateTime.of(2018, 1, 2, 3, 4, 5);
+
+    assertNull(reflectionComparator
+        .getDifference(dateTime, LocalDateTime.of(2018, 1, 2, 3, 4, 5)));
+    assertNull(reflectionComparator.getDifference(Duration.ofMinutes(60), Duration.ofHours(1)));
+    assertNull(reflectionComparator
+        .getDifference(ZoneId.of("Europe/Paris"), ZoneId.of("Europe/Paris")));
+
+    Difference difference = reflectionComparator.getDifference(dateTime, dateTime.plusNanos(1));
+    assertFalse(difference instanceof ObjectDifference);
+    assertEquals(dateTime, difference.getLeftValue());
+  }
+
+
+  @Test
+  void testJavaTime_differentZones() {
+    LocalDateTime dateTime = LocalDateTime.of(2018, 1, 2, 3, 4, 5);
+
+    assertFalse(reflectionComparator.isEqual(
+        ZonedDateTime.of(dateTime, ZoneId.of("Europe/Paris")),
+        ZonedDateTime.of(dateTime, ZoneId.of("Europe/Berlin"))
+    ));
+  }
+
+
+  @Test
+  void testJavaTime_lenientDates() {
+    assertTrue(createReflectionComparator(LENIENT_DATES).isEqual(
+        LocalDateTime.of(2018, 1, 2, 3, 4, 5),
+        LocalDateTime.of(2000, 1, 1, 0, 0)
+    ));
+  }
+
+
+  @Test
+  void testUuid() {
+    UUID uuid = UUID.randomUUID();
+
+    assertNull(reflectionComparator.getDifference(uuid, UUID.fromString(uuid.toString())));
+    assertFalse(reflectionComparator.isEqual(uuid, UUID.randomUUID()));
+  }
+
+
+  @Test
+  void testStringBuilder() {
+    assertNull(reflectionComparator
+        .getDifference(new StringBuilder("abc"), new StringBuilder("ab").append('c')));
+    assertFalse(reflectionComparator.isEqual(new StringBuilder("abc"), new StringBuilder("abd")));
+    assertFalse(reflectionComparator.isEqual(new StringBuffer("abc"), new StringBuffer("ab")));
+  }
+
+
+  @Test
+  void testOptional() {
+    assertNull(reflectionComparator.getDifference(Optional.empty(), Optional.empty()));
+    assertNull(reflectionComparator
+        .getDifference(Optional.of(new Element("a")), Optional.of(new Element("a"))));
+
+    Difference difference = reflectionComparator
+        .getDifference(Optional.of(new Element("a")), Optional.of(new Element("b")));
+    Difference innerDifference = getInnerDifference(
+        "string",
+        getInnerDifference("value", difference)
+    );
+    assertEquals("a", innerDifference.getLeftValue());
+    assertEquals("b", innerDifference.getRightValue());
+
+    assertFalse(reflectionComparator.isEqual(Optional.empty(), Optional.of("a")));
+    assertFalse(reflectionComparator.isEqual(OptionalDouble.of(0.0), OptionalDouble.of(-0.0)));
+  }
+
+
+  @Test
+  void testAtomics() {
+    assertNull(reflectionComparator
+        .getDifference(new AtomicBoolean(true), new AtomicBoolean(true)));
+    assertFalse(reflectionComparator.isEqual(new AtomicBoolean(true), new AtomicBoolean(false)));
+
+    AtomicReference<Element> left = new AtomicReference<>(new Element("a"));
+    AtomicReference<Element> right = new AtomicReference<>(new Element("b"));
+    Difference difference = reflectionComparator.getDifference(left, right);
+    assertSame(left, difference.getLeftValue());
+    assertEquals("a", getInnerDifference("string", getInnerDifference("value", difference))
+        .getLeftValue());
+  }
+
+
+  /**
+   * Test class without equals.
+   */
+  private static class Element {
+
+    private final String string;
+
+    Element(String string) {
+      this.string = string;
+    }
+  }
+}
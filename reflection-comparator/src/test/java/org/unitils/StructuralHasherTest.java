@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018,  Stanislav Kashirin
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.unitils;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.unitils.reflectionassert.ReflectionComparatorFactory.createReflectionComparator;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.IGNORE_DEFAULTS;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_DATES;
+import static org.unitils.reflectionassert.ReflectionComparatorMode.LENIENT_ORDER;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.unitils.reflectionassert.ReflectionComparator;
+import org.unitils.reflectionassert.ReflectionComparatorMode;
+import org.unitils.reflectionassert.StructuralHasher;
+
+
+/**
+ * Test class for {@link StructuralHasher}.
+ */
+class StructuralHasherTest {
+
+  @Test
+  void testNumbers() {
+    StructuralHasher hasher = new StructuralHasher();
+
+    assertEquals(hasher.hash(1), hasher.hash(1L));
+    assertEquals(hasher.hash(1), hasher.hash(1.0));
+    assertEquals(hasher.hash(new BigDecimal("1.00")), hasher.hash((byte) 1));
+    assertEquals(hasher.hash('a'), hasher.hash(97));
+  }
+
+
+  @Test
+  void testObjects() {
+    StructuralHasher hasher = new StructuralHasher();
+
+    assertEquals(hasher.hash(new Element("a", 1, null)), hasher.hash(new Element("a", 1, null)));
+    assertNotEquals(hasher.hash(new Element("a", 1, null)), hasher.hash(new Element("b", 1, null)));
+    assertEquals(
+        hasher.hash(new Element("a", 1, asList(new Element("b", 2, null)))),
+        hasher.hash(new Element("a", 1, asList(new Element("b", 2, null))))
+    );
+  }
+
+
+  @Test
+  void testCycles() {
+    StructuralHasher hasher = new StructuralHasher();
+
+    assertEquals(hasher.hash(createCycle()), hasher.hash(createCycle()));
+  }
+
+
+  @Test
+  void testIgnoreDefaults() {
+    StructuralHasher hasher = new StructuralHasher(IGNORE_DEFAULTS);
+
+    assertEquals(hasher.hash(0.0), hasher.hash(null));
+    assertEquals(hasher.hash(asList(null, 1)), hasher.hash(asList(0L, 1)));
+    assertEquals(hasher.hash(false), hasher.hash(null));
+  }
+
+
+  @Test
+  void testLenientDates() {
+    StructuralHasher hasher = new StructuralHasher(LENIENT_DATES);
+
+    assertEquals(hasher.hash(new Date(1)), hasher.hash(new Date(2)));
+    assertEquals(hasher.hash(LocalDate.of(2000, 1, 1)), hasher.hash(LocalDate.of(2020, 2, 2)));
+    assertNotEquals(
+        new StructuralHasher().hash(new Date(1)),
+        new StructuralHasher().hash(new Date(2))
+    );
+  }
+
+
+  @Test
+  void testLenientOrder() {
+    StructuralHasher hasher = new StructuralHasher(LENIENT_ORDER);
+
+    assertEquals(hasher.hash(asList("a", "b", "c")), hasher.hash(new String[]{"c", "a", "b"}));
+    assertNotEquals(
+        new StructuralHasher().hash(asList("a", "b", "c")),
+        new StructuralHasher().hash(asList("c", "a", "b"))
+    );
+  }
+
+
+  /**
+   * Checks the invariant for pairs of sample values: values that are equal in both directions
+   * must have the same hash.
+   */
+  @Test
+  void testConsistentWithComparator() {
+    List<Object> values = createSampleValues();
+    List<Set<ReflectionComparatorMode>> modeSets = asList(
+        EnumSet.noneOf(ReflectionComparatorMode.class),
+        EnumSet.of(IGNORE_DEFAULTS),
+        EnumSet.of(LENIENT_DATES),
+        EnumSet.of(LENIENT_ORDER),
+        EnumSet.allOf(ReflectionComparatorMode.class)
+    );
+    for (Set<ReflectionComparatorMode> modes : modeSets) {
+      StructuralHasher hasher = new StructuralHasher(modes);
+      for (Object left : values) {
+        for (Object right : values) {
+          ReflectionComparator comparator = createReflectionComparator(modes);
+          if (comparator.isEqual(left, right) && comparator.isEqual(right, left)) {
+            assertEquals(hasher.hash(left), hasher.hash(right), modes + ": " + left + ", " + right);
+          }
+        }
+      }
+    }
+  }
+
+
+  private static List<Object> createSampleValues() {
+    Map<String, Object> map = new HashMap<>();
+    map.put("a", 1);
+    Map<String, Object> otherMap = new HashMap<>();
+    otherMap.put("a", 1L);
+    return new ArrayList<>(asList(
+        null, 0, 0L, 0.0, false, 1, 1.0, 2, "a", "b", 'a',
+        new Date(1), new Date(2), LocalDate.of(2000, 1, 1), LocalDate.of(2000, 1, 2),
+        asList(1, 2), asList(2, 1), new int[]{1, 2}, new long[]{2, 1},
+        Optional.of(1), Optional.of(1L), Optional.empty(),
+        map, otherMap,
+        new Element(null, 0, null), new Element("a", 0, null), new Element("a", 1, asList(1, 2)),
+        new Element("a", 1, asList(2L, 1L)), createCycle(), createCycle(),
+        new StringBuilder("a"), new StringBuilder("a"), new StringBuffer("b"),
+        new AtomicBoolean(true), new AtomicBoolean(true),
+        EnumSet.of(IGNORE_DEFAULTS, LENIENT_ORDER), asList(IGNORE_DEFAULTS, LENIENT_ORDER),
+        asList(LENIENT_ORDER, IGNORE_DEFAULTS)
+    ));
+  }
+
+  private static Element createCycle() {
+    Element element = new Element("cycle", 1, null);
+    element.children = asList(element, new Element("leaf", 2, asList(element)));
+    return element;
+  }
+
+
+  private static class Element {
+
+    private final String name;
+    private final int count;
+    private List<?> children;
+
+    Element(String name, int count, List<?> children) {
+      this.name = name;
+      this.count = count;
+      this.children = children;
+    }
+
+    @Override
+    public String toString() {
+      return "Element<" + name + ">";
+    }
+  }
+}